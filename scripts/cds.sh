@@ -0,0 +1,55 @@
+#!/bin/sh
+# Class-data-sharing (CDS) layout and archive for fast startup. Build the jar with -Paot first.
+#   scripts/cds.sh extract target/product-catalog-api-0.0.1-SNAPSHOT.jar target/cds
+#       Unpacks the Boot jar into a layout CDS can use (it only takes jars on the class path, no nested jars
+#       and no directories): application.jar with the application classes, lib/ with the dependency jars and
+#       classpath.args with -cp in the order of BOOT-INF/classpath.idx, for 'java @classpath.args'.
+#   scripts/cds.sh train target/cds
+#       Training run: starts the application context with the prod profile and AOT, exits right after the
+#       refresh (spring.context.exit=onRefresh) and dumps the classes it loaded to application.jsa. It needs
+#       no database; connection errors in training.log are expected.
+# Then start with: java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true
+#                       -Dspring.profiles.active=prod @classpath.args com.appababba.product_catalog_api.ProductCatalogApiApplication
+# The archive only matches the JDK and the jar files (paths, sizes, timestamps) it was recorded with, so train
+# where it will run - the Dockerfile does it in the final image.
+set -e
+
+MAIN_CLASS=com.appababba.product_catalog_api.ProductCatalogApiApplication
+
+extract() {
+    jar=$(cd "$(dirname "$1")" && pwd)/$(basename "$1")
+    mkdir -p "$2/lib"
+    out=$(cd "$2" && pwd)
+    work=$(mktemp -d)
+    cd "$work"
+    unzip -q "$jar"
+    (cd BOOT-INF/classes && zip -q -r "$out/application.jar" .)
+    classpath=application.jar
+    for lib in $(sed -n 's/^- "BOOT-INF\/lib\/\(.*\)"$/\1/p' BOOT-INF/classpath.idx); do
+        mv "BOOT-INF/lib/$lib" "$out/lib/"
+        classpath="$classpath:lib/$lib"
+    done
+    echo "-cp $classpath" > "$out/classpath.args"
+    cd "$out"
+    rm -rf "$work"
+}
+
+train() {
+    cd "$1"
+    rm -f application.jsa
+    java -XX:ArchiveClassesAtExit=application.jsa \
+         -Dspring.aot.enabled=true \
+         -Dspring.profiles.active=prod \
+         -Dspring.context.exit=onRefresh \
+         -Dspring.datasource.url=jdbc:postgresql://localhost:1/training \
+         -Dspring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false \
+         @classpath.args $MAIN_CLASS > training.log 2>&1
+    test -s application.jsa
+    echo "CDS archive: $(pwd)/application.jsa ($(du -k application.jsa | cut -f1) KB)"
+}
+
+case "$1" in
+    extract) extract "$2" "$3" ;;
+    train) train "$2" ;;
+    *) echo "usage: $0 extract <boot-jar> <dir> | train <dir>" >&2; exit 2 ;;
+esac
@@ -0,0 +1,73 @@
+#!/bin/sh
+# Startup time and time to first request, per startup mode. Needs PostgreSQL reachable with the usual
+# spring.datasource settings (SPRING_DATASOURCE_URL etc. are passed through) and a jar built with -Paot:
+#   ./mvnw -Paot -DskipTests package && scripts/startup-benchmark.sh [runs]
+# Modes:
+#   jar           java -jar, default profile (Hibernate ddl-auto=update)
+#   prod          java -jar, prod profile (Flyway, ddl-auto=none)
+#   prod-aot      same, with the AOT-generated bean definitions (-Dspring.aot.enabled=true)
+#   prod-aot-cds  unpacked layout + CDS archive from scripts/cds.sh, i.e. what the Docker image runs
+# For each run: "started" is Spring's own "Started ... in" time (JVM start to context ready, excluding the
+# first request), "first request" is wall time from launching java until GET /api/v1/products/1 answers.
+# Medians over the runs are printed at the end. Nothing else should be using the port.
+set -e
+
+RUNS=${1:-5}
+PORT=${PORT:-18090}
+JAR=$(ls target/product-catalog-api-*.jar | head -1)
+LAYOUT=target/cds
+MAIN_CLASS=com.appababba.product_catalog_api.ProductCatalogApiApplication
+RESULTS=$(mktemp)
+
+if [ ! -f "$LAYOUT/application.jsa" ] || [ "$JAR" -nt "$LAYOUT/application.jsa" ]; then
+    rm -rf "$LAYOUT"
+    scripts/cds.sh extract "$JAR" "$LAYOUT"
+    scripts/cds.sh train "$LAYOUT"
+fi
+
+now_millis() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+# run <mode> <directory> <java args...>
+run() {
+    mode=$1
+    dir=$2
+    shift 2
+    log=$(mktemp)
+    start=$(now_millis)
+    (cd "$dir" && exec java "$@" --server.port="$PORT") > "$log" 2>&1 &
+    pid=$!
+    until status=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/api/v1/products/1") \
+            && [ "$status" != "000" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$mode: application exited, see $log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    first_request=$(($(now_millis) - start))
+    started=$(sed -n 's/.*Started ProductCatalogApiApplication in \([0-9.]*\) seconds.*/\1/p' "$log")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    rm -f "$log"
+    echo "$mode $started $first_request" | tee -a "$RESULTS"
+}
+
+ABSOLUTE_JAR=$(pwd)/$JAR
+for i in $(seq "$RUNS"); do
+    run jar . -jar "$ABSOLUTE_JAR"
+    run prod . -Dspring.profiles.active=prod -jar "$ABSOLUTE_JAR"
+    run prod-aot . -Dspring.profiles.active=prod -Dspring.aot.enabled=true -jar "$ABSOLUTE_JAR"
+    run prod-aot-cds "$LAYOUT" -XX:SharedArchiveFile=application.jsa -Dspring.profiles.active=prod \
+        -Dspring.aot.enabled=true @classpath.args "$MAIN_CLASS"
+done
+
+echo
+echo "median over $RUNS runs: mode, started (s), first request (ms)"
+for mode in jar prod prod-aot prod-aot-cds; do
+    started=$(awk -v m="$mode" '$1 == m {print $2}' "$RESULTS" | sort -n | awk '{v[NR] = $1} END {print v[int((NR + 1) / 2)]}')
+    first=$(awk -v m="$mode" '$1 == m {print $3}' "$RESULTS" | sort -n | awk '{v[NR] = $1} END {print v[int((NR + 1) / 2)]}')
+    echo "$mode $started $first"
+done
+rm -f "$RESULTS"
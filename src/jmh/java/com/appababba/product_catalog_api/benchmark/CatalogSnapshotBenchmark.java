@@ -0,0 +1,86 @@
+package com.appababba.product_catalog_api.benchmark; // JMH benchmarks (mvn -Pbenchmarks verify)
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.snapshot.ProductSnapshot; // Columnar catalog copy
+import org.openjdk.jmh.annotations.*; // Benchmark, State, Setup, etc.
+import org.openjdk.jol.info.GraphLayout; // Retained size of an object graph
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Snapshot mode: the columnar ProductSnapshot against the same catalog held as detached Product entities
+// (a List for pages, a HashMap for id lookups). The retained heap of each is printed once per trial
+// ("bytes per product"); the benchmarks show what the compact layout costs per read, since every hit
+// materializes a new Product from the columns.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogSnapshotBenchmark {
+
+    @Param({"100000"})
+    int size;
+
+    private List<Product> products;
+    private Map<Long, Product> productsById;
+    private ProductSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void createCatalog() {
+        products = new ArrayList<>(size);
+        productsById = new HashMap<>(size * 2);
+        ProductSnapshot.Builder builder = ProductSnapshot.builder(0);
+        Instant now = Instant.now();
+        for (int i = 1; i <= size; i++) {
+            // Like a loaded row; a few colours repeat, the rest of each string is unique
+            Product product = new Product((long) i, "Product " + i,
+                    "Description of product number " + i + " in " + COLOURS[i % COLOURS.length], 10.0 + i * 0.25);
+            product.setVersion((long) (i % 5));
+            product.setLastModified(now.minusSeconds(i));
+            products.add(product);
+            productsById.put(product.getId(), product);
+            builder.add(product);
+        }
+        snapshot = builder.build();
+
+        long listBytes = GraphLayout.parseInstance(products).totalSize();
+        long snapshotBytes = GraphLayout.parseInstance(snapshot).totalSize();
+        System.out.printf("%n%d products: List<Product> %d bytes (%d per product), ProductSnapshot %d bytes (%d per product)%n",
+                size, listBytes, listBytes / size, snapshotBytes, snapshotBytes / size);
+    }
+
+    @Benchmark
+    public Optional<Product> snapshotFindById() {
+        return snapshot.findById(randomId());
+    }
+
+    @Benchmark
+    public Product mapFindById() {
+        return productsById.get(randomId());
+    }
+
+    @Benchmark
+    public List<Product> snapshotPage() {
+        return snapshot.page(randomId(), 100);
+    }
+
+    @Benchmark
+    public List<Product> listPage() {
+        int from = (int) randomId(); // ids are 1..size, so the products after id n start at index n
+        return new ArrayList<>(products.subList(Math.min(from, size), Math.min(from + 100, size)));
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, size + 1);
+    }
+
+    private static final String[] COLOURS = {"red", "green", "blue", "black", "white"};
+}
@@ -0,0 +1,103 @@
+package com.appababba.product_catalog_api.benchmark; // JMH benchmarks (mvn -Pbenchmarks verify)
+
+import com.appababba.product_catalog_api.controller.ProductController;
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.pagination.ProductPage;
+import com.appababba.product_catalog_api.service.CatalogVersion;
+import com.appababba.product_catalog_api.service.ProductJsonCache;
+import com.appababba.product_catalog_api.service.ProductService;
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*; // Benchmark, State, Setup, etc.
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Spring MVC dispatch overhead of ProductController: handler lookup, argument binding, message conversion.
+// The service is an in-memory stub, so serviceCall is the baseline and the difference is the web layer.
+// jsonCache=true serves the JSON from ProductJsonCache instead of running Jackson per request; add "-prof gc"
+// to compare the allocation per request (gc.alloc.rate.norm) of the two paths.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductControllerDispatchBenchmark {
+
+    static final int PAGE_SIZE = 100;
+
+    @Param({"false", "true"})
+    boolean jsonCache;
+
+    private StubProductService productService;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        productService = new StubProductService();
+        ProductJsonCache productJsonCache = new ProductJsonCache(productService,
+                new CatalogSnapshot(null, null, null, false, 0, Duration.ZERO), objectMapper, jsonCache, "maximumSize=10000");
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new ProductController(productService, objectMapper, new CatalogVersion(), productJsonCache)).build();
+    }
+
+    @Benchmark
+    public Optional<Product> serviceCall() {
+        return productService.getProductById(42L);
+    }
+
+    @Benchmark
+    public MvcResult getProductById() throws Exception {
+        return mockMvc.perform(get("/api/v1/products/42")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getProductsPage() throws Exception {
+        return mockMvc.perform(get("/api/v1/products").param("limit", String.valueOf(PAGE_SIZE))).andReturn();
+    }
+
+    // Serves fixed data without a repository
+    static class StubProductService extends ProductService {
+
+        private final Product product = stored(new Product(42L, "Product 42", "Benchmark product", 19.99));
+        private final ProductPage page;
+
+        StubProductService() {
+            super(null, null, null, null, null);
+            List<Product> items = new ArrayList<>(PAGE_SIZE);
+            for (int i = 1; i <= PAGE_SIZE; i++) {
+                items.add(stored(new Product((long) i, "Product " + i, "Benchmark product " + i, 10.0 + i)));
+            }
+            page = new ProductPage(items, null);
+        }
+
+        // Version and timestamp like a row read from the database (the JSON cache keys entries on them)
+        private static Product stored(Product product) {
+            product.setVersion(1L);
+            product.setLastModified(Instant.parse("2024-05-01T10:00:00Z"));
+            return product;
+        }
+
+        @Override
+        public Optional<Product> getProductById(Long id) {
+            return Optional.of(product);
+        }
+
+        @Override
+        public ProductPage getProductsPage(Long afterId, int limit) {
+            return page;
+        }
+    }
+}
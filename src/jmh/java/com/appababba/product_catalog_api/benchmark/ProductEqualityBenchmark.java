@@ -0,0 +1,72 @@
+package com.appababba.product_catalog_api.benchmark; // JMH benchmarks (mvn -Pbenchmarks verify)
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+import org.openjdk.jmh.annotations.*; // Benchmark, State, Setup, etc.
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Product.equals/hashCode on large collections: every field takes part (Objects.hash boxes into an array),
+// so hash-based collections of products pay for it on every insert and lookup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductEqualityBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private List<Product> products;
+    private List<Product> copies; // Equal but not identical, so equals() compares fields
+    private Set<Product> productSet;
+
+    @Setup(Level.Trial)
+    public void createProducts() {
+        products = new ArrayList<>(size);
+        copies = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(new Product((long) i, "Product " + i, "Description of product number " + i, 10.0 + i));
+            copies.add(new Product((long) i, "Product " + i, "Description of product number " + i, 10.0 + i));
+        }
+        productSet = new HashSet<>(products);
+    }
+
+    @Benchmark
+    public int hashCodeAll() {
+        int hash = 0;
+        for (Product product : products) {
+            hash += product.hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int equalsAll() {
+        int equal = 0;
+        for (int i = 0; i < size; i++) {
+            if (products.get(i).equals(copies.get(i))) {
+                equal++;
+            }
+        }
+        return equal;
+    }
+
+    @Benchmark
+    public Set<Product> buildHashSet() {
+        return new HashSet<>(products);
+    }
+
+    @Benchmark
+    public void hashSetLookups(Blackhole blackhole) {
+        for (Product copy : copies) {
+            blackhole.consume(productSet.contains(copy));
+        }
+    }
+}
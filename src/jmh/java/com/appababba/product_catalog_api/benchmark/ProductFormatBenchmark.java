@@ -0,0 +1,86 @@
+package com.appababba.product_catalog_api.benchmark; // JMH benchmarks (mvn -Pbenchmarks verify)
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*; // Benchmark, State, Setup, etc.
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Wire formats for the list responses: JSON vs Smile vs CBOR, each with and without gzip (what Tomcat does
+// with server.compression). Time per list is the serialization CPU; the byte counts for each format are
+// printed once per trial ("bytes on wire").
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    @Param({"100", "1000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader listReader;
+    private List<Product> products;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void createProducts() throws IOException {
+        // Same mapper configuration the app uses for each converter
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = switch (format) {
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> builder.build();
+        };
+        listReader = objectMapper.readerForListOf(Product.class);
+        products = new ArrayList<>(size);
+        Instant now = Instant.now();
+        for (int i = 0; i < size; i++) {
+            // Like a stored row: version and timestamp are part of every response
+            Product product = new Product((long) i, "Product " + i, "Description of product number " + i, 10.0 + i * 0.25);
+            product.setVersion(3L);
+            product.setLastModified(now);
+            products.add(product);
+        }
+        encoded = objectMapper.writeValueAsBytes(products);
+        System.out.printf("%n%s, %d products: %d bytes, %d bytes gzipped%n", format, size, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeListGzip() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(products));
+    }
+
+    @Benchmark
+    public List<Product> deserializeList() throws IOException {
+        return listReader.readValue(encoded);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) { // Default level, as Tomcat uses
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+package com.appababba.product_catalog_api.benchmark; // JMH benchmarks (mvn -Pbenchmarks verify)
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.service.ProductJsonCache; // Pre-encoded product JSON
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*; // Benchmark, State, Setup, etc.
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson cost of the list responses (GET /api/v1/products) and request bodies, by list size.
+// serializeListFromJsonCache is the same list assembled from ProductJsonCache (every element cached).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    @Param({"1", "100", "1000", "10000"})
+    int size;
+
+    // Configured like the mapper Spring Boot builds for the app
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectReader listReader = objectMapper.readerForListOf(Product.class);
+    private List<Product> products;
+    private byte[] json;
+    private ProductJsonCache productJsonCache;
+
+    @Setup(Level.Trial)
+    public void createProducts() throws JsonProcessingException {
+        products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = new Product((long) i, "Product " + i, "Description of product number " + i, 10.0 + i * 0.25);
+            product.setVersion(1L); // Stored rows have a version and timestamp (the JSON cache keys entries on them)
+            product.setLastModified(Instant.parse("2024-05-01T10:00:00Z"));
+            products.add(product);
+        }
+        json = objectMapper.writeValueAsBytes(products);
+        productJsonCache = new ProductJsonCache(null, new CatalogSnapshot(null, null, null, false, 0, Duration.ZERO),
+                objectMapper, true, "maximumSize=" + size);
+        productJsonCache.arrayOf(products); // Fills the cache
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeListFromJsonCache() {
+        return productJsonCache.arrayOf(products);
+    }
+
+    @Benchmark
+    public List<Product> deserializeList() throws IOException {
+        return listReader.readValue(json);
+    }
+}
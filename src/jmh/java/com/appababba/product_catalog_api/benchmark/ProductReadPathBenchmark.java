@@ -0,0 +1,110 @@
+package com.appababba.product_catalog_api.benchmark; // JMH benchmarks (mvn -Pbenchmarks verify)
+
+import com.appababba.product_catalog_api.ProductCatalogApiApplication;
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.model.ProductView; // Read-only product row
+import com.appababba.product_catalog_api.repository.ProductRepository;
+import com.appababba.product_catalog_api.repository.ProductViewRepository;
+import com.appababba.product_catalog_api.service.ProductBatchService;
+import com.appababba.product_catalog_api.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres; // Throwaway local PostgreSQL server
+import org.openjdk.jmh.annotations.*; // Benchmark, State, Setup, etc.
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Whole-catalog reads on an embedded PostgreSQL: managed entities against ProductView projections.
+// - entityFindAll / viewsStreamed: the read alone - ProductRepository.findAll() (one list of entities in a
+//   persistence context) against the projection query streamed with app.read.fetch-size.
+// - exportEntityPages / exportViews: the NDJSON export before and after, rows serialized to a null stream.
+// Run with "-prof gc": gc.alloc.rate.norm is the heap each read churns through; time/op is mostly CPU
+// (the database is local, the table fits in its buffers).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductReadPathBenchmark {
+
+    @Param({"10000"})
+    int size;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductViewRepository productViewRepository;
+    private ProductService productService;
+    private ObjectMapper objectMapper;
+    private final OutputStream out = OutputStream.nullOutputStream();
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        context = new SpringApplicationBuilder(ProductCatalogApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        productRepository = context.getBean(ProductRepository.class);
+        productViewRepository = context.getBean(ProductViewRepository.class);
+        productService = context.getBean(ProductService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // Descriptions of a realistic length: the entity path compares and copies them too
+            products.add(new Product(null, "Product " + i, "Benchmark product " + i + " - " + "lorem ipsum ".repeat(15), 1.0 + (i % 1000)));
+        }
+        context.getBean(ProductBatchService.class).createProducts(products.iterator());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<Product> entityFindAll() {
+        return productRepository.findAll();
+    }
+
+    @Benchmark
+    public int viewsStreamed(Blackhole blackhole) {
+        return productViewRepository.forEachAfter(0L, Integer.MAX_VALUE, blackhole::consume);
+    }
+
+    // The export before: keyset pages of 500 entities, each page in its own transaction
+    @Benchmark
+    public void exportEntityPages() {
+        productService.forEachProductPage(null, 500, page -> page.forEach(this::write));
+    }
+
+    // The export now: projections off a cursor, 500 rows per transaction, written after each commits
+    @Benchmark
+    public void exportViews() {
+        productService.forEachProductView(null, 500, this::write);
+    }
+
+    private void write(Object row) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.appababba.product_catalog_api.benchmark; // JMH benchmarks (mvn -Pbenchmarks verify)
+
+import com.appababba.product_catalog_api.ProductCatalogApiApplication;
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.pagination.ProductPage;
+import com.appababba.product_catalog_api.pagination.ProductSort;
+import com.appababba.product_catalog_api.repository.ProductRepository;
+import com.appababba.product_catalog_api.service.BatchItemResult;
+import com.appababba.product_catalog_api.service.ProductBatchService;
+import com.appababba.product_catalog_api.service.ProductService; // The class being measured
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres; // Throwaway local PostgreSQL server
+import org.openjdk.jmh.annotations.*; // Benchmark, State, Setup, etc.
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// ProductService read and write paths through the real Spring context (proxies, transactions, cache)
+// on an embedded PostgreSQL on localhost, so the numbers show framework + ORM + SQL cost rather than network latency.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    static final int CATALOG_SIZE = 10_000; // Fits in the product cache (maximumSize=10000)
+    static final int PAGE_SIZE = 100;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private long[] ids; // Ids of the seeded catalog
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        context = new SpringApplicationBuilder(ProductCatalogApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+
+        List<Product> products = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            products.add(new Product(null, "Product " + i, "Benchmark product " + i, 1.0 + (i % 1000)));
+        }
+        ids = context.getBean(ProductBatchService.class).createProducts(products.iterator()).stream()
+                .mapToLong(BatchItemResult::id)
+                .toArray();
+        for (long id : ids) {
+            productService.getProductById(id); // Warm the product cache
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    // Cache hit after the first pass over the catalog
+    @Benchmark
+    public Optional<Product> getProductByIdCached() {
+        return productService.getProductById(randomId());
+    }
+
+    // Same lookup without the cache: transaction + SELECT by primary key
+    @Benchmark
+    public Optional<Product> findByIdUncached() {
+        return productRepository.findById(randomId());
+    }
+
+    // Keyset page from a random position
+    @Benchmark
+    public ProductPage getProductsPage() {
+        return productService.getProductsPage(randomId(), PAGE_SIZE);
+    }
+
+    // Price range filter sorted by price (idx_products_price_id)
+    @Benchmark
+    public ProductPage findProductsByPrice() {
+        double minPrice = ThreadLocalRandom.current().nextInt(900);
+        return productService.findProducts(minPrice, minPrice + 100, ProductSort.PRICE_ASC, null, PAGE_SIZE);
+    }
+
+    // Write path: one UPDATE ... RETURNING (no read before it), cache put and change event
+    @Benchmark
+    public Optional<Product> updateProduct() {
+        long id = randomId();
+        Product details = new Product(null, "Product " + id, "Updated product " + id, 1.0 + (id % 1000));
+        return productService.updateProduct(id, details, null);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
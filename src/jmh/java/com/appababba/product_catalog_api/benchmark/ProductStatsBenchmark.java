@@ -0,0 +1,63 @@
+package com.appababba.product_catalog_api.benchmark; // JMH benchmarks (mvn -Pbenchmarks verify)
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.service.CatalogVersion;
+import com.appababba.product_catalog_api.sharding.ShardedProductStore;
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot;
+import com.appababba.product_catalog_api.snapshot.ProductSnapshot; // Columnar catalog copy
+import com.appababba.product_catalog_api.stats.ProductStats;
+import com.appababba.product_catalog_api.stats.ProductStatsService; // Stats endpoint logic
+import org.openjdk.jmh.annotations.*; // Benchmark, State, Setup, etc.
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The stats endpoint in snapshot mode: fork-join scan of the price columns on the common pool
+// (summary + sketch pass, then histogram pass). The result cache is disabled so every call scans.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductStatsBenchmark {
+
+    @Param({"1000000", "5000000"})
+    int size;
+
+    private ProductStatsService productStatsService;
+
+    @Setup(Level.Trial)
+    public void createCatalog() {
+        ProductSnapshot.Builder builder = ProductSnapshot.builder(0);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 1; i <= size; i++) {
+            // Log-normal-ish prices, a handful of name prefixes
+            double price = Math.round(Math.exp(random.nextGaussian() + 3) * 100) / 100.0;
+            builder.add(new Product((long) i, PREFIXES[i % PREFIXES.length] + " " + i, null, price));
+        }
+        ProductSnapshot snapshot = builder.build();
+        CatalogSnapshot catalogSnapshot = new CatalogSnapshot(null, null, null, false, 0, Duration.ZERO) {
+            @Override
+            public Optional<ProductSnapshot> current() {
+                return Optional.of(snapshot);
+            }
+        };
+        productStatsService = new ProductStatsService(null, ShardedProductStore.disabled(), catalogSnapshot, new CatalogVersion(), Duration.ZERO);
+    }
+
+    @Benchmark
+    public ProductStats wholeCatalog() {
+        return productStatsService.getStats(null, null, null, 20, null);
+    }
+
+    @Benchmark
+    public ProductStats priceRangeAndNamePrefix() {
+        return productStatsService.getStats(10.0, 50.0, "Lamp", 1, List.of(10.0, 20.0, 30.0, 40.0, 50.0));
+    }
+
+    private static final String[] PREFIXES = {"Lamp", "Chair", "Table", "Shelf", "Rug"};
+}
@@ -0,0 +1,107 @@
+package com.appababba.product_catalog_api.loadtest; // Catalog workload harness (run with -Pload-test)
+
+import com.appababba.product_catalog_api.ProductCatalogApiApplication;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.service.BatchItemResult;
+import com.appababba.product_catalog_api.service.ProductBatchService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres; // Throwaway local PostgreSQL server
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+
+// Starts the app on a throwaway PostgreSQL (the PUT path uses native UPDATE ... RETURNING), seeds the catalog and
+// drives it with an open-model workload (WorkloadProfile), then writes target/load-reports/<name>.json.
+//   ./mvnw test -Pload-test -Dtest=CatalogWorkloadLoadTest -Dload.profile=mixed -Dload.rate=800 -Dload.name=before
+//   ./mvnw test -Pload-test -Dtest=CatalogWorkloadLoadTest -Dload.rate=800 -Dload.name=after -Dload.baseline=before
+// The second run also prints and writes after-vs-before.txt. Compare two saved reports without running anything:
+//   ./mvnw test -Pload-test -Dtest=CatalogWorkloadLoadTest -Dload.compare=before,after
+@Tag("load") // Excluded from the normal build
+class CatalogWorkloadLoadTest {
+
+    static final long POPULARITY_SEED = 42; // Same hot products in every run
+
+    private final Path reportDirectory = Path.of(System.getProperty("load.report-dir", "target/load-reports"));
+
+    @Test
+    @DisabledIfSystemProperty(named = "load.compare", matches = ".+")
+    void runWorkload() throws Exception {
+        WorkloadProfile profile = WorkloadProfile.fromSystemProperties();
+        LoadReport report;
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+             ConfigurableApplicationContext app = new SpringApplicationBuilder(ProductCatalogApiApplication.class)
+                     .run(appArguments(postgres, profile))) {
+            long[] ids = seedCatalog(app, profile.catalogSize());
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            report = new OpenModelLoad(profile, new ZipfianIds(ids, profile.zipfExponent(), POPULARITY_SEED), port).run();
+        }
+
+        Path file = report.write(reportDirectory);
+        System.out.println();
+        System.out.println(report.summary());
+        System.out.println("Report: " + file.toAbsolutePath());
+        String baseline = System.getProperty("load.baseline");
+        if (baseline != null && !baseline.isBlank()) {
+            compare(reportFile(baseline), file);
+        }
+
+        assertThat(report.operations().get(LoadReport.ALL).requests()).isPositive();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "load.compare", matches = ".+")
+    void compareReports() throws Exception {
+        String[] names = System.getProperty("load.compare").split(",");
+        assertThat(names).as("load.compare=<baseline>,<current>").hasSize(2);
+        compare(reportFile(names[0].trim()), reportFile(names[1].trim()));
+    }
+
+    private void compare(Path baselineFile, Path currentFile) throws Exception {
+        LoadReport baseline = LoadReport.read(baselineFile);
+        LoadReport current = LoadReport.read(currentFile);
+        String comparison = current.compareTo(baseline);
+        Files.writeString(reportDirectory.resolve(current.name() + "-vs-" + baseline.name() + ".txt"), comparison);
+        System.out.println();
+        System.out.println(comparison);
+    }
+
+    // A report name from the report directory, or a path to a .json file
+    private Path reportFile(String nameOrPath) {
+        return nameOrPath.endsWith(".json") ? Path.of(nameOrPath) : reportDirectory.resolve(nameOrPath + ".json");
+    }
+
+    private static String[] appArguments(EmbeddedPostgres postgres, WorkloadProfile profile) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        if (!profile.appArgs().isBlank()) {
+            args.addAll(Arrays.asList(profile.appArgs().trim().split("\\s+"))); // Later arguments win
+        }
+        return args.toArray(String[]::new);
+    }
+
+    private static long[] seedCatalog(ConfigurableApplicationContext app, int catalogSize) {
+        List<Product> products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            products.add(new Product(null, "Product " + i, "Load test product " + i, 1.0 + (i % 1000)));
+        }
+        return app.getBean(ProductBatchService.class).createProducts(products.iterator()).stream()
+                .mapToLong(BatchItemResult::id)
+                .toArray();
+    }
+}
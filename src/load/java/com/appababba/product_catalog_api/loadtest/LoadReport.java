@@ -0,0 +1,192 @@
+package com.appababba.product_catalog_api.loadtest; // Catalog workload harness (run with -Pload-test)
+
+import com.appababba.product_catalog_api.loadtest.WorkloadProfile.Operation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+// Result of one run, saved as <report-dir>/<name>.json so a later run can be compared against it:
+// per operation (and "all" together) throughput, error rate, latency percentiles and the full HDR histogram
+// (compressed, base64) - plus <name>-<operation>.hgrm percentile distributions for the HdrHistogram plotter.
+public record LoadReport(String name,
+                        Instant startedAt,
+                        WorkloadProfile profile,
+                        double seconds,                            // Measured window
+                        Map<String, OperationReport> operations) { // get, list, update, all
+
+    static final String ALL = "all";
+
+    private static final ObjectMapper JSON = Jackson2ObjectMapperBuilder.json()
+            .featuresToEnable(SerializationFeature.INDENT_OUTPUT)
+            .build();
+
+    static LoadReport of(WorkloadProfile profile, Instant startedAt, double seconds, Map<Operation, OpenModelLoad.Recording> recordings) {
+        Map<String, OperationReport> operations = new LinkedHashMap<>();
+        Histogram all = new Histogram(OpenModelLoad.HIGHEST_TRACKABLE_NANOS, 3);
+        Map<String, Long> allOutcomes = new TreeMap<>();
+        long allDropped = 0;
+        for (Map.Entry<Operation, OpenModelLoad.Recording> entry : recordings.entrySet()) {
+            OpenModelLoad.Recording recording = entry.getValue();
+            Map<String, Long> outcomes = new TreeMap<>();
+            recording.outcomes.forEach((outcome, count) -> outcomes.put(outcome, count.sum()));
+            operations.put(entry.getKey().key(), OperationReport.of(recording.latencies, outcomes, recording.dropped.sum(), seconds));
+            all.add(recording.latencies);
+            outcomes.forEach((outcome, count) -> allOutcomes.merge(outcome, count, Long::sum));
+            allDropped += recording.dropped.sum();
+        }
+        operations.put(ALL, OperationReport.of(all, allOutcomes, allDropped, seconds));
+        return new LoadReport(profile.name(), startedAt, profile, seconds, operations);
+    }
+
+    public static LoadReport read(Path file) throws IOException {
+        return JSON.readValue(file.toFile(), LoadReport.class);
+    }
+
+    // Writes <name>.json and the .hgrm files; returns the JSON file
+    public Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(name + ".json");
+        JSON.writeValue(file.toFile(), this);
+        for (Map.Entry<String, OperationReport> entry : operations.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + "-" + entry.getKey() + ".hgrm")))) {
+                entry.getValue().histogram().outputPercentileDistribution(out, 1e6); // In milliseconds
+            }
+        }
+        return file;
+    }
+
+    public String summary() {
+        StringBuilder text = new StringBuilder(profile.toString()).append('\n');
+        text.append(String.format(Locale.ROOT, "%-8s %10s %10s %9s %9s %9s %9s %9s   %s%n",
+                "op", "requests", "req/s", "errors %", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "outcomes"));
+        operations.forEach((operation, report) -> text.append(String.format(Locale.ROOT,
+                "%-8s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f   %s%n", operation, report.requests(), report.throughput(),
+                100 * report.errorRate(), report.p50Millis(), report.p99Millis(), report.p999Millis(), report.maxMillis(),
+                report.outcomes() + (report.dropped() > 0 ? " dropped=" + report.dropped() : ""))));
+        return text.toString();
+    }
+
+    // Side-by-side table of this run against an earlier one; deltas are relative to the baseline
+    public String compareTo(LoadReport baseline) {
+        StringBuilder text = new StringBuilder();
+        text.append("baseline: ").append(baseline.profile()).append('\n');
+        text.append("current:  ").append(profile).append('\n');
+        text.append(String.format(Locale.ROOT, "%-8s %-10s %12s %12s %9s%n", "op", "metric", baseline.name(), name, "delta"));
+        for (Map.Entry<String, OperationReport> entry : operations.entrySet()) {
+            OperationReport before = baseline.operations().get(entry.getKey());
+            if (before == null) {
+                continue; // Not in the other run's mix
+            }
+            OperationReport after = entry.getValue();
+            for (Metric metric : Metric.values()) {
+                double was = metric.of(before);
+                double is = metric.of(after);
+                text.append(String.format(Locale.ROOT, "%-8s %-10s %12.2f %12.2f %9s%n",
+                        entry.getKey(), metric.label, was, is, delta(was, is)));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String delta(double was, double is) {
+        if (was == 0) {
+            return is == 0 ? "=" : "new";
+        }
+        return String.format(Locale.ROOT, "%+.1f%%", 100 * (is - was) / was);
+    }
+
+    enum Metric {
+        THROUGHPUT("req/s"),
+        ERRORS("errors %"),
+        P50("p50 ms"),
+        P90("p90 ms"),
+        P99("p99 ms"),
+        P999("p99.9 ms"),
+        MAX("max ms");
+
+        final String label;
+
+        Metric(String label) {
+            this.label = label;
+        }
+
+        double of(OperationReport report) {
+            return switch (this) {
+                case THROUGHPUT -> report.throughput();
+                case ERRORS -> 100 * report.errorRate();
+                case P50 -> report.p50Millis();
+                case P90 -> report.p90Millis();
+                case P99 -> report.p99Millis();
+                case P999 -> report.p999Millis();
+                case MAX -> report.maxMillis();
+            };
+        }
+    }
+
+    // One operation's numbers; 'latencies' is the compressed HDR histogram (nanoseconds) they were computed from
+    public record OperationReport(long requests,             // Completed, whatever the outcome
+                                  long errors,               // Completed with anything but 2xx/304
+                                  long dropped,              // Not sent (load.max-in-flight), counted as errors
+                                  Map<String, Long> outcomes, // Status code or failure -> count
+                                  double throughput,         // Successful requests per second
+                                  double meanMillis,
+                                  double p50Millis,
+                                  double p90Millis,
+                                  double p99Millis,
+                                  double p999Millis,
+                                  double maxMillis,
+                                  String latencies) {
+
+        static OperationReport of(Histogram histogram, Map<String, Long> outcomes, long dropped, double seconds) {
+            long errors = 0;
+            for (Map.Entry<String, Long> entry : outcomes.entrySet()) {
+                if (!isSuccess(entry.getKey())) {
+                    errors += entry.getValue();
+                }
+            }
+            long requests = histogram.getTotalCount();
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            return new OperationReport(requests, errors, dropped, outcomes, (requests - errors) / seconds,
+                    histogram.getMean() / 1e6, millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+                    millis(histogram, 99.9), histogram.getMaxValue() / 1e6,
+                    Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        }
+
+        public double errorRate() {
+            long attempts = requests + dropped;
+            return attempts == 0 ? 0 : (double) (errors + dropped) / attempts;
+        }
+
+        Histogram histogram() {
+            try {
+                return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(latencies)), 0);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt latency histogram in report", e);
+            }
+        }
+
+        private static boolean isSuccess(String outcome) {
+            return outcome.startsWith("2") || outcome.equals("304");
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+}
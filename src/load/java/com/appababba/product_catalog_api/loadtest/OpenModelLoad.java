@@ -0,0 +1,136 @@
+package com.appababba.product_catalog_api.loadtest; // Catalog workload harness (run with -Pload-test)
+
+import com.appababba.product_catalog_api.loadtest.WorkloadProfile.Operation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Constant arrival rate load generator: request i is due at start + i / rate, and is sent at that time on its own
+// virtual thread no matter how many earlier requests are still outstanding.
+// Latency is measured from when the request was due, not from when it was actually sent, so a generator that fell
+// behind (GC pause, scheduler hiccup) or a server that stopped accepting doesn't hide the wait - the coordinated
+// omission a closed-loop client has (see ThreadModelLoadTest for that model).
+public final class OpenModelLoad {
+
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final WorkloadProfile profile;
+    private final ZipfianIds ids;
+    private final String baseUrl;
+    private final Map<Operation, Recording> recordings = new EnumMap<>(Operation.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OpenModelLoad(WorkloadProfile profile, ZipfianIds ids, int port) {
+        this.profile = profile;
+        this.ids = ids;
+        this.baseUrl = "http://localhost:" + port + "/api/v1/products";
+        for (Operation operation : Operation.values()) {
+            recordings.put(operation, new Recording());
+        }
+    }
+
+    // Runs warm-up then the measured window, and waits (up to REQUEST_TIMEOUT) for the last requests to finish
+    public LoadReport run() {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.ratePerSecond();
+        long warmupArrivals = profile.warmup().toNanos() / intervalNanos;
+        long measuredArrivals = profile.duration().toNanos() / intervalNanos;
+        Instant startedAt = Instant.now();
+        // The client gets its own executor: closing 'requests' (to wait for them) must not stop its I/O while they finish
+        try (ExecutorService io = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(io).version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(REQUEST_TIMEOUT).build();
+             ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (long i = 0; i < warmupArrivals + measuredArrivals; i++) {
+                long due = start + i * intervalNanos;
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) { // Behind schedule: send right away, latency counts from 'due'
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = profile.pick(ThreadLocalRandom.current().nextDouble());
+                Recording recording = i >= warmupArrivals ? recordings.get(operation) : null;
+                if (inFlight.incrementAndGet() > profile.maxInFlight()) { // The server is hopelessly behind
+                    inFlight.decrementAndGet();
+                    if (recording != null) {
+                        recording.dropped.increment();
+                    }
+                    continue;
+                }
+                requests.execute(() -> {
+                    try {
+                        send(http, operation, due, recording);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        } // close() waits for the outstanding requests, each bounded by REQUEST_TIMEOUT
+        Map<Operation, Recording> measured = new EnumMap<>(Operation.class);
+        recordings.forEach((operation, recording) -> {
+            if (profile.mix().getOrDefault(operation, 0) > 0) {
+                measured.put(operation, recording);
+            }
+        });
+        return LoadReport.of(profile, startedAt, measuredArrivals * intervalNanos / 1e9, measured);
+    }
+
+    private void send(HttpClient http, Operation operation, long due, Recording recording) {
+        long id = ids.next();
+        HttpRequest.Builder request = switch (operation) {
+            case GET -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET();
+            case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "?after=" + id + "&limit=" + profile.pageSize())).GET();
+            case UPDATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(String.format(Locale.ROOT,
+                            "{\"name\":\"Product %d\",\"description\":\"Repriced by the load test\",\"price\":%.2f}",
+                            id, 1 + ThreadLocalRandom.current().nextInt(100_000) / 100.0)));
+        };
+        String outcome;
+        try {
+            HttpResponse<Void> response = http.send(request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.discarding());
+            outcome = String.valueOf(response.statusCode());
+        } catch (HttpTimeoutException e) {
+            outcome = "timeout";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "interrupted";
+        } catch (Exception e) {
+            outcome = e.getClass().getSimpleName();
+        }
+        if (recording != null) {
+            recording.record(System.nanoTime() - due, outcome);
+        }
+    }
+
+    // What was measured for one operation: latency of every completed request (errors included) and outcomes
+    static final class Recording {
+
+        final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3); // Nanoseconds, 3 significant digits
+        final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>(); // "200", "409", "timeout", ...
+        final LongAdder dropped = new LongAdder(); // Never sent because of load.max-in-flight
+
+        void record(long latencyNanos, String outcome) {
+            latencies.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.appababba.product_catalog_api.loadtest; // Catalog workload harness (run with -Pload-test)
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// What one load run does, read from -Dload.* system properties on top of a named preset (load.profile):
+// - browse:      storefront traffic, lookups and list pages only
+// - mixed:       mostly reads with some price/description edits (the default)
+// - write-heavy: bulk repricing running next to normal reads
+// The arrival rate is fixed (open model): requests are sent on schedule whether or not earlier ones have returned,
+// like independent users do, so a slow server shows up as latency instead of as a politely slower client.
+public record WorkloadProfile(String name,             // Report file name (load.name)
+                              String profile,          // Preset the mix came from
+                              int ratePerSecond,       // Arrivals per second, all operations together (load.rate)
+                              Duration warmup,         // Sent but not recorded: JIT, pools, caches (load.warmup)
+                              Duration duration,       // Recorded part of the run (load.duration)
+                              int catalogSize,         // Products seeded before the run (load.catalog-size)
+                              double zipfExponent,     // Id popularity skew, 0 = uniform (load.zipf)
+                              int pageSize,            // Limit of the list pages (load.page-size)
+                              Map<Operation, Integer> mix, // Relative weights (load.mix=get:70,list:20,update:10)
+                              int maxInFlight,         // Arrivals beyond this many outstanding requests are dropped (load.max-in-flight)
+                              String appArgs) {        // Extra app arguments, space separated (load.app-args)
+
+    // The requests the workload is made of
+    public enum Operation {
+        GET,    // GET /api/v1/products/{id}
+        LIST,   // GET /api/v1/products?after={id}&limit={pageSize}
+        UPDATE; // PUT /api/v1/products/{id}
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static final Map<String, String> PRESET_MIXES = Map.of(
+            "browse", "get:75,list:25",
+            "mixed", "get:70,list:20,update:10",
+            "write-heavy", "get:40,list:10,update:50");
+
+    public static WorkloadProfile fromSystemProperties() {
+        String preset = System.getProperty("load.profile", "mixed");
+        String defaultMix = PRESET_MIXES.get(preset);
+        if (defaultMix == null) {
+            throw new IllegalArgumentException("Unknown load.profile '" + preset + "', expected one of " + PRESET_MIXES.keySet());
+        }
+        return new WorkloadProfile(
+                System.getProperty("load.name", preset),
+                preset,
+                Integer.getInteger("load.rate", 500),
+                Duration.parse("PT" + System.getProperty("load.warmup", "15s")),
+                Duration.parse("PT" + System.getProperty("load.duration", "30s")),
+                Integer.getInteger("load.catalog-size", 20_000),
+                Double.parseDouble(System.getProperty("load.zipf", "0.99")), // YCSB's default skew
+                Integer.getInteger("load.page-size", 20),
+                parseMix(System.getProperty("load.mix", defaultMix)),
+                Integer.getInteger("load.max-in-flight", 5_000),
+                System.getProperty("load.app-args", ""));
+    }
+
+    // "get:70,list:20,update:10" -> weights in that order; missing operations aren't sent
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Bad load.mix entry '" + part + "', expected operation:weight");
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in load.mix: " + part);
+            }
+            weights.put(Operation.valueOf(entry[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("load.mix has no operation with a positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    // Share of the arrivals that are writes
+    public double writeRatio() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        return (double) mix.getOrDefault(Operation.UPDATE, 0) / total;
+    }
+
+    // Operation for a uniform random number in [0, 1)
+    Operation pick(double random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double threshold = random * total;
+        Operation last = null;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() == 0) {
+                continue;
+            }
+            threshold -= entry.getValue();
+            last = entry.getKey();
+            if (threshold < 0) {
+                break;
+            }
+        }
+        return last;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s (%s): %d req/s for %ds after %ds warm-up, %d products, zipf %.2f, mix %s%s",
+                name, profile, ratePerSecond, duration.toSeconds(), warmup.toSeconds(), catalogSize, zipfExponent, mix,
+                appArgs.isBlank() ? "" : ", app " + appArgs);
+    }
+}
@@ -0,0 +1,55 @@
+package com.appababba.product_catalog_api.loadtest; // Catalog workload harness (run with -Pload-test)
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Picks product ids with Zipfian popularity: the k-th most popular product is requested in proportion to 1/k^exponent,
+// like real catalogs where a few bestsellers take most of the traffic (exponent 0 = every product equally often).
+// Popularity ranks are shuffled over the ids once (fixed seed, so runs are comparable): hot products are spread
+// over the id range instead of being the first ones inserted.
+public final class ZipfianIds {
+
+    private final long[] idsByRank;
+    private final double[] cumulative; // cumulative[k] = P(rank <= k)
+
+    public ZipfianIds(long[] ids, double exponent, long seed) {
+        if (ids.length == 0) {
+            throw new IllegalArgumentException("No ids to pick from");
+        }
+        idsByRank = ids.clone();
+        Random random = new Random(seed);
+        for (int i = idsByRank.length - 1; i > 0; i--) { // Fisher-Yates
+            int j = random.nextInt(i + 1);
+            long swap = idsByRank[i];
+            idsByRank[i] = idsByRank[j];
+            idsByRank[j] = swap;
+        }
+        cumulative = new double[ids.length];
+        double sum = 0;
+        for (int rank = 0; rank < ids.length; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < ids.length; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    public long next() {
+        return idsByRank[rankOf(ThreadLocalRandom.current().nextDouble())];
+    }
+
+    // Rank for a uniform random number in [0, 1): the first rank whose cumulative probability exceeds it
+    int rankOf(double random) {
+        int index = Arrays.binarySearch(cumulative, random);
+        int rank = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(rank, cumulative.length - 1); // Rounding can leave the last entry just below 1.0
+    }
+
+    // Share of the requests that go to the most popular 'fraction' of the products
+    double shareOfTop(double fraction) {
+        int ranks = Math.max(1, (int) Math.round(fraction * cumulative.length));
+        return cumulative[ranks - 1];
+    }
+}
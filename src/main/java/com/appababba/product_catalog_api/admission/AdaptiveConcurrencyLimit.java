@@ -0,0 +1,101 @@
+package com.appababba.product_catalog_api.admission; // Admission control package
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Concurrency limit that finds its own level from observed latency (AIMD with a Vegas-style delay signal).
+// - Latency is tracked twice: a short average (last ~10 requests) and a long baseline (last ~1,000).
+// - While the short average stays within 'tolerance' x the baseline and the limit is actually in use, the
+//   limit grows by about one per window of requests (additive increase).
+// - Once latency climbs past that, or requests fail with a 5xx, requests are queueing somewhere downstream
+//   (Postgres, the pool) and the limit is cut by 'backoffRatio', at most once per window (multiplicative
+//   decrease), so one slow spell doesn't collapse it to the minimum.
+// Requests beyond the limit are rejected right away instead of waiting, which keeps latency of the admitted
+// ones close to the baseline. The baseline follows latency changes that outlast ~1,000 requests.
+public final class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double LONG_WEIGHT = 0.001;
+    private static final int WARMUP_SAMPLES = 100; // No latency-based decisions before the baseline means anything
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio; // e.g. 0.9
+    private final double tolerance;    // e.g. 2.0: short-term latency may be twice the baseline
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;        // Read on every request, written by onSample
+
+    // Guarded by this (updated once per completed request)
+    private double estimate;           // Fractional limit, 'limit' is its floor
+    private double shortRtt;
+    private double longRtt;
+    private long samples;
+    private long samplesUntilNextDecrease;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+        this.estimate = initialLimit;
+    }
+
+    // Takes a slot if fewer than 'limit' requests are in flight; lock-free
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Gives the slot back and learns from the request: its latency, and whether it failed because of overload
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        onSample(latencyNanos, failed, inFlightBefore);
+    }
+
+    // Gives the slot back without a sample (e.g. long-polls, whose duration isn't service time)
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long latencyNanos, boolean failed, int inFlightAtCompletion) {
+        if (samples++ == 0) {
+            shortRtt = latencyNanos;
+            longRtt = latencyNanos;
+        }
+        shortRtt += (latencyNanos - shortRtt) * SHORT_WEIGHT;
+        longRtt += (latencyNanos - longRtt) * LONG_WEIGHT;
+        if (samplesUntilNextDecrease > 0) {
+            samplesUntilNextDecrease--;
+        }
+
+        boolean queueing = samples > WARMUP_SAMPLES && shortRtt > tolerance * longRtt;
+        if (failed || queueing) {
+            if (samplesUntilNextDecrease == 0) {
+                estimate = Math.max(minLimit, estimate * backoffRatio);
+                samplesUntilNextDecrease = (long) Math.ceil(estimate); // Let the requests admitted under the old limit drain
+            }
+        } else if (inFlightAtCompletion * 2 >= estimate) {
+            // Only grow when at least half the limit is used, otherwise a quiet period would inflate it unchecked
+            estimate = Math.min(maxLimit, estimate + 1 / estimate);
+        }
+        limit = (int) estimate;
+    }
+}
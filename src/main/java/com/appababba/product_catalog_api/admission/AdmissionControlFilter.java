@@ -0,0 +1,128 @@
+package com.appababba.product_catalog_api.admission; // Admission control package
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Decides up front whether a request gets served at all, so overload turns into quick rejections instead of a
+// queue of Tomcat threads that all time out together. Reads (GET/HEAD/OPTIONS) and writes have separate budgets,
+// so a slow bulk write can't starve lookups and vice versa. Each budget has:
+// - a token bucket per client (X-header or remote address): over its rate, 429 Too Many Requests
+// - an adaptive concurrency limit shared by all clients: over it, 503 Service Unavailable
+// Both carry Retry-After. A rejection costs no database work and doesn't take a slot.
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final Budget reads;
+    private final Budget writes;
+    private final String clientHeader; // Identifies clients, e.g. an API key header; null = remote address
+
+    public AdmissionControlFilter(Budget reads, Budget writes, String clientHeader) {
+        this.reads = reads;
+        this.writes = writes;
+        this.clientHeader = clientHeader;
+    }
+
+    public Budget getReads() {
+        return reads;
+    }
+
+    public Budget getWrites() {
+        return writes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Budget budget = isSafe(request.getMethod()) ? reads : writes;
+        long started = System.nanoTime();
+        long wait = budget.bucket(clientId(request), started).tryAcquire(started);
+        if (wait > 0) {
+            budget.rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, wait);
+            return;
+        }
+        if (!budget.limit.tryAcquire()) {
+            budget.overloaded.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, budget.overloadRetryAfter.toNanos());
+            return;
+        }
+        boolean failed = true; // Exceptions escaping the chain become 500s
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            if (isAsyncStarted(request)) {
+                budget.limit.releaseWithoutSample(); // Long-poll / SSE / streaming: the slot covers the dispatch only
+            } else {
+                budget.limit.release(System.nanoTime() - started, failed);
+            }
+        }
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String id = clientHeader == null ? null : request.getHeader(clientHeader);
+        return id == null || id.isBlank() ? request.getRemoteAddr() : id;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos) {
+        response.setStatus(status.value());
+        // Whole seconds, rounded up so a client that honours it finds a token
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos - 1) + 1)));
+    }
+
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    // Limits for one kind of request (reads or writes)
+    public static final class Budget {
+
+        private final double ratePerClient;
+        private final int burstPerClient;
+        private final Cache<String, TokenBucket> buckets; // Idle clients drop out once their bucket would be full anyway
+        private final AdaptiveConcurrencyLimit limit;
+        private final Duration overloadRetryAfter;
+        private final LongAdder rateLimited = new LongAdder();
+        private final LongAdder overloaded = new LongAdder();
+
+        public Budget(double ratePerClient, int burstPerClient, int maxClients,
+                      AdaptiveConcurrencyLimit limit, Duration overloadRetryAfter) {
+            this.ratePerClient = ratePerClient;
+            this.burstPerClient = burstPerClient;
+            long refillNanos = new TokenBucket(ratePerClient, burstPerClient, 0).refillNanos(); // Validates the settings too
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofNanos(Math.max(refillNanos, TimeUnit.SECONDS.toNanos(1))))
+                    .build();
+            this.limit = limit;
+            this.overloadRetryAfter = overloadRetryAfter;
+        }
+
+        public AdaptiveConcurrencyLimit getLimit() {
+            return limit;
+        }
+
+        public long getRateLimitedCount() {
+            return rateLimited.sum();
+        }
+
+        public long getOverloadedCount() {
+            return overloaded.sum();
+        }
+
+        private TokenBucket bucket(String client, long nowNanos) {
+            return buckets.get(client, key -> new TokenBucket(ratePerClient, burstPerClient, nowNanos));
+        }
+    }
+}
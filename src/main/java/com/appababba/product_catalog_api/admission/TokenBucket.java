@@ -0,0 +1,43 @@
+package com.appababba.product_catalog_api.admission; // Admission control package
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Rate limit for one client: 'burst' requests at once, refilled at 'ratePerSecond'.
+// Kept as a single timestamp (GCRA, the "virtual scheduling" form of a token bucket): the time at which the
+// bucket would be full again if nothing else arrived. Taking a token is one CAS on that timestamp - no lock,
+// no refill thread, and a stale bucket needs no catching up.
+public final class TokenBucket {
+
+    private final long nanosPerToken; // Refill interval of one token
+    private final long burstNanos;    // How far ahead of 'now' the bucket may be booked, i.e. burst * nanosPerToken
+    private final AtomicLong fullAt;  // Theoretical arrival time of the next request on an empty schedule
+
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate must be positive and burst at least 1");
+        }
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.burstNanos = nanosPerToken * burst;
+        this.fullAt = new AtomicLong(nowNanos); // Starts full
+    }
+
+    // Takes a token: 0 when the request is admitted, otherwise how many nanos until one is available
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + nanosPerToken;
+            long wait = next - burstNanos - nowNanos;
+            if (wait > 0) {
+                return wait; // Nothing booked, a rejected request doesn't use up anything
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // How long a bucket takes to refill completely; an idle bucket can be dropped after that
+    public long refillNanos() {
+        return burstNanos;
+    }
+}
@@ -0,0 +1,91 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import com.appababba.product_catalog_api.admission.AdaptiveConcurrencyLimit; // Latency-driven concurrency limit
+import com.appababba.product_catalog_api.admission.AdmissionControlFilter; // 429/503 in front of the product API
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+@Configuration // Admission control (load shedding) for /api/v1/products/** and the bulk endpoints
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true") // Off unless switched on
+public class AdmissionControlConfig {
+
+    // Right after Boot's observation filter, so rejections still show up in http.server.requests
+    // but nothing else (replica routing, the controllers) runs for them
+    static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            Environment environment,
+            @Value("${app.admission.client-header:}") String clientHeader,
+            @Value("${app.admission.max-clients:100000}") int maxClients,
+            @Value("${app.admission.retry-after:1s}") Duration retryAfter) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(
+                budget(environment, "reads", maxClients, retryAfter),
+                budget(environment, "writes", maxClients, retryAfter),
+                clientHeader.isBlank() ? null : clientHeader);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/products/*"); // Also matches /api/v1/products itself
+        // ":batch" and ":lookup" are part of the last path segment, so "/api/v1/products/*" doesn't match them:
+        // servlet URL patterns have no wildcard inside a segment, the bulk endpoints are listed as exact matches
+        registration.addUrlPatterns("/api/v1/products:batch", "/api/v1/products:lookup");
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+
+    // Limit, in-flight requests and rejections per budget
+    @Bean
+    public MeterBinder admissionControlMetrics(FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter) {
+        AdmissionControlFilter filter = admissionControlFilter.getFilter();
+        return registry -> {
+            bind(registry, "reads", filter.getReads());
+            bind(registry, "writes", filter.getWrites());
+        };
+    }
+
+    // app.admission.<kind>.* with the defaults of that kind: writes hold row locks and do more work per request,
+    // so they get a lower rate and a lower starting limit than reads
+    private static AdmissionControlFilter.Budget budget(Environment environment, String kind, int maxClients, Duration retryAfter) {
+        boolean reads = kind.equals("reads");
+        String prefix = "app.admission." + kind + ".";
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                environment.getProperty(prefix + "initial-limit", Integer.class, reads ? 40 : 20),
+                environment.getProperty(prefix + "min-limit", Integer.class, reads ? 4 : 2),
+                environment.getProperty(prefix + "max-limit", Integer.class, reads ? 400 : 100),
+                environment.getProperty(prefix + "backoff-ratio", Double.class, 0.9),
+                environment.getProperty(prefix + "latency-tolerance", Double.class, 2.0));
+        return new AdmissionControlFilter.Budget(
+                environment.getProperty(prefix + "rate-per-client", Double.class, reads ? 200.0 : 20.0),
+                environment.getProperty(prefix + "burst-per-client", Integer.class, reads ? 400 : 40),
+                maxClients, limit, retryAfter);
+    }
+
+    private static void bind(MeterRegistry registry, String kind, AdmissionControlFilter.Budget budget) {
+        Gauge.builder("app.admission.limit", budget.getLimit(), AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("kind", kind)
+                .register(registry);
+        Gauge.builder("app.admission.in.flight", budget.getLimit(), AdaptiveConcurrencyLimit::getInFlight)
+                .description("Admitted requests in progress")
+                .tag("kind", kind)
+                .register(registry);
+        FunctionCounter.builder("app.admission.rejected", budget, AdmissionControlFilter.Budget::getRateLimitedCount)
+                .description("Requests rejected before any work was done")
+                .tags("kind", kind, "reason", "client-rate")
+                .register(registry);
+        FunctionCounter.builder("app.admission.rejected", budget, AdmissionControlFilter.Budget::getOverloadedCount)
+                .description("Requests rejected before any work was done")
+                .tags("kind", kind, "reason", "concurrency")
+                .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// CBOR and Smile next to JSON, picked by Accept (responses) and Content-Type (request bodies).
+// Both are binary encodings of the same Jackson data model, so every JSON endpoint gets them for free;
+// field names are still sent, but numbers are binary and strings are length-prefixed instead of escaped.
+// Declared as beans so Boot uses them in place of Spring MVC's defaults: the mappers come from Boot's
+// Jackson2ObjectMapperBuilder and follow the same spring.jackson.* settings as the JSON one. JSON stays first,
+// so clients that send no Accept header (or */*) still get JSON.
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,73 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import com.appababba.product_catalog_api.repository.ProductRepository; // Loads cache misses
+import com.appababba.product_catalog_api.sharding.ShardedProductStore; // ...or the product's shard does
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration // Holds the cache setup for the product read path
+@EnableCaching // Turns on @Cacheable / @CachePut / @CacheEvict
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products"; // Cache of Product by id
+
+    private static final String EXPIRE_AFTER_WRITE = "expireAfterWrite=";
+
+    // Caffeine uses W-TinyLFU admission, so one-off reads don't push hot SKUs out of the cache.
+    // The spec string controls size/TTL, e.g. "maximumSize=10000,expireAfterWrite=10m,recordStats";
+    // adding "refreshAfterWrite=1m" serves older entries while they reload in the background.
+    // Ids that don't exist are cached too, for missingTtl only.
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.products.spec}") String productsCacheSpec,
+                                     @Value("${app.cache.products.missing-ttl:5s}") String missingTtl, // Parsed like the spec's durations
+                                     ProductRepository productRepository,
+                                     ShardedProductStore shardedProductStore,
+                                     ExecutorService productCacheRefreshExecutor) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(PRODUCTS_CACHE); // Fixed set of caches
+        // With a loader, @Cacheable lookups go through LoadingCache.get: concurrent misses share one query.
+        // Set before the builder, which (re)builds the fixed caches right away.
+        caffeineCacheManager.setCacheLoader(new ProductCacheLoader(productRepository, shardedProductStore, productCacheRefreshExecutor));
+        caffeineCacheManager.setCaffeine(productsCaffeine(productsCacheSpec, DurationStyle.detectAndParse(missingTtl)));
+        // Transaction-aware proxy: puts/evicts from @Transactional write methods are applied after commit,
+        // so a rolled-back write never leaves a stale entry and readers never see uncommitted data.
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
+    // Runs the loader's background reloads; closed on shutdown, after the cache manager that uses it
+    @Bean(destroyMethod = "close")
+    public ExecutorService productCacheRefreshExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return Executors.newThreadPerTaskExecutor(virtualThreads
+                ? Thread.ofVirtual().name("product-cache-refresh-", 0).factory()
+                : Thread.ofPlatform().name("product-cache-refresh-", 0).daemon().factory());
+    }
+
+    // The spec, except that its expireAfterWrite moves into a per-entry expiry (Caffeine doesn't allow both):
+    // found products keep that lifetime, 'not found' entries get missingTtl
+    static Caffeine<Object, Object> productsCaffeine(String spec, Duration missingTtl) {
+        Duration expireAfterWrite = null;
+        List<String> options = new ArrayList<>();
+        for (String option : spec.split(",")) {
+            String trimmed = option.trim();
+            if (trimmed.startsWith(EXPIRE_AFTER_WRITE)) {
+                expireAfterWrite = DurationStyle.detectAndParse(trimmed.substring(EXPIRE_AFTER_WRITE.length())); // "10m" or ISO-8601, like Caffeine
+            } else if (!trimmed.isEmpty()) {
+                options.add(trimmed);
+            }
+        }
+        Caffeine<Object, Object> builder = options.isEmpty() ? Caffeine.newBuilder() : Caffeine.from(String.join(",", options));
+        return builder.expireAfter(new ProductCacheLoader.Expiration(expireAfterWrite, missingTtl));
+    }
+}
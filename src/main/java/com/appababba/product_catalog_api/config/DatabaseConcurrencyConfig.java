@@ -0,0 +1,57 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration // Optional cap on concurrent database access, meant for the virtual-thread mode
+@ConditionalOnProperty(name = "app.db.max-concurrency") // Off unless a limit is configured
+public class DatabaseConcurrencyConfig {
+
+    // Wraps the application DataSource in a ConcurrencyLimitingDataSource.
+    // Static so the post-processor is registered before the DataSource bean is created.
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(
+            @Value("${app.db.max-concurrency}") int maxConcurrency,
+            @Value("${app.db.acquire-timeout:2s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                    return new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Permit queue and wait time, next to Hikari's own pool metrics (time spent here comes before hikaricp.connections.acquire)
+    @Bean
+    public MeterBinder databaseConcurrencyMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof ConcurrencyLimitingDataSource limited)) {
+                return;
+            }
+            Gauge.builder("app.db.concurrency.waiting", limited, ConcurrencyLimitingDataSource::getQueueLength)
+                    .description("Threads waiting for a database permit")
+                    .register(registry);
+            Gauge.builder("app.db.concurrency.available", limited, ConcurrencyLimitingDataSource::getAvailablePermits)
+                    .description("Database permits currently free")
+                    .register(registry);
+            FunctionTimer.builder("app.db.concurrency.acquire", limited,
+                            ConcurrencyLimitingDataSource::getAcquisitionCount,
+                            ConcurrencyLimitingDataSource::getTotalWaitNanos, TimeUnit.NANOSECONDS)
+                    .description("Time spent waiting for a database permit")
+                    .register(registry);
+        };
+    }
+}
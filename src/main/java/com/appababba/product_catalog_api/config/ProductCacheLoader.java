@@ -0,0 +1,77 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.repository.ProductRepository; // Product JPA repository
+import com.appababba.product_catalog_api.sharding.ShardedProductStore; // Product's shard (sharding mode)
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.cache.support.NullValue;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Loads products cache misses (and refreshes) straight from the repository - or the product's shard - which turns the products cache into
+// a Caffeine LoadingCache:
+// - Single flight: concurrent misses for the same id wait for the one in-flight load and share its result,
+//   so a product that suddenly gets hot costs one query instead of one per request.
+// - Stale-while-revalidate (when the spec sets refreshAfterWrite): a read of an entry older than the refresh
+//   interval still gets the cached product immediately; one reload per entry runs in the background.
+// A product that doesn't exist loads as NullValue, which Spring reads back as a cached null: the @Cacheable method
+// doesn't run and query again. Those entries expire after app.cache.products.missing-ttl (see Expiration).
+class ProductCacheLoader implements CacheLoader<Object, Object> {
+
+    private final ProductRepository productRepository;
+    private final ShardedProductStore shards; // Used instead of the repository when sharding is on
+    private final Executor refreshExecutor; // Background reloads block on JDBC, so not on Caffeine's common pool
+
+    ProductCacheLoader(ProductRepository productRepository, ShardedProductStore shards, Executor refreshExecutor) {
+        this.productRepository = productRepository;
+        this.shards = shards;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public Object load(Object id) {
+        Optional<Product> product = shards.isEnabled() ? shards.findById((Long) id)
+                : productRepository.findById((Long) id); // Own read-only transaction, like any repository call
+        return product.isPresent() ? product.get() : NullValue.INSTANCE;
+    }
+
+    // A refresh that finds the product gone turns the entry into a 'not found' one; one that finishes after a write
+    // to the same entry is dropped by Caffeine, so it can't put back the pre-write state
+    @Override
+    public CompletableFuture<Object> asyncReload(Object id, Object oldValue, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> load(id), refreshExecutor);
+    }
+
+    // Per-entry lifetime: products live for the spec's expireAfterWrite (forever without one), 'not found' entries
+    // only for missingTtl - long enough to absorb a burst of lookups for an unknown id, short enough that a product
+    // created through another instance or a batch shows up soon. Reads don't extend either.
+    static final class Expiration implements Expiry<Object, Object> {
+
+        private final long foundNanos;
+        private final long missingNanos;
+
+        Expiration(Duration found, Duration missing) {
+            this.foundNanos = found == null ? Long.MAX_VALUE : found.toNanos();
+            this.missingNanos = missing.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return value instanceof NullValue ? missingNanos : foundNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime); // A put or reload starts over, like expireAfterWrite
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Moves products_seq past the existing ids when it is behind them, once at startup.
+// A database from before ids came from the sequence has IDENTITY ids and either no sequence at all, or one that
+// ddl-auto=update (or the V2 migration) just created at 1 - the first creates would collide with existing rows.
+// Runs after all singletons exist, so after the schema is in place (ddl-auto and Flyway both run while the
+// EntityManagerFactory is created), and before the web server accepts requests.
+// Only the first startup on such a database restarts the sequence; afterwards the probe just finds it ahead.
+@Component
+public class ProductIdSequenceAligner implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIdSequenceAligner.class);
+    static final int ALLOCATION_SIZE = 50; // Same as Product's @SequenceGenerator
+
+    private final JdbcTemplate jdbcTemplate; // Primary database: the connection isn't read-only
+    private final String contextExit;
+
+    @Autowired
+    public ProductIdSequenceAligner(JdbcTemplate jdbcTemplate, @Value("${spring.context.exit:}") String contextExit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.contextExit = contextExit;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if ("onRefresh".equals(contextExit)) { // Training run: no database (see SchemaMigrationConfig)
+            return;
+        }
+        align();
+    }
+
+    void align() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from products", Long.class);
+        if (maxId == null) {
+            return; // Empty table: any sequence value is free
+        }
+        // Hibernate's pooled optimizer hands out next - 49 .. next for the value nextval returns.
+        // The probe costs one block of ids per startup, like any instance's first insert would.
+        long next = jdbcTemplate.queryForObject("select nextval('products_seq')", Long.class);
+        if (next - ALLOCATION_SIZE < maxId) {
+            long restart = maxId + ALLOCATION_SIZE; // First block becomes maxId + 1 .. maxId + 50
+            // ALTER SEQUENCE rather than setval: H2 (tests) has no setval, and neither takes a bind parameter here
+            jdbcTemplate.execute("alter sequence products_seq restart with " + restart);
+            log.info("Moved products_seq past the existing product ids (max id {})", maxId);
+        }
+    }
+}
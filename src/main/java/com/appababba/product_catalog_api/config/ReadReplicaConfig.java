@@ -0,0 +1,93 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read/write split: read-only transactions (@Transactional(readOnly = true), Spring Data finders) use a replica,
+// everything else uses the primary (spring.datasource.*).
+// The application DataSource is a LazyConnectionDataSourceProxy: it only fetches a physical connection at the first
+// statement, by which point the transaction manager has marked it read-only or not, and picks the pool accordingly.
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url") // Off unless at least one replica is configured
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    // Replaces Boot's auto-configured pool; Boot's pool metrics and health check still find the primary through the proxy
+    @Bean
+    @Primary
+    public DataSource dataSource(Pools pools) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(pools.primary());
+        dataSource.setReadOnlyDataSource(pools.replicas());
+        return dataSource;
+    }
+
+    // Kept out of the DataSource beans so nothing else (e.g. the concurrency limiter) wraps them,
+    // and so the pools are closed on shutdown whatever the application DataSource gets wrapped in
+    @Bean(destroyMethod = "close")
+    public Pools readReplicaPools(DataSourceProperties dataSourceProperties,
+                                  ReadReplicaProperties properties,
+                                  Environment environment,
+                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        // The primary, configured exactly like Boot's default pool (spring.datasource.* and spring.datasource.hikari.*)
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(HIKARI_PREFIX, Bindable.ofInstance(primary));
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            ReadReplicaProperties.Replica replica = properties.replicas().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            binder.bind(HIKARI_PREFIX, Bindable.ofInstance(pool)); // Same sizing/timeouts as the primary
+            pool.setJdbcUrl(replica.url());
+            // Credentials default to the primary's, the common case for streaming replicas
+            pool.setUsername(replica.username() != null ? replica.username() : dataSourceProperties.determineUsername());
+            pool.setPassword(replica.password() != null ? replica.password() : dataSourceProperties.determinePassword());
+            pool.setPoolName((primary.getPoolName() != null ? primary.getPoolName() : "HikariPool") + "-replica-" + i);
+            pool.setReadOnly(true);
+            meterRegistry.ifAvailable(pool::setMetricRegistry); // hikaricp.* metrics tagged with the replica pool name
+            replicas.add(pool);
+        }
+        return new Pools(primary, new ReplicaDataSource(primary, replicas, properties.selection(), properties.healthCheckInterval()));
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadReplicaProperties properties) {
+        return new ReadYourWritesFilter(properties.readYourWritesWindow());
+    }
+
+    @Bean
+    public MeterBinder readReplicaMetrics(Pools pools) {
+        return registry -> Gauge.builder("app.db.replicas.healthy", pools.replicas(), ReplicaDataSource::getHealthyReplicaCount)
+                .description("Read replicas currently in rotation")
+                .register(registry);
+    }
+
+    // Owns the physical pools behind the routing DataSource
+    public record Pools(HikariDataSource primary, ReplicaDataSource replicas) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            replicas.close();
+            primary.close();
+        }
+    }
+}
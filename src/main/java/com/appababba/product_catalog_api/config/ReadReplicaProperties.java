@@ -0,0 +1,19 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+// app.datasource.* - read replicas used for read-only transactions
+@ConfigurationProperties(prefix = "app.datasource")
+public record ReadReplicaProperties(
+        List<Replica> replicas, // Connection settings per replica; pool settings are copied from spring.datasource.hikari
+        @DefaultValue("round-robin") ReplicaDataSource.Selection selection, // round-robin or least-connections
+        @DefaultValue("5s") Duration healthCheckInterval, // How often ejected (and healthy) replicas are probed
+        @DefaultValue("5s") Duration readYourWritesWindow) { // Reads stay on the primary this long after a client's write
+
+    public record Replica(String url, String username, String password) {
+    }
+}
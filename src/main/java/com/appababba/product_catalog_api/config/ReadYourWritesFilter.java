@@ -0,0 +1,65 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Keeps a client on the primary right after it writes, so it doesn't read its own change back from a lagging replica.
+// A write (any unsafe method) sets a short-lived cookie; reads carrying an unexpired cookie are pinned to the primary.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "catalog-primary-until";
+
+    private final Duration window; // How long after a write the client keeps reading from the primary
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !isSafe(request.getMethod());
+        if (write) {
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(System.currentTimeMillis() + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(cookie); // Set up front - the body may be committed before the chain returns
+        }
+        // Writes go to the primary anyway; pinning them too covers reads made in the same request after the write
+        ReplicaDataSource.pinToPrimary(write || recentlyWrote(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaDataSource.pinToPrimary(false);
+        }
+    }
+
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static boolean recentlyWrote(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false; // Tampered or foreign cookie
+                }
+            }
+        }
+        return false;
+    }
+}
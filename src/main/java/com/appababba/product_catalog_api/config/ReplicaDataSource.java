@@ -0,0 +1,181 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Connections for read-only transactions, spread over a set of read replicas.
+// - Replicas are picked round-robin or by fewest active connections (Hikari pools only).
+// - A replica that fails to hand out a connection, or fails the periodic health check, is taken out of rotation
+//   until a later health check succeeds.
+// - With no healthy replica, or while the current thread is pinned (read-your-writes), reads go to the primary.
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public enum Selection { ROUND_ROBIN, LEAST_CONNECTIONS }
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    // Set for the duration of a request that must see its own (or very recent) writes
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary; // Fallback when no replica can serve
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final AtomicInteger nextIndex = new AtomicInteger(); // Round-robin position
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaDataSource(DataSource primary, List<DataSource> replicas, Selection selection, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selection = selection;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-health").daemon().factory());
+        long intervalMillis = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Route this thread's reads to the primary until unpinned
+    public static void pinToPrimary(boolean pinned) {
+        if (pinned) {
+            PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        } else {
+            PINNED_TO_PRIMARY.remove();
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!isPinnedToPrimary()) {
+            // Try each healthy replica at most once, starting with the preferred one
+            for (int attempt = 0; attempt < replicas.size(); attempt++) {
+                Replica replica = choose();
+                if (replica == null) {
+                    break; // None healthy
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    eject(replica, e);
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("ReplicaDataSource uses the configured replica credentials");
+    }
+
+    // Healthy replicas for monitoring and tests
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    private Replica choose() {
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (selection == Selection.LEAST_CONNECTIONS) {
+            Replica best = null;
+            int fewest = Integer.MAX_VALUE;
+            for (Replica replica : healthy) {
+                int active = replica.activeConnections();
+                if (active < fewest) {
+                    best = replica;
+                    fewest = active;
+                }
+            }
+            if (best != null && fewest >= 0) {
+                return best;
+            }
+            // Pools without an active-connection count fall through to round-robin
+        }
+        return healthy.get(Math.floorMod(nextIndex.getAndIncrement(), healthy.size()));
+    }
+
+    private void eject(Replica replica, Exception cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Read replica {} taken out of rotation: {}", replica.name(), cause.getMessage());
+        }
+    }
+
+    // Probes every replica; brings recovered ones back and ejects broken ones
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("connection is not valid");
+                }
+                if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Read replica {} is back in rotation", replica.name());
+                }
+            } catch (SQLException | RuntimeException e) {
+                eject(replica, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close read replica {}", replica.name(), e);
+                }
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        final DataSource dataSource;
+        volatile boolean healthy = true; // Optimistic until the first failure
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        // Connections in use, or -1 when the pool doesn't report it (or hasn't started yet)
+        int activeConnections() {
+            if (dataSource instanceof HikariDataSource hikari) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                return pool == null ? 0 : pool.getActiveConnections(); // Not started yet = idle
+            }
+            return -1;
+        }
+
+        String name() {
+            return dataSource instanceof HikariDataSource hikari ? hikari.getPoolName() : dataSource.toString();
+        }
+    }
+}
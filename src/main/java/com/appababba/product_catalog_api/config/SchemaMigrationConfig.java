@@ -0,0 +1,22 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration // How the Flyway migrations (prod profile) are applied at startup
+public class SchemaMigrationConfig {
+
+    // Migrate on startup, except in a training run (spring.context.exit=onRefresh, used to record the CDS archive
+    // while building the image): it stops right after the context refresh and has no database to migrate.
+    // Decided at runtime on purpose - with AOT, spring.flyway.enabled is fixed when the jar is built.
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${spring.context.exit:}") String contextExit) {
+        return flyway -> {
+            if (!"onRefresh".equals(contextExit)) {
+                flyway.migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import com.appababba.product_catalog_api.sharding.ShardedProductStore; // Routes products to their shard
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+// Hash-partitioned product storage (app.sharding.enabled). The store bean always exists, so the services can
+// depend on it unconditionally; with sharding off it's an empty store whose isEnabled() is false.
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    // Shards have their own migrations (products table and sequence only), versioned apart from the main
+    // database's in their own history table
+    private static final String SHARD_MIGRATIONS = "classpath:db/shard";
+    private static final String SHARD_MIGRATION_HISTORY = "flyway_shard_schema_history";
+
+    @Bean(destroyMethod = "close") // Closes the fan-out threads and the shard pools
+    public ShardedProductStore shardedProductStore(ShardingProperties properties,
+                                                   DataSourceProperties dataSourceProperties,
+                                                   Environment environment,
+                                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (!properties.enabled()) {
+            return ShardedProductStore.disabled();
+        }
+        if (properties.shards() == null || properties.shards().isEmpty()) {
+            throw new IllegalStateException("app.sharding.enabled is set but no app.sharding.shards are configured");
+        }
+        Binder binder = Binder.get(environment);
+        String poolName = binder.bind(ReadReplicaConfig.HIKARI_PREFIX + ".pool-name", String.class).orElse("HikariPool");
+        List<DataSource> pools = new ArrayList<>();
+        for (int i = 0; i < properties.shards().size(); i++) {
+            ShardingProperties.Shard shard = properties.shards().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            binder.bind(ReadReplicaConfig.HIKARI_PREFIX, Bindable.ofInstance(pool)); // Same sizing/timeouts as the main pool
+            pool.setJdbcUrl(shard.url());
+            // Credentials default to the main database's, like the replicas
+            pool.setUsername(shard.username() != null ? shard.username() : dataSourceProperties.determineUsername());
+            pool.setPassword(shard.password() != null ? shard.password() : dataSourceProperties.determinePassword());
+            pool.setPoolName(poolName + "-shard-" + i);
+            meterRegistry.ifAvailable(pool::setMetricRegistry); // hikaricp.* metrics tagged with the shard pool name
+            if (properties.migrate()) {
+                // A shard that already has its tables (created by hand, or by the main database's migrations before
+                // shards had their own) is baselined at version 1 instead of running V1
+                shardMigrations(pool).baselineOnMigrate(true).load().migrate();
+            }
+            pools.add(pool);
+        }
+        // One thread per shard query of a listing: they mostly wait on the database
+        return new ShardedProductStore(pools, Executors.newThreadPerTaskExecutor(virtualThreads
+                ? Thread.ofVirtual().name("shard-query-", 0).factory()
+                : Thread.ofPlatform().name("shard-query-", 0).daemon().factory()));
+    }
+
+    // Flyway set up for a shard database
+    public static FluentConfiguration shardMigrations(DataSource shard) {
+        return Flyway.configure()
+                .dataSource(shard)
+                .locations(SHARD_MIGRATIONS)
+                .table(SHARD_MIGRATION_HISTORY);
+    }
+}
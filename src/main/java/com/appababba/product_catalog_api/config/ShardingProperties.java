@@ -0,0 +1,17 @@
+package com.appababba.product_catalog_api.config; // Configuration package
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+// app.sharding.* - hash-partitioned product storage across several databases
+@ConfigurationProperties(prefix = "app.sharding")
+public record ShardingProperties(
+        boolean enabled, // Off: products live in the main database (spring.datasource)
+        List<Shard> shards, // Connection settings per shard; the order is part of the routing and must not change
+        @DefaultValue("true") boolean migrate) { // Apply the Flyway migrations to every shard at startup
+
+    public record Shard(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.appababba.product_catalog_api.controller; // Controller package
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats; // Caffeine's hit/miss/eviction counters
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/cache") // Read-only view of the in-process caches, used to size them
+public class CacheStatsController {
+
+    private final CacheManager cacheManager; // Transaction-aware proxy around the Caffeine caches
+
+    @Autowired
+    public CacheStatsController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // GET /api/v1/cache/stats - Counters for every cache, keyed by cache name
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, CacheStatistics>> getCacheStats() {
+        Map<String, CacheStatistics> stats = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            // getNativeCache() unwraps the transaction-aware decorator down to the Caffeine cache
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                stats.put(name, CacheStatistics.of(caffeine.stats(), caffeine.estimatedSize()));
+            }
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    // JSON view of one cache's counters
+    public record CacheStatistics(long hitCount, long missCount, double hitRate,
+                                  long evictionCount, long estimatedSize) {
+
+        static CacheStatistics of(CacheStats stats, long estimatedSize) {
+            return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                    stats.evictionCount(), estimatedSize);
+        }
+    }
+}
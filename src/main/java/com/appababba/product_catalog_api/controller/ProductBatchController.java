@@ -0,0 +1,100 @@
+package com.appababba.product_catalog_api.controller; // Controller package
+
+import com.appababba.product_catalog_api.model.Product; // Product data model
+import com.appababba.product_catalog_api.service.BatchItemResult; // Per-item outcome
+import com.appababba.product_catalog_api.service.ProductBatchService; // Chunked bulk writes
+import com.appababba.product_catalog_api.service.ProductLookup; // Multi-get result
+import com.appababba.product_catalog_api.service.ProductService; // Multi-get
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper; // Streaming NDJSON reader
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*; // Includes @RestController, @RequestMapping, @PostMapping, etc.
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+// Bulk endpoints: /api/v1/products:batch takes many products (or ids) in one request.
+// JSON (or CBOR/Smile) arrays are fine for moderate sizes; NDJSON bodies are parsed line by line while they are written,
+// so a feed with hundreds of thousands of rows is never held in memory as a whole.
+@RestController
+@RequestMapping("/api/v1") // Mapped at /api/v1 because ":batch" is part of the last path segment
+public class ProductBatchController {
+
+    private final ProductBatchService productBatchService; // Bulk service dependency
+    private final ProductService productService; // Multi-get lookups
+    private final ObjectMapper objectMapper; // Used to read NDJSON bodies incrementally
+
+    @Autowired
+    public ProductBatchController(ProductBatchService productBatchService, ProductService productService,
+                                  ObjectMapper objectMapper) {
+        this.productBatchService = productBatchService;
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+    }
+
+    // POST /api/v1/products:lookup - Fetches many products by id (JSON array of ids), same result as
+    // GET /api/v1/products?ids=... but without the URL length limit
+    @PostMapping(path = "/products:lookup", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ProductController.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<ProductLookup> lookupProducts(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    // POST /api/v1/products:batch - Creates many products (JSON array)
+    @PostMapping(path = "/products:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ProductController.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<BatchItemResult>> createProducts(@RequestBody List<Product> products) {
+        return ResponseEntity.ok(productBatchService.createProducts(products.iterator()));
+    }
+
+    // POST /api/v1/products:batch - Creates many products (NDJSON, one product per line)
+    @PostMapping(path = "/products:batch", consumes = ProductController.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BatchItemResult>> createProductsNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(productBatchService.createProducts(
+                objectMapper.readerFor(Product.class).readValues(body)));
+    }
+
+    // PUT /api/v1/products:batch - Updates many products by their 'id' (JSON array)
+    @PutMapping(path = "/products:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ProductController.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<BatchItemResult>> updateProducts(@RequestBody List<Product> products) {
+        return ResponseEntity.ok(productBatchService.updateProducts(products.iterator()));
+    }
+
+    // PUT /api/v1/products:batch - Updates many products by their 'id' (NDJSON)
+    @PutMapping(path = "/products:batch", consumes = ProductController.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BatchItemResult>> updateProductsNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(productBatchService.updateProducts(
+                objectMapper.readerFor(Product.class).readValues(body)));
+    }
+
+    // DELETE /api/v1/products:batch - Deletes many products (JSON array of ids)
+    @DeleteMapping(path = "/products:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ProductController.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<BatchItemResult>> deleteProducts(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productBatchService.deleteProducts(ids.iterator()));
+    }
+
+    // DELETE /api/v1/products:batch - Deletes many products (NDJSON, one id per line)
+    @DeleteMapping(path = "/products:batch", consumes = ProductController.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<BatchItemResult>> deleteProductsNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(productBatchService.deleteProducts(
+                objectMapper.readerFor(Long.class).readValues(body)));
+    }
+
+    // A malformed NDJSON line stops the import with 400; chunks before that line are already committed
+    @ExceptionHandler({JsonProcessingException.class, RuntimeJsonMappingException.class})
+    public ResponseEntity<Void> handleMalformedBody(Exception e) {
+        return ResponseEntity.badRequest().build();
+    }
+
+    // Too many ids, or a null id, in a lookup
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.appababba.product_catalog_api.controller; // Controller package
+
+import com.appababba.product_catalog_api.service.ChangeLogExpiredException; // 'since' older than the retained log
+import com.appababba.product_catalog_api.service.ProductChangeBatch; // Changes after a sequence number
+import com.appababba.product_catalog_api.service.ProductChangeFeed; // Long-poll and SSE delivery
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*; // Includes @RestController, @RequestMapping, @GetMapping, etc.
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+// Incremental sync for downstream indexes and caches: every committed product write has a sequence number,
+// so a consumer that remembers the last one it processed only ever reads what changed since.
+@RestController
+@RequestMapping("/api/v1/products/changes")
+public class ProductChangeController {
+
+    static final int DEFAULT_LIMIT = 500;
+    static final int MAX_LIMIT = 1000;
+
+    private final ProductChangeFeed productChangeFeed; // Change log delivery
+    private final Duration maxWait; // Longest long-poll wait (below the servlet async timeout)
+
+    @Autowired
+    public ProductChangeController(ProductChangeFeed productChangeFeed,
+                                   @Value("${app.changes.max-wait:25s}") Duration maxWait) {
+        this.productChangeFeed = productChangeFeed;
+        this.maxWait = maxWait;
+    }
+
+    // GET /api/v1/products/changes?since=<seq>&limit=N&wait=<seconds> - Long-poll: returns as soon as there are changes
+    // after 'since' (at once if there already are), or an empty batch after 'wait'. Send the returned lastSequence
+    // as 'since' next time. Without 'since' only changes from now on are returned.
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<ProductChangeBatch>> getChanges(@RequestParam(required = false) Long since,
+                                                                            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+                                                                            @RequestParam(required = false) Integer wait) {
+        validateSince(since);
+        int batchSize = Math.max(1, Math.min(limit, MAX_LIMIT)); // Clamp to [1, MAX_LIMIT]
+        Duration waitFor = wait == null ? maxWait : Duration.ofSeconds(Math.max(0, Math.min(wait, maxWait.toSeconds())));
+        return productChangeFeed.poll(since, batchSize, waitFor)
+                .map(future -> future.thenApply(ResponseEntity::ok))
+                .orElse(CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build()));
+    }
+
+    // GET /api/v1/products/changes with "Accept: text/event-stream" - Server-Sent Events: one "changes" event
+    // (JSON array) per batch, event id = last sequence in it. Reconnects resume from the Last-Event-ID header.
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestParam(required = false) Long since,
+                                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Long from = lastEventId != null ? lastEventId : since; // A reconnect knows better than the original URL
+        validateSince(from);
+        return productChangeFeed.subscribe(from)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build()); // Subscriber limit reached
+    }
+
+    private static void validateSince(Long since) {
+        if (since != null && since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+    }
+
+    // Too far behind: the consumer has to re-read the catalog and continue from the current sequence
+    @ExceptionHandler(ChangeLogExpiredException.class)
+    public ResponseEntity<Void> handleExpired(ChangeLogExpiredException e) {
+        return ResponseEntity.status(HttpStatus.GONE).build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().build();
+    }
+}
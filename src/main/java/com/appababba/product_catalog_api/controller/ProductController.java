@@ -1,41 +1,163 @@
 package com.appababba.product_catalog_api.controller; // Controller package
 
 import com.appababba.product_catalog_api.model.Product;       // Import Product data model
+import com.appababba.product_catalog_api.pagination.ProductCursor; // Opaque keyset cursor
+import com.appababba.product_catalog_api.pagination.ProductPage;   // Page of products + next cursor
+import com.appababba.product_catalog_api.pagination.ProductSort;   // Supported listing orders
+import com.appababba.product_catalog_api.service.CatalogVersion; // Aggregate catalog version (listing ETag)
+import com.appababba.product_catalog_api.service.ProductJsonCache; // Pre-encoded JSON of single products
+import com.appababba.product_catalog_api.service.ProductLookup; // Multi-get result
+import com.appababba.product_catalog_api.service.ProductPatch; // Partial update
 import com.appababba.product_catalog_api.service.ProductService; // Import Product service layer
+import com.fasterxml.jackson.databind.JsonNode; // PATCH body (needs to tell "absent" from "null")
+import com.fasterxml.jackson.databind.ObjectMapper; // JSON writer used for NDJSON streaming
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*; // Includes @RestController, @RequestMapping, @GetMapping, etc.
+import org.springframework.web.context.request.WebRequest; // Conditional request checks (If-None-Match)
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody; // Writes the body after the handler returns
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder; // Builds the 'next' link from the current request
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController // Marks this class to handle REST API requests, returning JSON by default.
 @RequestMapping("/api/v1/products") // Sets the base URL path for all methods in this controller.
 public class ProductController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson"; // Newline-delimited JSON
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor"; // Opaque token for the next page
+    public static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json"; // RFC 7396
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile"; // Binary JSON (Jackson Smile)
+
+    static final int DEFAULT_PAGE_SIZE = 100; // Page size when the client does not send 'limit'
+    static final int MAX_PAGE_SIZE = 1000;    // Upper bound so one request can't pull the whole table
+    static final int STREAM_CHUNK_SIZE = 500; // Rows per read transaction while streaming NDJSON (app.read.fetch-size)
+    static final int STREAM_FLUSH_ROWS = STREAM_CHUNK_SIZE; // Rows written between flushes: one flush per chunk
+    private static final MediaType SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
     private final ProductService productService; // Service dependency
+    private final ObjectMapper objectMapper;     // Serializes rows one at a time for NDJSON
+    private final CatalogVersion catalogVersion; // Answers conditional listing requests without a query
+    private final ProductJsonCache productJsonCache; // JSON responses without Jackson when enabled
 
     // Injecting the ProductService using constructor injection (recommended)
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper, CatalogVersion catalogVersion,
+                             ProductJsonCache productJsonCache) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.catalogVersion = catalogVersion;
+        this.productJsonCache = productJsonCache;
+    }
+
+    // GET /api/v1/products?after=<id>&limit=N or ?cursor=<token> - Fetches one keyset page of products
+    // Optional filters/order: ?minPrice=10&maxPrice=50&sort=price,asc (sort: id,asc | price,asc | price,desc)
+    // The body stays a plain JSON array; the next page is advertised in the X-Next-Cursor and Link headers.
+    // Carries the catalog ETag: "If-None-Match" with the current tag gets 304 without touching the database.
+    // Also available as CBOR or Smile ("Accept: application/cbor" / "application/x-jackson-smile") for service clients.
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                            @RequestParam(required = false) Double minPrice,
+                                            @RequestParam(required = false) Double maxPrice,
+                                            @RequestParam(required = false) String sort,
+                                            WebRequest webRequest) {
+        // Read the tag before querying: a write racing with the query can only make the tag older than the data
+        String catalogETag = catalogVersion.etag();
+        if (webRequest.checkNotModified(catalogETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalogETag).varyBy(HttpHeaders.ACCEPT).build(); // Client copy is current
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE)); // Clamp to [1, MAX_PAGE_SIZE]
+        // An opaque cursor wins over a raw 'after' id (bad tokens end up as 400 via the handler below)
+        ProductCursor pageCursor = cursor != null ? ProductCursor.decode(cursor) : after != null ? ProductCursor.after(after) : null;
+        ProductPage page;
+        if (minPrice == null && maxPrice == null && sort == null && (pageCursor == null || !pageCursor.hasPrice())) {
+            page = productService.getProductsPage(pageCursor == null ? null : pageCursor.getLastId(), pageSize);
+        } else {
+            page = productService.findProducts(minPrice, maxPrice, ProductSort.parse(sort), pageCursor, pageSize);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(catalogETag).varyBy(HttpHeaders.ACCEPT);
+        if (page.hasNext()) {
+            String nextLink = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after") // The cursor replaces any raw id
+                    .replaceQueryParam("cursor", page.nextCursor())
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor())
+                    .header(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"");
+        }
+        if (productJsonCache.isEnabled() && acceptsJson(webRequest)) {
+            // The array is assembled from the products' cached JSON and written out as is
+            return response.contentType(MediaType.APPLICATION_JSON).body(productJsonCache.arrayOf(page.items()));
+        }
+        // Return the page with HTTP 200 OK status
+        return response.body(page.items());
     }
 
-    // GET /api/v1/products - Fetches all products
-    @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        // Return the list with HTTP 200 OK status
-        return ResponseEntity.ok(products);
+    // GET /api/v1/products?ids=1,2,3 - Fetches many products by id in one request (one IN query per 500 ids).
+    // Returns {"products":[...],"missing":[...]}, both in request order; see POST /api/v1/products:lookup for id sets
+    // too long for a URL.
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<ProductLookup> getProductsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(productService.getProductsByIds(ids));
+    }
+
+    // GET /api/v1/products with "Accept: application/x-ndjson" - Streams the whole catalog, one JSON object per line
+    // Rows are read as ProductView records (not entities) STREAM_CHUNK_SIZE at a time, then serialized and flushed
+    // after their read transaction has committed, so the server holds one chunk of rows and a slow client doesn't
+    // keep a database connection busy.
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts(@RequestParam(required = false) Long after) {
+        StreamingResponseBody body = out -> {
+            int[] unflushed = {0};
+            productService.forEachProductView(after, STREAM_CHUNK_SIZE, view -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(view));
+                    out.write('\n');
+                    if (++unflushed[0] == STREAM_FLUSH_ROWS) {
+                        out.flush(); // Push what we have to the client
+                        unflushed[0] = 0;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Client went away - stop walking the table
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
     }
 
     // GET /api/v1/products/{id} - Fetches a single product by its ID
+    // JSON responses come from the product JSON cache when it's enabled: a hit writes the stored bytes straight to
+    // the response (byte[] goes through the plain byte array converter) without building a Product at all.
     @GetMapping("/{id}")
     // @PathVariable grabs the 'id' from the URL path
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        if (productJsonCache.isEnabled() && acceptsJson(webRequest)) {
+            return productJsonCache.getProductJson(id)
+                    .map(cached -> withValidators(ResponseEntity.ok(), cached.version(), cached.lastModified())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(cached.json()))
+                    .orElse(ResponseEntity.notFound().build());
+        }
         // Ask service for product (returns Optional)
+        // ETag/Last-Modified let Spring answer If-None-Match / If-Modified-Since with 304 (cache hits never reach the DB)
         return productService.getProductById(id)
-                .map(ResponseEntity::ok) // If found, wrap product in 200 OK response (method reference)
+                .map(product -> withValidators(ResponseEntity.ok(), product).body(product)) // If found, 200 OK + validators
                 .orElse(ResponseEntity.notFound().build()); // If not found, return 404 Not Found
     }
 
@@ -49,11 +171,25 @@ public class ProductController {
     }
 
     // PUT /api/v1/products/{id} - Updates an existing product
+    // Optional "If-Match: <ETag>" makes it conditional: 412 if the product changed since the client read it
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // Attempt to update the product via the service (returns Optional)
-        return productService.updateProduct(id, productDetails)
-                .map(ResponseEntity::ok) // If updated, return 200 OK with the updated product
+        return productService.updateProduct(id, productDetails, expectedVersion(ifMatch))
+                .map(product -> withValidators(ResponseEntity.ok(), product).body(product)) // 200 OK with the new ETag
+                .orElse(ResponseEntity.notFound().build()); // If product ID not found, return 404
+    }
+
+    // PATCH /api/v1/products/{id} - Partial update: only the fields sent are changed ("description": null clears it)
+    // Same If-Match handling as PUT
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_MERGE_PATCH_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<Product> patchProduct(@PathVariable Long id, @RequestBody JsonNode patch,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // Bad field values end up as 400 via the IllegalArgumentException handler
+        return productService.patchProduct(id, ProductPatch.of(patch), expectedVersion(ifMatch))
+                .map(product -> withValidators(ResponseEntity.ok(), product).body(product)) // 200 OK with the new ETag
                 .orElse(ResponseEntity.notFound().build()); // If product ID not found, return 404
     }
 
@@ -70,4 +206,82 @@ public class ProductController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    // Stale If-Match -> 412 Precondition Failed; a concurrent write without If-Match -> 409 Conflict
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleVersionConflict(OptimisticLockingFailureException e, WebRequest webRequest) {
+        HttpStatus status = webRequest.getHeader(HttpHeaders.IF_MATCH) != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).build();
+    }
+
+    // Strong ETag of one product: its version
+    static String etag(Product product) {
+        return etag(product.getVersion());
+    }
+
+    static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Adds ETag and Last-Modified when the product has them (rows from before versioning may not).
+    // Vary: Accept because the same URL can answer in JSON, CBOR or Smile.
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, Product product) {
+        return withValidators(response, product.getVersion(), product.getLastModified());
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, Long version, Instant lastModified) {
+        response.varyBy(HttpHeaders.ACCEPT);
+        if (version != null) {
+            response.eTag(etag(version));
+        }
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
+
+    // Whether content negotiation would pick JSON among the formats these endpoints produce (JSON, CBOR, Smile):
+    // the first Accept entry, in Spring's quality/specificity order, that matches one of them decides; wildcards
+    // mean JSON, which comes first among the converters
+    static boolean acceptsJson(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return false; // Let the regular path answer the malformed header
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        return accepted.stream()
+                .filter(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON) || type.isCompatibleWith(MediaType.APPLICATION_CBOR)
+                        || type.isCompatibleWith(SMILE))
+                .findFirst()
+                .map(type -> type.getQualityValue() > 0 && type.isCompatibleWith(MediaType.APPLICATION_JSON))
+                .orElse(false);
+    }
+
+    // If-Match header -> version the client expects; null when absent or "*" (any current version)
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Not one of our tags
+            }
+        }
+        return -1L; // Weak, foreign or multiple tags never match a version -> 412
+    }
+
+    // Malformed cursors (or other bad arguments) become 400 Bad Request instead of a 500
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.appababba.product_catalog_api.controller; // Controller package
+
+import com.appababba.product_catalog_api.service.ImportJob; // Import progress / report
+import com.appababba.product_catalog_api.service.ProductImportService; // Streaming import pipeline
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*; // Includes @RestController, @RequestMapping, @PostMapping, etc.
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.InputStream;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/v1/products/import") // Catalog feed uploads and their job status
+public class ProductImportController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ProductImportService productImportService; // Import pipeline dependency
+
+    @Autowired
+    public ProductImportController(ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+    // POST /api/v1/products/import - Streams a CSV upload (header row: name,description,price) into the catalog
+    @PostMapping(consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ImportJob> importCsv(InputStream body) {
+        return startImport(body, ProductImportService.Format.CSV);
+    }
+
+    // POST /api/v1/products/import - Streams an NDJSON upload (one product object per line) into the catalog
+    @PostMapping(consumes = ProductController.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportJob> importNdjson(InputStream body) {
+        return startImport(body, ProductImportService.Format.NDJSON);
+    }
+
+    // GET /api/v1/products/import/{jobId} - Progress counters and rejected-row report for an import
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable String jobId) {
+        return productImportService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()); // Unknown or expired job id
+    }
+
+    // The body has been read completely when the service returns; rows may still be committing,
+    // so answer 202 Accepted and point the client at the job status resource.
+    private ResponseEntity<ImportJob> startImport(InputStream body, ProductImportService.Format format) {
+        return productImportService.importProducts(body, format)
+                .map(job -> {
+                    if (job.getState() == ImportJob.State.FAILED && !job.isUploadComplete()) {
+                        return ResponseEntity.badRequest().body(job); // Unreadable upload (e.g. bad CSV header)
+                    }
+                    URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                            .path("/{jobId}").buildAndExpand(job.getId()).toUri();
+                    return ResponseEntity.accepted().location(location).body(job);
+                })
+                .orElse(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build()); // All import slots busy
+    }
+}
@@ -0,0 +1,34 @@
+package com.appababba.product_catalog_api.controller; // Controller package
+
+import com.appababba.product_catalog_api.search.ProductSearchHit; // Ranked search result
+import com.appababba.product_catalog_api.search.ProductSearchIndex; // In-memory inverted index
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/products/search") // Full-text / typeahead search over name and description
+public class ProductSearchController {
+
+    static final int MAX_RESULTS = 100; // Upper bound for 'limit'
+
+    private final ProductSearchIndex productSearchIndex; // Index dependency
+
+    @Autowired
+    public ProductSearchController(ProductSearchIndex productSearchIndex) {
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    // GET /api/v1/products/search?q=blue wid&limit=10 - Ranked matches, every word also matches as a prefix
+    @GetMapping
+    public ResponseEntity<List<ProductSearchHit>> search(@RequestParam("q") String query,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        int maxHits = Math.max(1, Math.min(limit, MAX_RESULTS)); // Clamp to [1, MAX_RESULTS]
+        return ResponseEntity.ok(productSearchIndex.search(query, maxHits));
+    }
+}
@@ -0,0 +1,51 @@
+package com.appababba.product_catalog_api.controller; // Controller package
+
+import com.appababba.product_catalog_api.service.CatalogVersion; // Aggregate catalog version (ETag)
+import com.appababba.product_catalog_api.stats.ProductStats; // Count, price summary, percentiles, histogram
+import com.appababba.product_catalog_api.stats.ProductStatsService; // SQL or in-memory aggregation
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*; // Includes @RestController, @RequestMapping, @GetMapping, etc.
+import org.springframework.web.context.request.WebRequest; // Conditional request checks (If-None-Match)
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/products/stats") // Catalog price statistics
+public class ProductStatsController {
+
+    static final int DEFAULT_BUCKETS = 10;
+
+    private final ProductStatsService productStatsService;
+    private final CatalogVersion catalogVersion; // Same ETag as the product listings
+
+    @Autowired
+    public ProductStatsController(ProductStatsService productStatsService, CatalogVersion catalogVersion) {
+        this.productStatsService = productStatsService;
+        this.catalogVersion = catalogVersion;
+    }
+
+    // GET /api/v1/products/stats?minPrice=10&maxPrice=50&namePrefix=Lamp&buckets=20 - count, min/max/mean,
+    // price percentiles and a histogram of the matching products. '&bounds=0,10,50,100' sets the histogram
+    // buckets explicitly instead of 'buckets' equal-width ones. Unchanged catalog + If-None-Match = 304.
+    @GetMapping
+    public ResponseEntity<ProductStats> getStats(@RequestParam(required = false) Double minPrice,
+                                                 @RequestParam(required = false) Double maxPrice,
+                                                 @RequestParam(required = false) String namePrefix,
+                                                 @RequestParam(defaultValue = "" + DEFAULT_BUCKETS) int buckets,
+                                                 @RequestParam(required = false) List<Double> bounds,
+                                                 WebRequest webRequest) {
+        String catalogETag = catalogVersion.etag(); // Before computing, like the listings
+        if (webRequest.checkNotModified(catalogETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalogETag).build();
+        }
+        ProductStats stats = productStatsService.getStats(minPrice, maxPrice, namePrefix, buckets, bounds);
+        return ResponseEntity.ok().eTag(catalogETag).body(stats);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().build();
+    }
+}
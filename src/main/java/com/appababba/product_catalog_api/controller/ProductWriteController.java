@@ -0,0 +1,75 @@
+package com.appababba.product_catalog_api.controller; // Controller package
+
+import com.appababba.product_catalog_api.model.Product; // Product data model
+import com.appababba.product_catalog_api.service.ProductWriteBehindService; // Queued, group-committed writes
+import com.appababba.product_catalog_api.service.WriteTicket; // Tracking record of a queued write
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*; // Includes @RestController, @RequestMapping, @PostMapping, etc.
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Optional;
+
+// Write-behind mode: "Prefer: respond-async" (RFC 7240) on POST /api/v1/products or PUT /api/v1/products/{id}
+// lands here instead of in ProductController. The write is queued and answered with 202 Accepted and a ticket;
+// GET /api/v1/products/writes/{ticketId} tells when (and whether) it was committed.
+// Without the header - or with app.write-behind.enabled off, when this controller doesn't exist - the same
+// requests stay synchronous. Conditional PUTs (If-Match) are always synchronous: the version check needs an answer.
+@RestController
+@RequestMapping("/api/v1/products")
+@ConditionalOnProperty(name = "app.write-behind.enabled", havingValue = "true")
+public class ProductWriteController {
+
+    static final String PREFER_RESPOND_ASYNC = "Prefer=respond-async"; // Header condition of the async mappings
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    private final ProductWriteBehindService writeBehindService; // Write queue dependency
+
+    @Autowired
+    public ProductWriteController(ProductWriteBehindService writeBehindService) {
+        this.writeBehindService = writeBehindService;
+    }
+
+    // POST /api/v1/products with "Prefer: respond-async" - Queues a new product
+    @PostMapping(headers = PREFER_RESPOND_ASYNC)
+    public ResponseEntity<WriteTicket> createProductAsync(@RequestBody Product product) {
+        return accepted(writeBehindService.submitCreate(product));
+    }
+
+    // PUT /api/v1/products/{id} with "Prefer: respond-async" - Queues a full update
+    @PutMapping(path = "/{id}", headers = {PREFER_RESPOND_ASYNC, "!" + HttpHeaders.IF_MATCH})
+    public ResponseEntity<WriteTicket> updateProductAsync(@PathVariable Long id, @RequestBody Product productDetails) {
+        return accepted(writeBehindService.submitUpdate(id, productDetails));
+    }
+
+    // GET /api/v1/products/writes/{ticketId} - State of a queued write (QUEUED, COMMITTED, SUPERSEDED, ...)
+    @GetMapping("/writes/{ticketId}")
+    public ResponseEntity<WriteTicket> getWriteTicket(@PathVariable String ticketId) {
+        return writeBehindService.getTicket(ticketId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build()); // Unknown or expired ticket, or another instance's
+    }
+
+    // 202 + Location of the ticket, or 503 when the queue is full or the instance is shutting down
+    private static ResponseEntity<WriteTicket> accepted(Optional<WriteTicket> ticket) {
+        return ticket
+                .map(accepted -> {
+                    URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/v1/products/writes/{ticketId}").buildAndExpand(accepted.getId()).toUri();
+                    return ResponseEntity.accepted().location(location)
+                            .header(PREFERENCE_APPLIED, "respond-async")
+                            .body(accepted);
+                })
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build());
+    }
+
+    // Invalid products are rejected before they are queued
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.appababba.product_catalog_api.event; // Application events package
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+
+// Published by the service layer for every product write.
+// Listeners that keep derived state in sync (search index, ...) should use
+// @TransactionalEventListener so they only see changes that were actually committed.
+public record ProductChangedEvent(Type type, Long productId, Product product) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(Type.CREATED, product.getId(), product);
+    }
+
+    public static ProductChangedEvent updated(Product product) {
+        return new ProductChangedEvent(Type.UPDATED, product.getId(), product);
+    }
+
+    // Deleted products have no state left, only the id
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null);
+    }
+}
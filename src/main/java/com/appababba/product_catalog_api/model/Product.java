@@ -1,16 +1,23 @@
 package com.appababba.product_catalog_api.model; // Data model package
 
+import com.fasterxml.jackson.annotation.JsonProperty; // Marks server-managed fields read-only in JSON
 import jakarta.persistence.*; // JPA annotations (Entity, Id, etc.)
+import java.time.Instant;
 import java.util.Objects; // For implementing equals and hashCode
 
 @Entity // Marks this class as a JPA entity (maps to a database table)
-@Table(name = "products") // Specifies the table name in the database (optional if class name matches)
+@Table(name = "products", // Specifies the table name in the database (optional if class name matches)
+       // (price, id) serves price range filters and price-sorted keyset pages as one index range scan
+       indexes = @Index(name = "idx_products_price_id", columnList = "price, id"))
 public class Product {
 
     // Note: This is a standard JPA entity using manual getters/setters, etc. (No Lombok)
 
     @Id // Marks this field as the primary key for the table
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Configures the ID to be auto-generated by the database (auto-increment)
+    // IDs come from a database sequence instead of IDENTITY so Hibernate can batch INSERTs.
+    // allocationSize = 50 uses the pooled optimizer: one sequence call reserves 50 ids (must match the sequence INCREMENT BY).
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false) // Maps to a column, cannot be null in the database
@@ -21,6 +28,16 @@ public class Product {
     @Column(nullable = false) // Cannot be null in the database
     private Double price;
 
+    // Optimistic locking: bumped on every update, Hibernate adds "AND version = ?" to UPDATEs.
+    // Also serves as the product's ETag. Set by the server only (ignored in request bodies).
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // Time of the last insert/update, sent as Last-Modified. Set by the server only.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant lastModified;
+
     // No-argument constructor (required by JPA)
     public Product() {
     }
@@ -67,6 +84,29 @@ public class Product {
         this.price = price;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    // Keep lastModified current for every insert and update that goes through Hibernate
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastModified = Instant.now();
+    }
+
     // Standard equals() and hashCode() implementation (important for entity management)
     // Compares objects based on their field values.
     @Override
@@ -95,6 +135,7 @@ public class Product {
                ", name='" + name + '\'' +
                ", description='" + description + '\'' +
                ", price=" + price +
+               ", version=" + version +
                '}';
     }
 }
\ No newline at end of file
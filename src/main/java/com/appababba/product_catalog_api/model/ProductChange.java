@@ -0,0 +1,100 @@
+package com.appababba.product_catalog_api.model; // Data model package
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Change types
+import jakarta.persistence.*; // JPA annotations (Entity, Id, etc.)
+
+import java.time.Instant;
+
+// One entry of the product change log (outbox), written in the same transaction as the change itself.
+// Sequence numbers are gap-free and follow commit order (see ProductChangeLog), so "everything after N"
+// is a complete, ordered delta for a consumer that has seen up to N.
+@Entity
+@Table(name = "product_changes",
+       // Retention deletes by age
+       indexes = @Index(name = "idx_product_changes_changed_at", columnList = "changed_at"))
+public class ProductChange {
+
+    @Id // Assigned by ProductChangeLog, not generated
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ProductChangedEvent.Type type;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    // Product state after the change, so consumers don't have to fetch it; all null for deletes
+    private String name;
+    private String description;
+    private Double price;
+    private Long version;
+    private Instant lastModified;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    // No-argument constructor (required by JPA)
+    protected ProductChange() {
+    }
+
+    public ProductChange(Long sequence, ProductChangedEvent event, Instant changedAt) {
+        this.sequence = sequence;
+        this.type = event.type();
+        this.productId = event.productId();
+        Product product = event.product();
+        if (product != null) {
+            this.name = product.getName();
+            this.description = product.getDescription();
+            this.price = product.getPrice();
+            this.version = product.getVersion();
+            this.lastModified = product.getLastModified();
+        }
+        this.changedAt = changedAt;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public ProductChangedEvent.Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChange{" +
+               "sequence=" + sequence +
+               ", type=" + type +
+               ", productId=" + productId +
+               '}';
+    }
+}
@@ -0,0 +1,42 @@
+package com.appababba.product_catalog_api.model; // Data model package
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Single row holding the last sequence number handed out to the change log.
+// Writers lock it right before commit, which makes sequence order equal commit order.
+@Entity
+@Table(name = "product_change_head")
+public class ProductChangeHead {
+
+    public static final Long ID = 1L; // The only row
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long lastSequence;
+
+    // No-argument constructor (required by JPA)
+    protected ProductChangeHead() {
+    }
+
+    public ProductChangeHead(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    // Hands out the next sequence number (caller holds the row lock)
+    public long next() {
+        return ++lastSequence;
+    }
+}
@@ -0,0 +1,16 @@
+package com.appababba.product_catalog_api.model; // Data model package
+
+import java.time.Instant;
+
+// Read-only copy of a product row for responses that only serialize what they read (catalog export, multi-get).
+// Selected with a JPQL constructor expression (see ProductViewRepository), so Hibernate never creates an entity
+// for it: no persistence context entry, no loaded-state snapshot, no field-by-field equals/hashCode.
+// Same properties in the same order as Product, so the JSON is identical.
+public record ProductView(Long id, String name, String description, Double price, Long version, Instant lastModified) {
+
+    // For products that are already in memory (snapshot, shards)
+    public static ProductView of(Product product) {
+        return new ProductView(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                product.getVersion(), product.getLastModified());
+    }
+}
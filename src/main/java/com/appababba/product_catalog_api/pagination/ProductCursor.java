@@ -0,0 +1,66 @@
+package com.appababba.product_catalog_api.pagination; // Pagination helpers package
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursor handed to clients as "next page" token.
+// It only remembers the sort key of the last row the client has seen, so the next query is "WHERE id > ?"
+// (or "(price, id) > (?, ?)" for price-sorted listings) - an index seek, no OFFSET scan.
+public final class ProductCursor {
+
+    private static final String ID_PREFIX = "id:";       // Id-ordered listing
+    private static final String PRICE_PREFIX = "price:"; // Price-ordered listing, id breaks ties
+
+    private final long lastId;      // Last product id returned on the previous page
+    private final Double lastPrice; // Its price, only for price-sorted pages (null otherwise)
+
+    private ProductCursor(long lastId, Double lastPrice) {
+        this.lastId = lastId;
+        this.lastPrice = lastPrice;
+    }
+
+    // Cursor positioned right after the given product id
+    public static ProductCursor after(long lastId) {
+        return new ProductCursor(lastId, null);
+    }
+
+    // Cursor positioned right after the given (price, id) pair
+    public static ProductCursor after(double lastPrice, long lastId) {
+        return new ProductCursor(lastId, lastPrice);
+    }
+
+    // Turns a client token back into a cursor, throws IllegalArgumentException if it was tampered with
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (raw.startsWith(ID_PREFIX)) {
+                return new ProductCursor(Long.parseLong(raw.substring(ID_PREFIX.length())), null);
+            }
+            if (raw.startsWith(PRICE_PREFIX)) {
+                String[] parts = raw.substring(PRICE_PREFIX.length()).split(":", 2); // "<price>:<id>"
+                return new ProductCursor(Long.parseLong(parts[1]), Double.valueOf(parts[0]));
+            }
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) { // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    // Base64url keeps the token safe to put in a query string without extra escaping
+    public String encode() {
+        String raw = lastPrice == null ? ID_PREFIX + lastId : PRICE_PREFIX + lastPrice + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public Double getLastPrice() {
+        return lastPrice;
+    }
+
+    public boolean hasPrice() {
+        return lastPrice != null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.appababba.product_catalog_api.pagination; // Pagination helpers package
+
+import com.appababba.product_catalog_api.model.Product;
+
+import java.util.List;
+
+// One keyset page of products plus the opaque token for the next page (null when this was the last page)
+public record ProductPage(List<Product> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.appababba.product_catalog_api.pagination; // Pagination helpers package
+
+import java.util.Locale;
+
+// Orderings the listing endpoint supports. Each one is backed by an index so keyset paging stays an index range scan:
+// ID_ASC by the primary key, PRICE_ASC / PRICE_DESC by idx_products_price_id (price, id).
+public enum ProductSort {
+    ID_ASC,
+    PRICE_ASC,
+    PRICE_DESC;
+
+    // Parses Spring-style "field,direction" values such as "price,asc" or "price,desc" (direction defaults to asc)
+    public static ProductSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ID_ASC;
+        }
+        String[] parts = value.toLowerCase(Locale.ROOT).split(",", 2);
+        String field = parts[0].trim();
+        String direction = parts.length > 1 ? parts[1].trim() : "asc";
+        if (field.equals("id") && direction.equals("asc")) {
+            return ID_ASC;
+        }
+        if (field.equals("price") && direction.equals("asc")) {
+            return PRICE_ASC;
+        }
+        if (field.equals("price") && direction.equals("desc")) {
+            return PRICE_DESC;
+        }
+        throw new IllegalArgumentException("Unsupported sort: " + value); // Ends up as 400 Bad Request
+    }
+
+    public boolean byPrice() {
+        return this != ID_ASC;
+    }
+}
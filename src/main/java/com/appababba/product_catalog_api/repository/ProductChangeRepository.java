@@ -0,0 +1,28 @@
+package com.appababba.product_catalog_api.repository; // Repository package
+
+import com.appababba.product_catalog_api.model.ProductChange; // Change log entry
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    // Next 'limit' changes after the given sequence number ("WHERE sequence > ? ORDER BY sequence LIMIT ?" on the primary key)
+    List<ProductChange> findBySequenceGreaterThanOrderBySequenceAsc(Long sequence, Limit limit);
+
+    // Last sequence number handed out, 0 before the first change (also counts entries already pruned)
+    @Query("select coalesce(max(h.lastSequence), 0) from ProductChangeHead h")
+    long findLastSequence();
+
+    // Retention: one DELETE by age
+    @Modifying
+    @Query("delete from ProductChange c where c.changedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
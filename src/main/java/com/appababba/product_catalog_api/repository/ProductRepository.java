@@ -1,10 +1,24 @@
 package com.appababba.product_catalog_api.repository; // Repository package
 
 import com.appababba.product_catalog_api.model.Product; // The Product entity
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository // Marks this as a Spring Data JPA repository bean
+// Declared queries get no transaction of their own from Spring Data: without this, a query called outside a service
+// transaction would run in autocommit on a connection that is never marked read-only (and so never routed to a
+// replica). The write queries below override it; inside a service transaction every method joins that one.
+@Transactional(readOnly = true)
 public interface ProductRepository extends JpaRepository<Product, Long> {
     // JpaRepository handles standard CRUD for Product (entity) using Long (ID type).
     // It gives us methods like findAll(), findById(), save(), deleteById() automatically.
@@ -12,4 +26,111 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // We can add custom find methods later if needed, like:
     // List<Product> findByNameContainingIgnoreCase(String keyword);
     // Spring Data JPA implements these based on the method name.
-}
\ No newline at end of file
+
+    // Keyset pagination: next 'limit' products with an id greater than the last one seen.
+    // Runs as "WHERE id > ? ORDER BY id LIMIT ?" so it uses the primary key index instead of scanning/offsetting.
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Which of these ids actually exist? Only reads the primary key index, no entity loading.
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Single-statement writes (PostgreSQL): no SELECT before the write, no managed entity to dirty-check.
+    // The UPDATEs bump the version themselves and return the new row; they return nothing when the id doesn't
+    // exist or, with an expectedVersion (If-Match), when the row is at another version.
+    // Nullable parameters are cast so PostgreSQL can type a null bind value; the casts are to unbounded varchar, since
+    // varchar(255) would silently truncate a longer value (ProductValidator rejects those before they get here).
+
+    // PUT: overwrite name, description and price
+    @Transactional
+    @Query(value = "update products set name = :name, description = cast(:description as varchar), price = :price,"
+            + " version = coalesce(version, 0) + 1, last_modified = :now"
+            + " where id = :id and (cast(:expectedVersion as bigint) is null or version = cast(:expectedVersion as bigint))"
+            + " returning *", nativeQuery = true)
+    Optional<Product> replaceReturning(@Param("id") Long id, @Param("name") String name,
+                                       @Param("description") String description, @Param("price") Double price,
+                                       @Param("expectedVersion") Long expectedVersion, @Param("now") Instant now);
+
+    // PATCH: null name/price keep the stored value; description only changes when setDescription is true
+    @Transactional
+    @Query(value = "update products set name = coalesce(cast(:name as varchar), name),"
+            + " description = case when :setDescription then cast(:description as varchar) else description end,"
+            + " price = coalesce(cast(:price as float8), price),"
+            + " version = coalesce(version, 0) + 1, last_modified = :now"
+            + " where id = :id and (cast(:expectedVersion as bigint) is null or version = cast(:expectedVersion as bigint))"
+            + " returning *", nativeQuery = true)
+    Optional<Product> patchReturning(@Param("id") Long id, @Param("name") String name,
+                                     @Param("setDescription") boolean setDescription, @Param("description") String description,
+                                     @Param("price") Double price, @Param("expectedVersion") Long expectedVersion,
+                                     @Param("now") Instant now);
+
+    // DELETE ... WHERE id = ?; the affected row count says whether the product existed
+    @Transactional
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteWhereId(@Param("id") Long id);
+
+    // Price range, ordered by id (primary key scan filtered on price)
+    List<Product> findByPriceBetweenAndIdGreaterThanOrderByIdAsc(Double minPrice, Double maxPrice, Long id, Limit limit);
+
+    // Price range, cheapest first; (price, id) keyset so equal prices page deterministically.
+    // The extra "p.price >= :afterPrice" bound lets the database start the index scan at the cursor.
+    @Query("select p from Product p where p.price between :minPrice and :maxPrice"
+            + " and p.price >= :afterPrice and (p.price > :afterPrice or p.id > :afterId)"
+            + " order by p.price asc, p.id asc")
+    List<Product> findPriceRangeAscending(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                                          @Param("afterPrice") Double afterPrice, @Param("afterId") Long afterId,
+                                          Limit limit);
+
+    // Price range, most expensive first (same index, scanned backwards)
+    @Query("select p from Product p where p.price between :minPrice and :maxPrice"
+            + " and p.price <= :afterPrice and (p.price < :afterPrice or p.id < :afterId)"
+            + " order by p.price desc, p.id desc")
+    List<Product> findPriceRangeDescending(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                                           @Param("afterPrice") Double afterPrice, @Param("afterId") Long afterId,
+                                           Limit limit);
+
+    // Price statistics pushed down to the database (PostgreSQL), one scan each; see ProductStatsService.
+    // The name filter is a LIKE pattern (null = any name); the percentiles share one sort of the matching prices.
+    @Query(value = "select count(*) as count, min(price) as minimum, max(price) as maximum, avg(price) as mean,"
+            + " percentile_disc(0.25) within group (order by price) as p25,"
+            + " percentile_disc(0.5) within group (order by price) as p50,"
+            + " percentile_disc(0.75) within group (order by price) as p75,"
+            + " percentile_disc(0.9) within group (order by price) as p90,"
+            + " percentile_disc(0.95) within group (order by price) as p95,"
+            + " percentile_disc(0.99) within group (order by price) as p99"
+            + " from products where price between :minPrice and :maxPrice"
+            + " and (cast(:namePattern as varchar) is null or name like cast(:namePattern as varchar))", nativeQuery = true)
+    PriceSummary summarizePrices(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                                 @Param("namePattern") String namePattern);
+
+    // Histogram counts: bucket i (1-based) holds bounds[i-1] <= price < bounds[i]; a price equal to the last bound
+    // is counted in the last bucket. 'bounds' is a PostgreSQL array literal such as "{0,10,100}".
+    @Query(value = "select least(width_bucket(price, cast(:bounds as float8[])), :buckets) as bucket, count(*) as count"
+            + " from products where price between :minPrice and :maxPrice"
+            + " and (cast(:namePattern as varchar) is null or name like cast(:namePattern as varchar))"
+            + " group by 1", nativeQuery = true)
+    List<PriceBucketCount> countPriceBuckets(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                                             @Param("namePattern") String namePattern, @Param("bounds") String bounds,
+                                             @Param("buckets") int buckets);
+
+    // Row of summarizePrices
+    interface PriceSummary {
+        long getCount();
+        Double getMinimum();
+        Double getMaximum();
+        Double getMean();
+        Double getP25();
+        Double getP50();
+        Double getP75();
+        Double getP90();
+        Double getP95();
+        Double getP99();
+    }
+
+    // Row of countPriceBuckets
+    interface PriceBucketCount {
+        int getBucket();
+        long getCount();
+    }
+}
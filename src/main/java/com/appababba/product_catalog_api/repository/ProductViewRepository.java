@@ -0,0 +1,66 @@
+package com.appababba.product_catalog_api.repository; // Repository package
+
+import com.appababba.product_catalog_api.model.ProductView; // Read-only product row
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Product reads that skip entity management: the queries select ProductView records with a constructor expression,
+// so rows go straight from the JDBC result set to immutable objects. Large reads are streamed with a JDBC fetch size
+// (app.read.fetch-size): PostgreSQL then sends the result in slices through a cursor (which needs the transaction
+// these methods run in) instead of buffering every row in the driver first.
+@Repository
+public class ProductViewRepository {
+
+    static final String SELECT_VIEW = "select new com.appababba.product_catalog_api.model.ProductView("
+            + "p.id, p.name, p.description, p.price, p.version, p.lastModified) from Product p";
+
+    private final EntityManager entityManager;
+    private final int fetchSize; // Rows per round trip while streaming
+
+    @Autowired
+    public ProductViewRepository(EntityManager entityManager,
+                                 @Value("${app.read.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
+    }
+
+    // Hands the first 'maxRows' products with an id greater than 'afterId' to the consumer in id order, as they arrive
+    // from the database; returns how many there were. The consumer runs inside the read transaction (one connection
+    // for the whole call), so callers bound 'maxRows' rather than streaming an unbounded table through one query.
+    @Transactional(readOnly = true)
+    public int forEachAfter(long afterId, int maxRows, Consumer<ProductView> consumer) {
+        int rows = 0;
+        try (Stream<ProductView> views = entityManager.createQuery(SELECT_VIEW + " where p.id > :afterId order by p.id", ProductView.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(maxRows)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Math.min(fetchSize, maxRows))
+                .setHint(HibernateHints.HINT_READ_ONLY, true) // Nothing to flush or dirty-check for this session
+                .getResultStream()) {
+            for (ProductView view : (Iterable<ProductView>) views::iterator) {
+                consumer.accept(view);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // Multi-get: "WHERE id IN (...)", one primary key lookup per id in a single round trip (rows in no particular
+    // order). The IN list is padded to a power of two (hibernate.query.in_clause_parameter_padding), so differently
+    // sized requests share a few statement shapes instead of each producing a new one.
+    @Transactional(readOnly = true)
+    public List<ProductView> findAllById(Collection<Long> ids) {
+        return entityManager.createQuery(SELECT_VIEW + " where p.id in :ids", ProductView.class)
+                .setParameter("ids", ids)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+}
@@ -0,0 +1,5 @@
+package com.appababba.product_catalog_api.search; // Search package
+
+// One search result, served straight from the index (no database round trip). Higher score = more relevant.
+public record ProductSearchHit(Long id, String name, String description, Double price, double score) {
+}
@@ -0,0 +1,231 @@
+package com.appababba.product_catalog_api.search; // Search package
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Write notifications from the service layer
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.service.ProductService; // Used to walk the catalog at startup
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// In-process inverted index over Product.name and Product.description.
+// - Terms are lower-cased runs of letters/digits; a sorted term dictionary gives prefix (typeahead) matching.
+// - Scoring is TF-IDF style: name hits weigh more than description hits, exact terms more than prefix expansions.
+// - Every query token must match (AND), so "blue wid" narrows results as the user types.
+// Reads are lock-free; writes (rare compared to reads) are serialized by a single lock.
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    static final float NAME_WEIGHT = 3.0f;        // A name hit counts three times a description hit
+    static final float DESCRIPTION_WEIGHT = 1.0f;
+    static final float PREFIX_PENALTY = 0.7f;     // Prefix expansions rank below exact term matches
+    static final int MAX_PREFIX_EXPANSIONS = 64;  // Caps work for very short prefixes like "a"
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ProductService productService; // Source of truth for the startup build
+
+    // term -> (product id -> term weight in that product)
+    private final ConcurrentSkipListMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    // product id -> stored fields, returned with hits so searches never touch the database
+    private final ConcurrentHashMap<Long, IndexedProduct> documents = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private Set<Long> changedDuringRebuild; // Guarded by writeLock; ids written while the startup build runs
+
+    @Autowired
+    public ProductSearchIndex(ProductService productService) {
+        this.productService = productService;
+    }
+
+    // Build the index once the app is up, walking the catalog in keyset pages
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        synchronized (writeLock) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        productService.forEachProductPage(null, REBUILD_BATCH_SIZE, page -> {
+            synchronized (writeLock) {
+                for (Product product : page) {
+                    // A write event that arrived after this page was read is newer - keep it
+                    if (!changedDuringRebuild.contains(product.getId())) {
+                        indexLocked(product);
+                    }
+                }
+            }
+        });
+        synchronized (writeLock) {
+            changedDuringRebuild = null;
+        }
+        log.info("Product search index built: {} products, {} terms in {} ms",
+                documents.size(), postings.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Keep the index in sync with committed writes (fallbackExecution covers writes made outside a transaction)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.Type.DELETED) {
+            remove(event.productId());
+        } else {
+            index(event.product());
+        }
+    }
+
+    // Add or replace one product
+    public void index(Product product) {
+        synchronized (writeLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(product.getId());
+            }
+            indexLocked(product);
+        }
+    }
+
+    // Remove one product
+    public void remove(Long productId) {
+        synchronized (writeLock) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(productId);
+            }
+            removeLocked(productId);
+        }
+    }
+
+    // Ranked search; returns at most 'limit' hits, best first
+    public List<ProductSearchHit> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int totalDocuments = Math.max(1, documents.size());
+        Map<Long, Double> scores = null;
+        for (String token : new HashSet<>(tokens)) {
+            Map<Long, Double> tokenScores = scoreToken(token, totalDocuments);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // AND semantics: keep only products that matched every token so far
+                Map<Long, Double> merged = new HashMap<>();
+                for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                    Double score = tokenScores.get(entry.getKey());
+                    if (score != null) {
+                        merged.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = merged;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<ProductSearchHit> hits = new ArrayList<>(scores.size());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            IndexedProduct document = documents.get(entry.getKey());
+            if (document != null) { // Could have been removed while we were scoring
+                hits.add(new ProductSearchHit(document.id(), document.name(), document.description(),
+                        document.price(), entry.getValue()));
+            }
+        }
+        hits.sort((a, b) -> a.score() != b.score() ? Double.compare(b.score(), a.score()) : Long.compare(a.id(), b.id()));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    // Best score per product for one query token: the exact term plus terms it is a prefix of
+    private Map<Long, Double> scoreToken(String token, int totalDocuments) {
+        Map<Long, Double> tokenScores = new HashMap<>();
+        NavigableMap<String, Map<Long, Float>> expansions = postings.subMap(token, true, token + Character.MAX_VALUE, true);
+        int expanded = 0;
+        for (Map.Entry<String, Map<Long, Float>> term : expansions.entrySet()) {
+            if (expanded++ == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            Map<Long, Float> matches = term.getValue();
+            double idf = Math.log(1.0 + (double) totalDocuments / Math.max(1, matches.size()));
+            double factor = term.getKey().equals(token) ? 1.0 : PREFIX_PENALTY;
+            for (Map.Entry<Long, Float> match : matches.entrySet()) {
+                double score = match.getValue() * idf * factor;
+                tokenScores.merge(match.getKey(), score, Math::max);
+            }
+        }
+        return tokenScores;
+    }
+
+    private void indexLocked(Product product) {
+        removeLocked(product.getId());
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : tokenize(product.getName())) {
+            weights.merge(term, NAME_WEIGHT, Float::sum);
+        }
+        for (String term : tokenize(product.getDescription())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+        }
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new ConcurrentHashMap<>())
+                    .put(product.getId(), entry.getValue());
+        }
+        documents.put(product.getId(), new IndexedProduct(product.getId(), product.getName(),
+                product.getDescription(), product.getPrice(), weights.keySet().toArray(String[]::new)));
+    }
+
+    private void removeLocked(Long productId) {
+        IndexedProduct previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Map<Long, Float> matches = postings.get(term);
+            if (matches != null) {
+                matches.remove(productId);
+                if (matches.isEmpty()) {
+                    postings.remove(term); // Safe: all writers hold writeLock
+                }
+            }
+        }
+    }
+
+    // Lower-cased runs of letters and digits, e.g. "Wi-Fi Router 2000" -> [wi, fi, router, 2000]
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (Character.isLetterOrDigit(ch)) {
+                current.append(ch);
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString().toLowerCase(Locale.ROOT));
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString().toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+
+    // Stored copy of the searchable fields plus the terms we indexed (needed to remove them again)
+    private record IndexedProduct(Long id, String name, String description, Double price, String[] terms) {
+    }
+}
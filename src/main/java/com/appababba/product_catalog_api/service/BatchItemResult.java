@@ -0,0 +1,25 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.fasterxml.jackson.annotation.JsonInclude; // Leave out null fields in the JSON
+
+// Outcome of one item in a bulk request. 'index' is the item's position in the request body.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(int index, Long id, Status status, String error) {
+
+    public enum Status {
+        CREATED,   // Inserted, 'id' is the new id
+        UPDATED,   // Existing product overwritten
+        DELETED,   // Existing product removed
+        NOT_FOUND, // No product with that id
+        INVALID,   // Rejected before touching the database, see 'error'
+        FAILED     // Its chunk was rolled back by the database, see 'error'
+    }
+
+    public static BatchItemResult ok(int index, Long id, Status status) {
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    public static BatchItemResult error(int index, Long id, Status status, String error) {
+        return new BatchItemResult(index, id, status, error);
+    }
+}
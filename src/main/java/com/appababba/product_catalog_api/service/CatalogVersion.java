@@ -0,0 +1,34 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Write notifications from the service layer
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Aggregate version of the whole catalog, used as the ETag of product listings.
+// Every committed write (single, bulk or import) bumps the counter, so "If-None-Match" on a listing can be
+// answered with 304 before any query runs. The counter lives in memory: the ETag carries this instance's
+// start time, so after a restart old tags simply stop matching. Writes made through another instance are
+// not seen here, so several instances behind one load balancer should not share client caches.
+@Component
+public class CatalogVersion {
+
+    private final String instanceId = Long.toString(System.currentTimeMillis(), 36); // Distinguishes restarts
+    private final AtomicLong version = new AtomicLong();
+
+    // After commit, so a client can't get a new tag together with data from before the write
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    // Weak tag: identifies the catalog state, not the bytes of one particular listing
+    public String etag() {
+        return "W/\"" + instanceId + "-" + version.get() + "\"";
+    }
+}
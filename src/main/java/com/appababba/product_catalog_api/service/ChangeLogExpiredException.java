@@ -0,0 +1,10 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+// The changes right after a client's sequence number have already been pruned from the change log,
+// so the client can no longer sync incrementally and has to start over from a full catalog read.
+public class ChangeLogExpiredException extends RuntimeException {
+
+    public ChangeLogExpiredException(long since) {
+        super("Changes after sequence " + since + " are no longer retained; re-read the catalog and resume from the current sequence");
+    }
+}
@@ -0,0 +1,187 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Incremental CSV reader for product feeds: reads one record at a time from a Reader, never the whole file.
+// Follows RFC 4180: comma separated, fields may be quoted, "" is an escaped quote and quoted fields may span lines.
+// The first record is the header; 'name', 'description' and 'price' columns are used, anything else is ignored.
+// A record is at most MAX_RECORD_LENGTH characters: a longer one (typically an unterminated quote swallowing the
+// rest of the file) is rejected with its line number, and reading resumes on the line after the one it started on.
+public class CsvProductReader {
+
+    static final int MAX_RECORD_LENGTH = 64 * 1024; // Characters, quotes and separators included
+
+    private static final List<String> MALFORMED = Collections.unmodifiableList(new ArrayList<>()); // Compared by identity
+    private static final int NONE = -2; // No pushed back character (-1 is end of input)
+
+    private final Reader reader; // Should be buffered by the caller; wrapped if it can't mark
+    private final Map<String, Integer> columns = new HashMap<>(); // Header name -> column position
+    private long line = 1; // Current physical line in the input (1-based)
+    private long recordLine; // Line on which the last returned record started
+    private boolean endOfInput;
+    private int pushedBack = NONE; // Character read ahead after a closing quote
+    private String malformedReason; // Why the last record was MALFORMED
+
+    public CsvProductReader(Reader reader) throws IOException {
+        // Rewinding to the start of a record needs mark/reset over a whole record
+        this.reader = reader.markSupported() ? reader : new BufferedReader(reader, MAX_RECORD_LENGTH + 2);
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty, expected a header row");
+        }
+        if (header == MALFORMED) {
+            throw new IllegalArgumentException("CSV header on line 1: " + malformedReason);
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("CSV header must contain 'name' and 'price' columns");
+        }
+    }
+
+    // Next row as an ImportRow (parsed product or a parse error), or null at end of input
+    public ImportRow next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+            if (record == MALFORMED) {
+                return ImportRow.rejected(recordLine, malformedReason);
+            }
+        } while (record.size() == 1 && record.get(0).isEmpty()); // Skip blank lines
+
+        String name = field(record, "name");
+        String description = field(record, "description");
+        String price = field(record, "price");
+        Product product = new Product(null, name, description, null);
+        if (price != null && !price.isBlank()) {
+            try {
+                product.setPrice(Double.valueOf(price.trim()));
+            } catch (NumberFormatException e) {
+                return ImportRow.rejected(recordLine, "price is not a number: " + price);
+            }
+        }
+        return ImportRow.parsed(recordLine, product);
+    }
+
+    // Empty cells count as missing values
+    private String field(List<String> record, String column) {
+        Integer position = columns.get(column);
+        if (position == null || position >= record.size()) {
+            return null;
+        }
+        String value = record.get(position);
+        return value.isEmpty() ? null : value;
+    }
+
+    // Reads one CSV record (may span several lines when a field is quoted); null at end of input, MALFORMED (with
+    // malformedReason set) when the record is too long or its quote is never closed
+    private List<String> readRecord() throws IOException {
+        if (endOfInput) {
+            return null;
+        }
+        recordLine = line;
+        reader.mark(MAX_RECORD_LENGTH + 2); // Enough to come back from the character that crossed the limit
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false; // Inside a quoted field
+        boolean sawAnything = false;
+        int length = 0;
+        int c;
+        while ((c = read()) != -1) {
+            sawAnything = true;
+            if (++length > MAX_RECORD_LENGTH) {
+                return malformed("record is longer than " + MAX_RECORD_LENGTH + " characters"
+                        + (quoted ? " (unterminated quoted field?)" : ""));
+            }
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    int nextChar = read();
+                    if (nextChar == '"') {
+                        length++;
+                        field.append('"'); // Escaped quote
+                    } else {
+                        quoted = false; // Closing quote
+                        pushedBack = nextChar == -1 ? NONE : nextChar;
+                    }
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                line++;
+                fields.add(stripCarriageReturn(field));
+                return fields;
+            } else {
+                field.append(ch);
+            }
+        }
+        if (quoted) {
+            return malformed("quoted field is not closed before the end of the input");
+        }
+        endOfInput = true;
+        if (!sawAnything) {
+            return null;
+        }
+        fields.add(stripCarriageReturn(field));
+        return fields;
+    }
+
+    // Rejects the current record: back to where it started, then past the end of that line, so reading resumes
+    // on the next line whatever the record swallowed after it
+    private List<String> malformed(String reason) throws IOException {
+        malformedReason = reason;
+        reader.reset();
+        pushedBack = NONE;
+        line = recordLine;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            // Skip the rest of the line
+        }
+        if (c == -1) {
+            endOfInput = true;
+        } else {
+            line++;
+        }
+        return MALFORMED;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        return reader.read();
+    }
+
+    // Handles Windows line endings (\r\n)
+    private static String stripCarriageReturn(StringBuilder field) {
+        int length = field.length();
+        if (length > 0 && field.charAt(length - 1) == '\r') {
+            field.setLength(length - 1);
+        }
+        return field.toString();
+    }
+}
@@ -0,0 +1,118 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one catalog import. Updated by the pipeline threads, read by the job-status endpoint.
+public class ImportJob {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    // One rejected row in the report
+    public record Rejection(long line, String reason) {
+    }
+
+    private final String id;
+    private final Instant startedAt = Instant.now();
+    private final int maxReportedRejections; // Cap so a bad multi-GB file can't fill the heap with errors
+    private final AtomicLong rowsRead = new AtomicLong();     // Parsed from the upload (valid or not)
+    private final AtomicLong rowsImported = new AtomicLong(); // Committed to the database
+    private final AtomicLong rowsRejected = new AtomicLong(); // Parse, validation or database failures
+    private final List<Rejection> rejections = new ArrayList<>(); // Guarded by 'this'
+    private volatile State state = State.RUNNING;
+    private volatile boolean uploadComplete; // Parse stage has read the whole request body
+    private volatile Instant finishedAt;
+    private volatile String error; // Why the job failed, if it did
+
+    public ImportJob(String id, int maxReportedRejections) {
+        this.id = id;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void rowsImported(long count) {
+        rowsImported.addAndGet(count);
+    }
+
+    void reject(long line, String reason) {
+        rowsRejected.incrementAndGet();
+        synchronized (this) {
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new Rejection(line, reason));
+            }
+        }
+    }
+
+    void uploadComplete() {
+        uploadComplete = true;
+    }
+
+    void complete() {
+        finish(State.COMPLETED, null);
+    }
+
+    void fail(String reason) {
+        finish(State.FAILED, reason);
+    }
+
+    // First call wins: a job that already failed stays failed
+    private synchronized void finish(State finalState, String reason) {
+        if (state == State.RUNNING) {
+            state = finalState;
+            error = reason;
+            finishedAt = Instant.now();
+        }
+    }
+
+    @JsonIgnore // Already visible as 'state'
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isUploadComplete() {
+        return uploadComplete;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsImported() {
+        return rowsImported.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public synchronized List<Rejection> getRejections() {
+        return List.copyOf(rejections); // Snapshot; only the first maxReportedRejections are kept
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,19 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+
+// One row travelling through the import pipeline: either a parsed product or the reason it could not be parsed.
+// 'line' is the line number in the uploaded file, used for the rejected-row report.
+public record ImportRow(long line, Product product, String error) {
+
+    // Marks the end of the stream between pipeline stages (poison pill)
+    static final ImportRow END = new ImportRow(-1, null, null);
+
+    public static ImportRow parsed(long line, Product product) {
+        return new ImportRow(line, product, null);
+    }
+
+    public static ImportRow rejected(long line, String error) {
+        return new ImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,246 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.config.CacheConfig; // Cache names
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Tells listeners about writes
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.repository.ProductRepository; // Product JPA repository
+import com.appababba.product_catalog_api.service.BatchItemResult.Status;
+import com.appababba.product_catalog_api.sharding.ShardedProductStore; // Products spread over shard databases (sharding mode)
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate; // One transaction per chunk
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Bulk create/update/delete for large feeds.
+// Items are pulled from an Iterator (a List or a streaming NDJSON parser) and written in chunks:
+// each chunk is one transaction, and inside it Hibernate sends JDBC batches (hibernate.jdbc.batch_size).
+// A failing chunk is rolled back on its own and reported as FAILED; earlier chunks stay committed.
+// In sharding mode the chunk's products are written through the ShardedProductStore instead (one JDBC batch per
+// shard involved), still inside the chunk transaction that records the change events.
+@Service
+public class ProductBatchService {
+
+    private final ProductRepository productRepository; // Product JPA repository
+    private final TransactionTemplate transactionTemplate; // Runs each chunk in its own transaction
+    private final Cache productCache; // Transaction-aware, so evictions happen after each chunk commits
+    private final ApplicationEventPublisher eventPublisher; // Same ProductChangedEvent as single-item writes
+    private final ShardedProductStore shards; // Replaces the repository when sharding is on
+    private final int chunkSize; // Items per transaction
+
+    @Autowired
+    public ProductBatchService(ProductRepository productRepository,
+                               PlatformTransactionManager transactionManager,
+                               CacheManager cacheManager,
+                               ApplicationEventPublisher eventPublisher,
+                               ShardedProductStore shards,
+                               @Value("${app.batch.chunk-size:1000}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.shards = shards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    // Insert every valid product; invalid ones are reported and skipped
+    public List<BatchItemResult> createProducts(Iterator<Product> products) {
+        List<BatchItemResult> results = new ArrayList<>();
+        forEachChunk(products, (chunk, firstIndex) -> results.addAll(createChunk(chunk, firstIndex)));
+        return results;
+    }
+
+    // Overwrite name/description/price of existing products (matched by 'id')
+    public List<BatchItemResult> updateProducts(Iterator<Product> products) {
+        List<BatchItemResult> results = new ArrayList<>();
+        forEachChunk(products, (chunk, firstIndex) -> results.addAll(updateChunk(chunk, firstIndex)));
+        return results;
+    }
+
+    // Delete products by id, one DELETE ... WHERE id IN (...) per chunk
+    public List<BatchItemResult> deleteProducts(Iterator<Long> ids) {
+        List<BatchItemResult> results = new ArrayList<>();
+        forEachChunk(ids, (chunk, firstIndex) -> results.addAll(deleteChunk(chunk, firstIndex)));
+        return results;
+    }
+
+    private List<BatchItemResult> createChunk(List<Product> chunk, int firstIndex) {
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        List<Product> valid = new ArrayList<>(chunk.size());
+        List<Integer> validPositions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Product product = chunk.get(i);
+            String error = ProductValidator.validate(product);
+            if (error != null) {
+                results[i] = BatchItemResult.error(firstIndex + i, null, Status.INVALID, error);
+            } else {
+                product.setId(null); // Creates always get a fresh id from the sequence
+                valid.add(product);
+                validPositions.add(i);
+            }
+        }
+        try {
+            // saveAll -> persist for each new entity; the commit flushes them as batched INSERTs
+            List<Product> saved = transactionTemplate.execute(status -> {
+                List<Product> inserted = shards.isEnabled() ? shards.insertAll(valid, Instant.now()) : productRepository.saveAll(valid);
+                inserted.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.created(product)));
+                return inserted;
+            });
+            for (int i = 0; i < saved.size(); i++) {
+                int position = validPositions.get(i);
+                results[position] = BatchItemResult.ok(firstIndex + position, saved.get(i).getId(), Status.CREATED);
+            }
+        } catch (RuntimeException e) {
+            for (int position : validPositions) {
+                results[position] = BatchItemResult.error(firstIndex + position, null, Status.FAILED, rootMessage(e));
+            }
+        }
+        return List.of(results);
+    }
+
+    private List<BatchItemResult> updateChunk(List<Product> chunk, int firstIndex) {
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        List<Integer> validPositions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Product product = chunk.get(i);
+            String error = product != null && product.getId() == null ? "id is required" : ProductValidator.validate(product);
+            if (error != null) {
+                results[i] = BatchItemResult.error(firstIndex + i, product == null ? null : product.getId(), Status.INVALID, error);
+            } else {
+                validPositions.add(i);
+            }
+        }
+        try {
+            if (shards.isEnabled()) {
+                transactionTemplate.executeWithoutResult(status -> updateChunkSharded(chunk, firstIndex, validPositions, results));
+                return List.of(results);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                // One SELECT ... WHERE id IN (...) for the whole chunk, then dirty checking turns
+                // the field changes into batched UPDATEs at commit (hibernate.order_updates groups them)
+                Set<Long> ids = new HashSet<>();
+                validPositions.forEach(position -> ids.add(chunk.get(position).getId()));
+                Map<Long, Product> existing = productRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+                List<Product> updated = new ArrayList<>(validPositions.size());
+                for (int position : validPositions) {
+                    Product details = chunk.get(position);
+                    Product product = existing.get(details.getId());
+                    if (product == null) {
+                        results[position] = BatchItemResult.error(firstIndex + position, details.getId(), Status.NOT_FOUND, null);
+                        continue;
+                    }
+                    product.setName(details.getName());
+                    product.setDescription(details.getDescription());
+                    product.setPrice(details.getPrice());
+                    productCache.evict(product.getId()); // Applied after commit
+                    updated.add(product);
+                    results[position] = BatchItemResult.ok(firstIndex + position, product.getId(), Status.UPDATED);
+                }
+                // Flush before publishing: version and lastModified are only bumped when the UPDATEs are flushed,
+                // and the change log records the product as the events carry it
+                productRepository.flush();
+                updated.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.updated(product)));
+            });
+        } catch (RuntimeException e) {
+            for (int position : validPositions) {
+                results[position] = BatchItemResult.error(firstIndex + position, chunk.get(position).getId(), Status.FAILED, rootMessage(e));
+            }
+        }
+        return List.of(results);
+    }
+
+    // Batched UPDATEs on each shard involved; the rows they return tell which ids exist
+    private void updateChunkSharded(List<Product> chunk, int firstIndex, List<Integer> validPositions, BatchItemResult[] results) {
+        List<Product> valid = new ArrayList<>(validPositions.size());
+        validPositions.forEach(position -> valid.add(chunk.get(position)));
+        Map<Long, Product> updated = shards.updateAll(valid, Instant.now());
+        for (int position : validPositions) {
+            Long id = chunk.get(position).getId();
+            Product product = updated.get(id);
+            if (product == null) {
+                results[position] = BatchItemResult.error(firstIndex + position, id, Status.NOT_FOUND, null);
+                continue;
+            }
+            productCache.evict(id); // Applied after commit
+            eventPublisher.publishEvent(ProductChangedEvent.updated(product));
+            results[position] = BatchItemResult.ok(firstIndex + position, id, Status.UPDATED);
+        }
+    }
+
+    private List<BatchItemResult> deleteChunk(List<Long> chunk, int firstIndex) {
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> existing;
+                if (shards.isEnabled()) {
+                    existing = shards.deleteAll(new HashSet<>(chunk)); // One DELETE ... WHERE id IN (...) per shard
+                } else {
+                    existing = new HashSet<>(productRepository.findExistingIds(new HashSet<>(chunk)));
+                    if (!existing.isEmpty()) {
+                        productRepository.deleteAllByIdInBatch(existing); // Single DELETE ... WHERE id IN (...)
+                    }
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    Long id = chunk.get(i);
+                    if (existing.contains(id)) {
+                        productCache.evict(id); // Applied after commit
+                        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+                        results[i] = BatchItemResult.ok(firstIndex + i, id, Status.DELETED);
+                    } else {
+                        results[i] = BatchItemResult.error(firstIndex + i, id, Status.NOT_FOUND, null);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                results[i] = BatchItemResult.error(firstIndex + i, chunk.get(i), Status.FAILED, rootMessage(e));
+            }
+        }
+        return List.of(results);
+    }
+
+    // Pulls 'chunkSize' items at a time so a streaming source is never fully buffered
+    private <T> void forEachChunk(Iterator<T> items, ChunkHandler<T> handler) {
+        int index = 0;
+        List<T> chunk = new ArrayList<>(chunkSize);
+        while (items.hasNext()) {
+            chunk.add(items.next());
+            if (chunk.size() == chunkSize) {
+                handler.handle(chunk, index);
+                index += chunk.size();
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            handler.handle(chunk, index); // Leftover partial chunk
+        }
+    }
+
+    // Most useful part of a nested persistence exception (e.g. the SQL constraint message)
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    @FunctionalInterface
+    private interface ChunkHandler<T> {
+        void handle(List<T> chunk, int firstIndex);
+    }
+}
@@ -0,0 +1,14 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.model.ProductChange; // Change log entry
+
+import java.util.List;
+
+// Changes after a client's sequence number, oldest first. 'lastSequence' is what the client sends as
+// 'since' next time (unchanged when there was nothing new); 'hasMore' means the next call returns at once.
+public record ProductChangeBatch(List<ProductChange> changes, long lastSequence, boolean hasMore) {
+
+    public static ProductChangeBatch empty(long since) {
+        return new ProductChangeBatch(List.of(), since, false);
+    }
+}
@@ -0,0 +1,372 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Wake-up signal for new commits
+import com.appababba.product_catalog_api.model.ProductChange; // Change log entry
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes change log entries to long-poll requests and Server-Sent Events subscribers.
+// - One dispatcher thread reads new entries once per batch and hands them to every waiter and live subscriber,
+//   so N consumers at the head of the log cost one query, not N. It wakes on local commits and also polls
+//   every app.changes.poll-interval, which picks up writes made through other instances and replica lag.
+// - Each SSE subscriber has a bounded buffer and its own sender thread. A subscriber that falls behind (buffer full,
+//   slow client) is dropped from the dispatcher and catches up from the database at its own pace, so one slow
+//   consumer never holds up the others or grows memory; the log itself is the unbounded buffer.
+@Service
+public class ProductChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeFeed.class);
+    private static final Duration PRUNE_INTERVAL = Duration.ofHours(1);
+    static final long KEEP_ALIVE_MILLIS = 15_000; // SSE comment line so proxies don't close idle streams
+
+    private final ProductChangeLog changeLog; // Outbox reads
+    private final int batchSize;              // Entries per query and per delivered batch
+    private final int subscriberBuffer;       // Entries buffered per SSE subscriber before it has to catch up on its own
+    private final int maxSubscribers;
+    private final int maxWaiters;
+    private final Duration pollInterval;
+    private final Duration sseTimeout;
+    private final Duration retention;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger waiterCount = new AtomicInteger(); // Reserved before adding, so the cap holds under races
+    private final Semaphore wakeUp = new Semaphore(0); // Released on commit; the dispatcher drains it
+    private final ExecutorService senderExecutor; // One sender per SSE subscriber
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+    private long deliveredUpTo = -1; // Dispatcher thread only; -1 = work out where to start on the next dispatch
+    private Instant nextPrune = Instant.now();
+
+    @Autowired
+    public ProductChangeFeed(ProductChangeLog changeLog,
+                             @Value("${app.changes.batch-size:500}") int batchSize,
+                             @Value("${app.changes.subscriber-buffer:2000}") int subscriberBuffer,
+                             @Value("${app.changes.max-subscribers:100}") int maxSubscribers,
+                             @Value("${app.changes.max-waiters:1000}") int maxWaiters,
+                             @Value("${app.changes.poll-interval:1s}") Duration pollInterval,
+                             @Value("${app.changes.sse-timeout:30m}") Duration sseTimeout,
+                             @Value("${app.changes.retention:7d}") Duration retention,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.changeLog = changeLog;
+        this.batchSize = batchSize;
+        this.subscriberBuffer = Math.max(subscriberBuffer, batchSize); // A whole dispatched batch must fit
+        this.maxSubscribers = maxSubscribers;
+        this.maxWaiters = maxWaiters;
+        this.pollInterval = pollInterval;
+        this.sseTimeout = sseTimeout;
+        this.retention = retention;
+        // Senders mostly block on their queue and the socket, so they follow the app's virtual-thread mode
+        this.senderExecutor = Executors.newThreadPerTaskExecutor(virtualThreads
+                ? Thread.ofVirtual().name("product-changes-sse-", 0).factory()
+                : Thread.ofPlatform().name("product-changes-sse-", 0).daemon().factory());
+        this.dispatcher = Thread.ofPlatform().name("product-changes-dispatcher").daemon().unstarted(this::dispatchLoop);
+        this.dispatcher.start();
+    }
+
+    // A commit added entries: let the dispatcher look now instead of at the next poll
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (wakeUp.availablePermits() == 0) {
+            wakeUp.release(); // Coalesced: a burst of commits is one wake-up
+        }
+    }
+
+    // Long-poll: completes with the changes after 'since' as soon as there are any, or empty after 'wait'.
+    // A null 'since' means "from now on". Empty when too many requests are already waiting.
+    // The future fails with ChangeLogExpiredException when 'since' is older than the retained log.
+    public Optional<CompletableFuture<ProductChangeBatch>> poll(Long since, int limit, Duration wait) {
+        long from = since != null ? since : changeLog.lastSequence();
+        if (waiterCount.incrementAndGet() > maxWaiters) {
+            waiterCount.decrementAndGet();
+            return Optional.empty();
+        }
+        Waiter waiter = new Waiter(from, limit);
+        waiter.future.whenComplete((batch, failure) -> {
+            waiters.remove(waiter);
+            waiterCount.decrementAndGet();
+        });
+        // Register before looking, so a commit between the look and the registration can't be missed
+        waiters.add(waiter);
+        try {
+            ProductChangeBatch batch = changeLog.changesSince(from, limit);
+            if (!batch.changes().isEmpty()) {
+                waiter.future.complete(batch);
+            }
+        } catch (RuntimeException e) {
+            waiter.future.completeExceptionally(e);
+        }
+        waiter.future.completeOnTimeout(ProductChangeBatch.empty(from), wait.toMillis(), TimeUnit.MILLISECONDS);
+        return Optional.of(waiter.future);
+    }
+
+    // SSE stream of "changes" events (a JSON array per event, the event id is the last sequence number in it).
+    // A null 'since' means "from now on". Empty when the subscriber limit is reached.
+    // If 'since' is older than the retained log, the stream sends one "expired" event and ends.
+    public Optional<SseEmitter> subscribe(Long since) {
+        if (subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        long from = since != null ? since : changeLog.lastSequence();
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, from);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(failure -> subscriber.close());
+        subscribers.add(subscriber);
+        try {
+            senderExecutor.execute(subscriber);
+        } catch (RuntimeException e) {
+            subscribers.remove(subscriber); // Executor already shut down
+            throw e;
+        }
+        return Optional.of(emitter);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                wakeUp.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+                dispatch();
+                pruneIfDue();
+            } catch (InterruptedException e) {
+                return; // Shutting down
+            } catch (RuntimeException e) {
+                log.warn("Product change dispatch failed, retrying: {}", e.getMessage());
+                deliveredUpTo = -1; // Start over from the consumers' own positions
+            }
+        }
+    }
+
+    // Reads everything after deliveredUpTo, a batch at a time, and hands it to whoever is listening
+    private void dispatch() {
+        if (waiters.isEmpty() && subscribers.stream().noneMatch(Subscriber::isLive)) {
+            deliveredUpTo = -1; // Nobody at the head; don't keep reading the log for nobody
+            return;
+        }
+        if (deliveredUpTo < 0) {
+            // Restart from the oldest position anyone is waiting at (not the head: a change may have committed
+            // after they last looked); entries someone has already seen are filtered out per consumer
+            long from = Long.MAX_VALUE;
+            for (Waiter waiter : waiters) {
+                from = Math.min(from, waiter.since);
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.isLive()) {
+                    from = Math.min(from, subscriber.cursor);
+                }
+            }
+            deliveredUpTo = from;
+        }
+        while (true) {
+            ProductChangeBatch batch = changeLog.changesSince(deliveredUpTo, batchSize);
+            if (batch.changes().isEmpty()) {
+                return;
+            }
+            for (Waiter waiter : waiters) {
+                waiter.offer(batch.changes());
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(batch.changes());
+            }
+            deliveredUpTo = batch.lastSequence();
+            if (!batch.hasMore()) {
+                return;
+            }
+        }
+    }
+
+    private void pruneIfDue() {
+        Instant now = Instant.now();
+        if (now.isBefore(nextPrune)) {
+            return;
+        }
+        nextPrune = now.plus(PRUNE_INTERVAL);
+        int pruned = changeLog.pruneOlderThan(now.minus(retention));
+        if (pruned > 0) {
+            log.info("Pruned {} product change log entries older than {}", pruned, retention);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senderExecutor.shutdownNow();
+    }
+
+    // A pending long-poll request
+    private static final class Waiter {
+
+        final long since;
+        final int limit;
+        final CompletableFuture<ProductChangeBatch> future = new CompletableFuture<>();
+
+        Waiter(long since, int limit) {
+            this.since = since;
+            this.limit = limit;
+        }
+
+        // Dispatcher thread: complete with the part of the batch this waiter hasn't seen yet
+        void offer(List<ProductChange> changes) {
+            List<ProductChange> unseen = new ArrayList<>();
+            for (ProductChange change : changes) {
+                if (change.getSequence() > since && unseen.size() < limit) {
+                    unseen.add(change);
+                }
+            }
+            if (!unseen.isEmpty()) {
+                boolean more = changes.get(changes.size() - 1).getSequence() > unseen.get(unseen.size() - 1).getSequence();
+                future.complete(new ProductChangeBatch(unseen, unseen.get(unseen.size() - 1).getSequence(), more));
+            }
+        }
+    }
+
+    // One SSE stream: fed by the dispatcher while live, reads the log itself while catching up
+    private final class Subscriber implements Runnable {
+
+        final SseEmitter emitter;
+        final BlockingQueue<ProductChange> buffer = new ArrayBlockingQueue<>(subscriberBuffer);
+        volatile long cursor;          // Last sequence number sent; written by the sender thread only
+        volatile boolean live;         // Dispatcher feeds the buffer; starts false, every stream first catches up
+        volatile boolean closed;
+        long lastSentMillis = System.currentTimeMillis(); // Sender thread only, for keep-alives
+
+        Subscriber(SseEmitter emitter, long since) {
+            this.emitter = emitter;
+            this.cursor = since;
+        }
+
+        boolean isLive() {
+            return live && !closed;
+        }
+
+        // Dispatcher thread: all of the batch or nothing; a full buffer sends the subscriber back to catching up
+        void offer(List<ProductChange> changes) {
+            if (!isLive()) {
+                return;
+            }
+            if (buffer.remainingCapacity() < changes.size()) { // Only the sender drains, so capacity can only grow
+                live = false; // The sender notices within one poll interval
+                buffer.clear();
+                return;
+            }
+            buffer.addAll(changes);
+        }
+
+        @Override
+        public void run() {
+            RuntimeException failure = null;
+            try {
+                // Commits the response headers right away, so clients see the stream open before the first change
+                emitter.send(SseEmitter.event().comment("changes after " + cursor));
+                while (!closed && running) {
+                    if (!live) {
+                        catchUp();
+                        continue;
+                    }
+                    // Short waits so a switch to catching up (or a closed stream) is noticed quickly
+                    ProductChange first = buffer.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (live && System.currentTimeMillis() - lastSentMillis >= KEEP_ALIVE_MILLIS) {
+                            emitter.send(SseEmitter.event().comment("keep-alive"));
+                            lastSentMillis = System.currentTimeMillis();
+                        }
+                        continue;
+                    }
+                    List<ProductChange> batch = new ArrayList<>(batchSize);
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                    send(batch);
+                }
+            } catch (ChangeLogExpiredException e) {
+                sendExpired(e);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away (or the emitter already completed)
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Product change stream failed: {}", e.getMessage());
+                failure = e; // Client reconnects with Last-Event-ID
+            } finally {
+                close();
+                if (failure != null) {
+                    emitter.completeWithError(failure);
+                } else {
+                    emitter.complete();
+                }
+            }
+        }
+
+        // Read the log directly until this stream is at the head, then switch to dispatcher delivery
+        private void catchUp() throws IOException {
+            ProductChangeBatch batch = changeLog.changesSince(cursor, batchSize);
+            send(batch.changes());
+            if (batch.hasMore()) {
+                return;
+            }
+            buffer.clear();
+            live = true;
+            // Entries the dispatcher handed out just before we were live: read once more; duplicates are skipped in send()
+            batch = changeLog.changesSince(cursor, batchSize);
+            send(batch.changes());
+            if (batch.hasMore()) {
+                live = false;
+            }
+        }
+
+        private void send(List<ProductChange> changes) throws IOException {
+            List<ProductChange> unsent = changes.stream().filter(change -> change.getSequence() > cursor).toList();
+            if (unsent.isEmpty()) {
+                return;
+            }
+            long last = unsent.get(unsent.size() - 1).getSequence();
+            emitter.send(SseEmitter.event().name("changes").id(Long.toString(last)).data(unsent, MediaType.APPLICATION_JSON));
+            cursor = last;
+            lastSentMillis = System.currentTimeMillis();
+        }
+
+        private void sendExpired(ChangeLogExpiredException e) {
+            try {
+                emitter.send(SseEmitter.event().name("expired").data(e.getMessage()));
+            } catch (IOException | IllegalStateException ignored) {
+                // Client already gone
+            }
+        }
+
+        void close() {
+            closed = true; // The sender notices within one poll interval
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Write notifications from the service layer
+import com.appababba.product_catalog_api.model.ProductChange; // Change log entry
+import com.appababba.product_catalog_api.model.ProductChangeHead; // Sequence counter row
+import com.appababba.product_catalog_api.repository.ProductChangeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.List;
+
+// Transactional outbox for product writes: every ProductChangedEvent becomes a product_changes row in the
+// same transaction as the write, so the log never shows a change that rolled back and never misses one that committed.
+// Sequence numbers come from a single counter row locked just before commit. Writers therefore commit in sequence
+// order, and a reader that has seen N can never later find a smaller number appear (no "holes" filled in late).
+// The lock is only held between the log insert and the commit, not for the whole write transaction.
+@Service
+public class ProductChangeLog {
+
+    private final ProductChangeRepository productChangeRepository; // Reads and retention
+    private final EntityManager entityManager; // Locks the counter row and inserts entries with assigned ids
+
+    @Autowired
+    public ProductChangeLog(ProductChangeRepository productChangeRepository, EntityManager entityManager) {
+        this.productChangeRepository = productChangeRepository;
+        this.entityManager = entityManager;
+    }
+
+    // Create the counter row up front, so two instances don't race to insert it on their first write
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (entityManager.find(ProductChangeHead.class, ProductChangeHead.ID) == null) {
+            entityManager.persist(new ProductChangeHead(ProductChangeHead.ID));
+        }
+    }
+
+    // Runs inside the writing transaction, after the write itself and right before commit.
+    // Events of one transaction arrive in publish order; the counter row is locked once (Hibernate doesn't
+    // re-lock an entity it already holds) and all entries are flushed, batched, with the commit.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void record(ProductChangedEvent event) {
+        ProductChangeHead head = entityManager.find(ProductChangeHead.class, ProductChangeHead.ID, LockModeType.PESSIMISTIC_WRITE);
+        if (head == null) { // Write before startup finished
+            head = new ProductChangeHead(ProductChangeHead.ID);
+            entityManager.persist(head);
+        }
+        entityManager.persist(new ProductChange(head.next(), event, Instant.now()));
+    }
+
+    // Up to 'limit' changes after 'since'. Throws ChangeLogExpiredException when some of them were already pruned.
+    @Transactional(readOnly = true)
+    public ProductChangeBatch changesSince(long since, int limit) {
+        List<ProductChange> changes = productChangeRepository.findBySequenceGreaterThanOrderBySequenceAsc(since, Limit.of(limit + 1));
+        // Sequence numbers have no gaps, so anything but since + 1 first means entries in between are gone
+        boolean gap = changes.isEmpty() ? since < productChangeRepository.findLastSequence()
+                                        : changes.get(0).getSequence() != since + 1;
+        if (gap) {
+            throw new ChangeLogExpiredException(since);
+        }
+        boolean hasMore = changes.size() > limit;
+        List<ProductChange> batch = hasMore ? List.copyOf(changes.subList(0, limit)) : changes;
+        return batch.isEmpty() ? ProductChangeBatch.empty(since)
+                               : new ProductChangeBatch(batch, batch.get(batch.size() - 1).getSequence(), hasMore);
+    }
+
+    // Last sequence number handed out (where a new consumer starts to get only future changes)
+    @Transactional(readOnly = true)
+    public long lastSequence() {
+        return productChangeRepository.findLastSequence();
+    }
+
+    // Drops entries older than the cutoff; consumers further behind get ChangeLogExpiredException
+    @Transactional
+    public int pruneOlderThan(Instant cutoff) {
+        return productChangeRepository.deleteOlderThan(cutoff);
+    }
+}
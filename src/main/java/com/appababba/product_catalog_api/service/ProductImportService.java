@@ -0,0 +1,279 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.service.BatchItemResult.Status;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper; // Parses NDJSON lines
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Streaming catalog import: parse -> validate -> persist, each stage on its own thread, connected by bounded queues.
+// The parse stage runs on the request thread and reads the upload incrementally; when the database falls behind,
+// the queues fill up and the parser blocks, which in turn stops reading from the socket (backpressure).
+// Memory use is bounded by the queue capacities, not by the size of the upload.
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    static final int MAX_REPORTED_REJECTIONS = 1000; // Rejected rows kept per job for the report
+    private static final long POLL_MILLIS = 100; // How often a blocked stage checks whether the job was aborted
+
+    private final ProductBatchService productBatchService; // Writes validated rows in transactional chunks
+    private final ObjectMapper objectMapper; // NDJSON line parser
+    private final ExecutorService stageExecutor; // Validate and persist stage threads
+    private final Semaphore jobSlots; // Limits concurrent imports (each one holds DB connections for a while)
+    private final Cache<String, ImportJob> jobs; // Recent jobs for the status endpoint
+    private final int queueCapacity; // Rows buffered between two stages
+    private final int chunkSize; // Rows per persist transaction
+
+    @Autowired
+    public ProductImportService(ProductBatchService productBatchService,
+                                ObjectMapper objectMapper,
+                                @Value("${app.import.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                @Value("${app.import.queue-capacity:2000}") int queueCapacity,
+                                @Value("${app.batch.chunk-size:1000}") int chunkSize,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.productBatchService = productBatchService;
+        this.objectMapper = objectMapper;
+        // Stage threads mostly block on queues and JDBC, so they follow the app's virtual-thread mode
+        this.stageExecutor = Executors.newThreadPerTaskExecutor(virtualThreads
+                ? Thread.ofVirtual().name("product-import-", 0).factory()
+                : Thread.ofPlatform().name("product-import-", 0).daemon().factory());
+        this.jobSlots = new Semaphore(maxConcurrentJobs);
+        this.jobs = Caffeine.newBuilder().maximumSize(1000).expireAfterWrite(Duration.ofDays(1)).build();
+        this.queueCapacity = queueCapacity;
+        this.chunkSize = chunkSize;
+    }
+
+    // Look up an import job by id (finished jobs are kept for a day)
+    public Optional<ImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId));
+    }
+
+    // Runs an import. Blocks the calling thread while it parses the upload; validation and persistence
+    // happen in parallel on background threads and may still be finishing when this returns.
+    // Returns empty when too many imports are already running.
+    public Optional<ImportJob> importProducts(InputStream upload, Format format) {
+        if (!jobSlots.tryAcquire()) {
+            return Optional.empty();
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), MAX_REPORTED_REJECTIONS);
+        jobs.put(job.getId(), job);
+        BlockingQueue<ImportRow> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ImportRow> valid = new ArrayBlockingQueue<>(queueCapacity);
+        try {
+            CompletableFuture<Void> validateStage = runStage(job, () -> validate(job, parsed, valid));
+            CompletableFuture<Void> persistStage = runStage(job, () -> persist(job, valid));
+            CompletableFuture.allOf(validateStage, persistStage).whenComplete((ignored, failure) -> {
+                job.complete(); // No-op if a stage already failed the job
+                jobSlots.release();
+            });
+        } catch (RuntimeException e) {
+            jobSlots.release(); // Executor rejected the stages
+            throw e;
+        }
+
+        try {
+            parse(job, upload, format, parsed);
+            job.uploadComplete();
+            put(parsed, ImportRow.END, job);
+        } catch (IOException | RuntimeException e) {
+            job.fail("upload could not be read: " + rootMessage(e)); // Stages notice and stop
+        }
+        return Optional.of(job);
+    }
+
+    // Stage 1 (request thread): turn the byte stream into rows, one at a time
+    private void parse(ImportJob job, InputStream upload, Format format, BlockingQueue<ImportRow> out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(upload, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            CsvProductReader csv = new CsvProductReader(reader);
+            ImportRow row;
+            while ((row = csv.next()) != null) {
+                job.rowRead();
+                put(out, row, job);
+            }
+        } else {
+            long lineNumber = 0;
+            StringBuilder line = new StringBuilder();
+            int length;
+            while ((length = readLine(reader, line)) != -1) {
+                lineNumber++;
+                if (length > CsvProductReader.MAX_RECORD_LENGTH) {
+                    job.rowRead();
+                    put(out, ImportRow.rejected(lineNumber, "line is longer than " + CsvProductReader.MAX_RECORD_LENGTH + " characters"), job);
+                    continue;
+                }
+                String text = line.toString();
+                if (text.isBlank()) {
+                    continue;
+                }
+                job.rowRead();
+                put(out, parseJsonLine(lineNumber, text), job);
+            }
+        }
+    }
+
+    // Reads the next line into 'line' (without its \n or \r\n), keeping at most the same number of characters as
+    // a CSV record: the rest of a longer line is skipped, so one huge line can't take the heap with it.
+    // Returns the line's full length (anything above the limit means it was cut), or -1 at end of input.
+    private static int readLine(BufferedReader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int length = 0;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (++length <= CsvProductReader.MAX_RECORD_LENGTH) {
+                line.append((char) c);
+            } else {
+                length = CsvProductReader.MAX_RECORD_LENGTH + 1; // Stays put while the rest is skipped
+            }
+        }
+        if (c == -1 && length == 0) {
+            return -1;
+        }
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            line.setLength(end - 1);
+        }
+        return length;
+    }
+
+    private ImportRow parseJsonLine(long lineNumber, String line) {
+        try {
+            return ImportRow.parsed(lineNumber, objectMapper.readValue(line, Product.class));
+        } catch (JsonProcessingException e) {
+            return ImportRow.rejected(lineNumber, "invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // Stage 2: check the Product constraints, report bad rows, pass good ones on
+    private void validate(ImportJob job, BlockingQueue<ImportRow> in, BlockingQueue<ImportRow> out) {
+        while (true) {
+            ImportRow row = take(in, job);
+            if (row == ImportRow.END) {
+                put(out, ImportRow.END, job);
+                return;
+            }
+            String error = row.error() != null ? row.error() : ProductValidator.validate(row.product());
+            if (error != null) {
+                job.reject(row.line(), error);
+            } else {
+                put(out, row, job);
+            }
+        }
+    }
+
+    // Stage 3: write valid rows in chunks, each chunk one transaction with JDBC batching
+    private void persist(ImportJob job, BlockingQueue<ImportRow> in) {
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            ImportRow row = take(in, job);
+            if (row == ImportRow.END) {
+                flush(job, chunk);
+                return;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                flush(job, chunk);
+                chunk.clear();
+            }
+        }
+    }
+
+    private void flush(ImportJob job, List<ImportRow> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<BatchItemResult> results = productBatchService.createProducts(chunk.stream().map(ImportRow::product).iterator());
+        long imported = 0;
+        for (int i = 0; i < results.size(); i++) {
+            BatchItemResult result = results.get(i);
+            if (result.status() == Status.CREATED) {
+                imported++;
+            } else {
+                job.reject(chunk.get(i).line(), result.error() != null ? result.error() : result.status().name());
+            }
+        }
+        job.rowsImported(imported);
+    }
+
+    // A stage that dies fails the job right away, so the other stages stop waiting on their queues
+    private CompletableFuture<Void> runStage(ImportJob job, Runnable stage) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                stage.run();
+            } catch (RuntimeException e) {
+                job.fail("import aborted: " + rootMessage(e));
+                throw e;
+            }
+        }, stageExecutor);
+    }
+
+    // Blocking put that gives up once the job has been aborted by another stage
+    private static void put(BlockingQueue<ImportRow> queue, ImportRow row, ImportJob job) {
+        try {
+            while (!queue.offer(row, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!job.isRunning()) {
+                    throw new CancellationException("import " + job.getId() + " was aborted");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted");
+        }
+    }
+
+    // Blocking take that gives up once the job has been aborted by another stage
+    private static ImportRow take(BlockingQueue<ImportRow> queue, ImportJob job) {
+        try {
+            ImportRow row;
+            while ((row = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                if (!job.isRunning()) {
+                    throw new CancellationException("import " + job.getId() + " was aborted");
+                }
+            }
+            return row;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted");
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    // Stop stage threads on shutdown; running jobs end up FAILED
+    @PreDestroy
+    public void shutdown() {
+        stageExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,158 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Keeps the cached bytes in step with writes
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot; // In snapshot mode cached bytes are checked against it
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+// Already-encoded JSON of single products (app.cache.product-json.enabled), so the hottest responses skip Jackson:
+// - GET /api/v1/products/{id}: a hit is answered with the stored bytes and validators, no Product is built.
+// - Lists: each row's cached bytes are reused when they are of the row's version, and joined into the array.
+// Entries are replaced after every committed local write (ProductChangedEvent), and a concurrent reader can't put
+// an older version back: an entry only gives way to a newer version. Deleted ids keep a tombstone (ids are never
+// reused). Writes made through other instances show up when the entry expires, like in the products cache.
+// In snapshot mode, by-id hits are checked against the snapshot's version first, which keeps its freshness.
+@Component
+public class ProductJsonCache implements MeterBinder {
+
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+    private final ProductService productService; // Loads misses (through the products cache)
+    private final CatalogSnapshot catalogSnapshot;
+    private final ObjectMapper objectMapper; // The same mapper the message converters use
+    private final boolean enabled;
+    private final Cache<Long, ProductJson> entries;
+
+    @Autowired
+    public ProductJsonCache(ProductService productService,
+                            CatalogSnapshot catalogSnapshot,
+                            ObjectMapper objectMapper,
+                            @Value("${app.cache.product-json.enabled:true}") boolean enabled,
+                            @Value("${app.cache.product-json.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}") String spec) {
+        this.productService = productService;
+        this.catalogSnapshot = catalogSnapshot;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.entries = Caffeine.from(spec).build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // JSON of product 'id' with its validators; empty when the product doesn't exist
+    public Optional<ProductJson> getProductJson(Long id) {
+        if (catalogSnapshot.isServing()) {
+            // The snapshot is current across instances, the cache only for local writes: its version decides
+            return productService.getProductById(id).map(this::json);
+        }
+        ProductJson cached = entries.getIfPresent(id);
+        if (cached != null) {
+            return cached.isDeleted() ? Optional.empty() : Optional.of(cached);
+        }
+        return productService.getProductById(id).map(this::json);
+    }
+
+    // A JSON array of the products, in order: cached bytes where they match the row, freshly encoded otherwise
+    public byte[] arrayOf(List<Product> products) {
+        if (products.isEmpty()) {
+            return EMPTY_ARRAY;
+        }
+        byte[][] elements = new byte[products.size()][];
+        int length = 1 + products.size(); // '[' plus ',' between elements and the closing ']'
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = json(products.get(i)).json();
+            length += elements[i].length;
+        }
+        byte[] array = new byte[length];
+        int position = 0;
+        array[position++] = '[';
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                array[position++] = ',';
+            }
+            System.arraycopy(elements[i], 0, array, position, elements[i].length);
+            position += elements[i].length;
+        }
+        array[position] = ']';
+        return array;
+    }
+
+    // Bytes of this exact product state, encoding (and caching) them when the cached entry is of another version
+    ProductJson json(Product product) {
+        ProductJson cached = entries.getIfPresent(product.getId());
+        if (cached != null && cached.matches(product)) {
+            return cached;
+        }
+        ProductJson encoded = encode(product);
+        if (product.getVersion() != null) { // Rows without a version can't be told apart from later states
+            entries.asMap().merge(product.getId(), encoded, ProductJson::newer);
+        }
+        return encoded;
+    }
+
+    // After commit, like the products cache, so readers never get bytes of an uncommitted write
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.type() == ProductChangedEvent.Type.DELETED) {
+            entries.put(event.productId(), ProductJson.DELETED);
+        } else {
+            json(event.product()); // Encoded once by the writer instead of by the next reader
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "product-json"); // cache.gets{cache=product-json,result=hit|miss}, ...
+    }
+
+    private ProductJson encode(Product product) {
+        try {
+            return new ProductJson(objectMapper.writeValueAsBytes(product), product.getVersion(), product.getLastModified());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // One product's JSON and the validators sent with it; DELETED marks an id that no longer exists
+    public record ProductJson(byte[] json, Long version, Instant lastModified) {
+
+        static final ProductJson DELETED = new ProductJson(null, Long.MAX_VALUE, null);
+
+        boolean isDeleted() {
+            return this == DELETED;
+        }
+
+        boolean matches(Product product) {
+            return !isDeleted() && product.getVersion() != null && product.getVersion().equals(version)
+                    && Objects.equals(product.getLastModified(), lastModified);
+        }
+
+        // Which of two entries for one id to keep: the later version; a deleted product stays deleted
+        static ProductJson newer(ProductJson current, ProductJson candidate) {
+            if (current.isDeleted()) {
+                return current;
+            }
+            return candidate.version() >= current.version() ? candidate : current;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.model.ProductView; // Read-only product row
+
+import java.util.List;
+
+// Result of a multi-get: the products found, in the order their ids were requested (each id once),
+// and the requested ids that don't exist, also in request order
+public record ProductLookup(List<ProductView> products, List<Long> missing) {
+}
@@ -0,0 +1,47 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.fasterxml.jackson.databind.JsonNode; // Parsed PATCH body
+
+// Partial update for PATCH /api/v1/products/{id} (JSON merge patch: only the fields present change).
+// name and price can be changed but not removed; "description": null clears the description.
+public record ProductPatch(String name, boolean descriptionSet, String description, Double price) {
+
+    // Reads a merge patch document; throws IllegalArgumentException for anything the products table would reject
+    public static ProductPatch of(JsonNode body) {
+        if (body == null || !body.isObject()) {
+            throw new IllegalArgumentException("patch must be a JSON object");
+        }
+        String name = null;
+        if (body.has("name")) {
+            JsonNode node = body.get("name");
+            if (!node.isTextual() || node.asText().isBlank()) {
+                throw new IllegalArgumentException("name must be a non-empty string");
+            }
+            if (node.asText().length() > ProductValidator.MAX_TEXT_LENGTH) {
+                throw new IllegalArgumentException("name must be at most " + ProductValidator.MAX_TEXT_LENGTH + " characters");
+            }
+            name = node.asText();
+        }
+        String description = null;
+        boolean descriptionSet = body.has("description");
+        if (descriptionSet) {
+            JsonNode node = body.get("description");
+            if (!node.isNull() && !node.isTextual()) {
+                throw new IllegalArgumentException("description must be a string or null");
+            }
+            if (node.isTextual() && node.asText().length() > ProductValidator.MAX_TEXT_LENGTH) {
+                throw new IllegalArgumentException("description must be at most " + ProductValidator.MAX_TEXT_LENGTH + " characters");
+            }
+            description = node.isNull() ? null : node.asText();
+        }
+        Double price = null;
+        if (body.has("price")) {
+            JsonNode node = body.get("price");
+            if (!node.isNumber() || !Double.isFinite(node.asDouble())) {
+                throw new IllegalArgumentException("price must be a finite number");
+            }
+            price = node.asDouble();
+        }
+        return new ProductPatch(name, descriptionSet, description, price); // id/version/unknown fields are ignored
+    }
+}
@@ -1,67 +1,290 @@
 package com.appababba.product_catalog_api.service; // Service layer package
 
+import com.appababba.product_catalog_api.config.CacheConfig; // Cache names
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Tells listeners about writes
 import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.model.ProductView; // Read-only product row (export, multi-get)
+import com.appababba.product_catalog_api.pagination.ProductCursor; // Opaque keyset cursor
+import com.appababba.product_catalog_api.pagination.ProductPage; // Page of products + next cursor
+import com.appababba.product_catalog_api.pagination.ProductSort; // Supported listing orders
 import com.appababba.product_catalog_api.repository.ProductRepository; // Product JPA repository
+import com.appababba.product_catalog_api.repository.ProductViewRepository; // Projection reads without entities
+import com.appababba.product_catalog_api.sharding.ShardedProductStore; // Products spread over shard databases (sharding mode)
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot; // In-memory catalog (snapshot mode)
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException; // Version mismatch (stale If-Match or concurrent write)
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // For DB transactions
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service // Defines this as a Spring Service bean
 public class ProductService {
 
+    public static final int MAX_LOOKUP_IDS = 10_000; // Distinct ids per multi-get request
+    static final int LOOKUP_CHUNK_SIZE = 500; // Ids per IN (...) query; padded to 512, well under driver/database limits
+
     // Repository dependency - final means it's required
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher; // Publishes ProductChangedEvent for every write
+    private final CatalogSnapshot catalogSnapshot; // Serves id lookups and id-ordered pages when snapshot mode is on
+    private final ShardedProductStore shards; // Replaces the repository for products when sharding is on
+    private final ProductViewRepository productViewRepository; // Export and multi-get rows as records, not entities
 
     // Constructor Injection (preferred way)
     @Autowired // Spring injects the repo bean here
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                          CatalogSnapshot catalogSnapshot, ShardedProductStore shards,
+                          ProductViewRepository productViewRepository) {
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.catalogSnapshot = catalogSnapshot;
+        this.shards = shards;
+        this.productViewRepository = productViewRepository;
     }
 
-    // Get all products from the database
-    @Transactional(readOnly = true) // Read-only transaction optimization
+    // The reads below that snapshot mode can answer are not @Transactional themselves: the single repository
+    // call runs in its own read-only transaction (ProductRepository is @Transactional(readOnly = true), so it can be
+    // routed to a replica), and a snapshot hit doesn't borrow a connection at all.
+    // In sharding mode the store takes the repository's place: by-id reads and writes go to the product's shard,
+    // listings query every shard in parallel and merge the results (see ShardedProductStore).
+
+    // Get all products (from the snapshot when it is loaded, otherwise from the database)
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        if (catalogSnapshot.isServing()) {
+            return catalogSnapshot.all();
+        }
+        return shards.isEnabled() ? shards.findAll() : productRepository.findAll();
+    }
+
+    // Get one keyset page of products, ordered by id, starting after 'afterId' (null = from the beginning)
+    public ProductPage getProductsPage(Long afterId, int limit) {
+        long after = afterId == null ? 0L : afterId; // Generated ids start at 1
+        // Ask for one extra row so we know if there is a next page without a COUNT query
+        return toPage(page(after, limit + 1), limit, ProductSort.ID_ASC);
     }
 
-    // Get a single product by its ID
+    // Get one keyset page of products filtered by price range (null bounds = open) in the given order.
+    // The cursor must come from a previous page with the same sort order.
     @Transactional(readOnly = true)
+    public ProductPage findProducts(Double minPrice, Double maxPrice, ProductSort sort, ProductCursor cursor, int limit) {
+        if (cursor != null && cursor.hasPrice() != sort.byPrice()) {
+            throw new IllegalArgumentException("Cursor does not match sort order " + sort);
+        }
+        double min = minPrice == null ? -Double.MAX_VALUE : minPrice;
+        double max = maxPrice == null ? Double.MAX_VALUE : maxPrice;
+        // Without a cursor, start before the smallest possible (price, id) pair - or after the largest one
+        // when walking backwards
+        double afterPrice = cursor != null && sort.byPrice() ? cursor.getLastPrice()
+                : sort == ProductSort.PRICE_DESC ? Double.MAX_VALUE : -Double.MAX_VALUE;
+        long afterId = cursor != null ? cursor.getLastId()
+                : switch (sort) {
+                    case ID_ASC -> 0L;
+                    case PRICE_ASC -> Long.MIN_VALUE;
+                    case PRICE_DESC -> Long.MAX_VALUE;
+                };
+        if (shards.isEnabled()) {
+            return toPage(shards.findPriceRange(min, max, sort, afterPrice, afterId, limit + 1), limit, sort);
+        }
+        Limit fetch = Limit.of(limit + 1); // One extra row tells us if there is a next page
+        List<Product> products = switch (sort) {
+            case ID_ASC -> productRepository.findByPriceBetweenAndIdGreaterThanOrderByIdAsc(min, max, afterId, fetch);
+            case PRICE_ASC -> productRepository.findPriceRangeAscending(min, max, afterPrice, afterId, fetch);
+            case PRICE_DESC -> productRepository.findPriceRangeDescending(min, max, afterPrice, afterId, fetch);
+        };
+        return toPage(products, limit, sort);
+    }
+
+    // Trims the extra look-ahead row and builds the cursor from the last row's sort key
+    private static ProductPage toPage(List<Product> products, int limit, ProductSort sort) {
+        if (products.size() <= limit) {
+            return new ProductPage(products, null); // Last page
+        }
+        List<Product> page = products.subList(0, limit);
+        Product last = page.get(limit - 1);
+        ProductCursor next = sort.byPrice() ? ProductCursor.after(last.getPrice(), last.getId()) : ProductCursor.after(last.getId());
+        return new ProductPage(List.copyOf(page), next.encode());
+    }
+
+    // Walk the whole catalog page by page, handing each page to the consumer (used for NDJSON streaming).
+    // Deliberately NOT @Transactional: every page runs in its own short read-only repository transaction,
+    // so entities are detached after each page and memory stays flat no matter how big the catalog is.
+    public void forEachProductPage(Long afterId, int batchSize, Consumer<List<Product>> pageConsumer) {
+        long after = afterId == null ? 0L : afterId;
+        while (true) {
+            List<Product> page = page(after, batchSize);
+            if (page.isEmpty()) {
+                return; // Reached the end of the catalog
+            }
+            pageConsumer.accept(page);
+            if (page.size() < batchSize) {
+                return; // Short page means there is nothing after it
+            }
+            after = page.get(page.size() - 1).getId(); // Continue after the last id we streamed
+        }
+    }
+
+    // Walk the whole catalog in id order, handing each product to the consumer (NDJSON export).
+    // From the database the rows come as ProductView records streamed through a cursor, 'chunkSize' rows per
+    // read-only transaction: no entities. Each chunk is collected first and handed over after its transaction
+    // has committed, so the consumer (a network write to a client of any speed) never runs while a connection
+    // is held; memory is bounded by one chunk. The snapshot and the shards already hold products in memory or
+    // merge pages, so their pages are copied.
+    public void forEachProductView(Long afterId, int chunkSize, Consumer<ProductView> consumer) {
+        long after = afterId == null ? 0L : afterId;
+        List<ProductView> chunk = new ArrayList<>(chunkSize);
+        do {
+            chunk.clear();
+            if (catalogSnapshot.isServing() || shards.isEnabled()) {
+                page(after, chunkSize).forEach(product -> chunk.add(ProductView.of(product)));
+            } else {
+                productViewRepository.forEachAfter(after, chunkSize, chunk::add); // Committed when it returns
+            }
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                after = chunk.get(chunk.size() - 1).id(); // Continue after the last id we handed over
+            }
+        } while (chunk.size() == chunkSize); // Short chunk means there is nothing after it
+    }
+
+    // Up to 'limit' products with id > after, in id order, from wherever products are read
+    private List<Product> page(long after, int limit) {
+        if (catalogSnapshot.isServing()) {
+            return catalogSnapshot.page(after, limit);
+        }
+        return shards.isEnabled() ? shards.page(after, limit)
+                : productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+    }
+
+    // Get a single product by its ID (read-through cache: only misses go to the database).
+    // Misses are loaded by the cache itself (ProductCacheLoader), one query per id however many requests
+    // miss at once - ids that don't exist included: the loader caches 'not found' briefly and its answer is final.
+    // This body only runs when the cache is bypassed: in snapshot mode, where the snapshot already holds every product.
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", condition = "!@catalogSnapshot.isServing()")
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        if (catalogSnapshot.isServing()) {
+            return catalogSnapshot.findById(id);
+        }
+        return shards.isEnabled() ? shards.findById(id) : productRepository.findById(id);
+    }
+
+    // Get many products by id: found products in request order (duplicates collapse to their first position)
+    // plus the ids that don't exist. One "WHERE id IN (...)" query per LOOKUP_CHUNK_SIZE ids instead of one query
+    // per id; like the other snapshot-aware reads, each chunk runs in its own read-only transaction (opened by
+    // ProductViewRepository.findAllById), so chunks can be served by a replica.
+    // The product cache is not consulted: a chunk costs one round trip whether or not some of its ids are cached.
+    public ProductLookup getProductsByIds(List<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.contains(null)) {
+            throw new IllegalArgumentException("ids must not contain null");
+        }
+        if (distinct.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_LOOKUP_IDS + " ids per request");
+        }
+        Map<Long, ProductView> found = new HashMap<>();
+        if (catalogSnapshot.isServing()) {
+            for (Long id : distinct) {
+                catalogSnapshot.findById(id).ifPresent(product -> found.put(id, ProductView.of(product)));
+            }
+        } else {
+            List<Long> pending = new ArrayList<>(distinct);
+            for (int from = 0; from < pending.size(); from += LOOKUP_CHUNK_SIZE) {
+                List<Long> chunk = pending.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, pending.size()));
+                if (shards.isEnabled()) {
+                    shards.findAllById(chunk).forEach(product -> found.put(product.getId(), ProductView.of(product)));
+                } else {
+                    productViewRepository.findAllById(chunk).forEach(view -> found.put(view.id(), view)); // No entities
+                }
+            }
+        }
+        // The database returns rows in whatever order it finds them: put them back in request order
+        List<ProductView> products = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinct) {
+            ProductView product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductLookup(products, missing);
     }
 
     // Create a new product
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#result.id") // Warm the cache, applied after commit
     @Transactional // Read-write transaction needed
     public Product createProduct(Product product) {
         // Optional: Add validation logic here before saving?
-        return productRepository.save(product);
+        Product savedProduct = shards.isEnabled() ? shards.insert(product, Instant.now()) : productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedProduct)); // Delivered to listeners after commit
+        return savedProduct;
     }
 
-    // Update an existing product by ID
+    // Update an existing product by ID: one UPDATE ... RETURNING, no read-modify-write.
+    // expectedVersion (from If-Match) must equal the stored version, null skips the check.
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null") // Refresh after commit
     @Transactional
-    public Optional<Product> updateProduct(Long id, Product productDetails) {
-        // Find the product by ID
-        return productRepository.findById(id)
-                .map(existingProduct -> { // If found, update its fields
-                    existingProduct.setName(productDetails.getName());
-                    existingProduct.setDescription(productDetails.getDescription());
-                    existingProduct.setPrice(productDetails.getPrice());
-                    // Save the updated product and return it
-                    return productRepository.save(existingProduct);
-                }); // Returns empty Optional if findById didn't find anything
+    public Optional<Product> updateProduct(Long id, Product productDetails, Long expectedVersion) {
+        String error = ProductValidator.validate(productDetails);
+        if (error != null) {
+            throw new IllegalArgumentException(error); // Would fail the NOT NULL / varchar(255) columns anyway
+        }
+        Optional<Product> updated = shards.isEnabled()
+                ? shards.replace(id, productDetails.getName(), productDetails.getDescription(), productDetails.getPrice(),
+                        expectedVersion, Instant.now())
+                : productRepository.replaceReturning(id, productDetails.getName(),
+                        productDetails.getDescription(), productDetails.getPrice(), expectedVersion, Instant.now());
+        return published(id, updated, expectedVersion);
     }
 
-    // Delete a product by ID
+    // Partial update: only the fields present in the patch change, same single statement and version rules as PUT
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null")
+    @Transactional
+    public Optional<Product> patchProduct(Long id, ProductPatch patch, Long expectedVersion) {
+        Optional<Product> patched = shards.isEnabled()
+                ? shards.patch(id, patch.name(), patch.descriptionSet(), patch.description(), patch.price(),
+                        expectedVersion, Instant.now())
+                : productRepository.patchReturning(id, patch.name(), patch.descriptionSet(),
+                        patch.description(), patch.price(), expectedVersion, Instant.now());
+        return published(id, patched, expectedVersion);
+    }
+
+    // Delete a product by ID with a single DELETE; the row count tells us if it existed
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id") // Drop the entry after commit
     @Transactional
     public boolean deleteProduct(Long id) {
-        // Find the product by ID
-        return productRepository.findById(id)
-                .map(product -> { // If found, delete it
-                    productRepository.delete(product);
-                    return true; // Indicate success
-                }).orElse(false); // If not found, return false
+        int deleted = shards.isEnabled() ? shards.delete(id) : productRepository.deleteWhereId(id);
+        if (deleted == 0) {
+            return false; // Nothing deleted, product not found
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+        return true; // Indicate success
+    }
+
+    // Publishes the change, or works out why nothing was updated: only when a version was expected does it
+    // cost a second query (the rare failure path) to tell "not found" (empty) from "stale version" (exception)
+    private Optional<Product> published(Long id, Optional<Product> updated, Long expectedVersion) {
+        if (updated.isPresent()) {
+            eventPublisher.publishEvent(ProductChangedEvent.updated(updated.get()));
+            return updated;
+        }
+        if (expectedVersion != null && (shards.isEnabled() ? shards.existsById(id) : productRepository.existsById(id))) {
+            throw new OptimisticLockingFailureException("Product " + id + " is not at version " + expectedVersion);
+        }
+        return Optional.empty();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+
+// Checks a product against the same rules the 'products' table enforces (NOT NULL name and price, varchar(255)
+// name and description), so bulk paths can reject a single bad item instead of failing a whole chunk at the database.
+public final class ProductValidator {
+
+    public static final int MAX_TEXT_LENGTH = 255; // Size of the name and description columns
+
+    private ProductValidator() {
+        // Static helpers only
+    }
+
+    // Returns a human readable reason, or null when the product is valid
+    public static String validate(Product product) {
+        if (product == null) {
+            return "product is required";
+        }
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "name is required";
+        }
+        if (product.getName().length() > MAX_TEXT_LENGTH) {
+            return "name must be at most " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (product.getDescription() != null && product.getDescription().length() > MAX_TEXT_LENGTH) {
+            return "description must be at most " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (product.getPrice() == null) {
+            return "price is required";
+        }
+        if (product.getPrice().isNaN() || product.getPrice().isInfinite()) {
+            return "price must be a finite number";
+        }
+        return null; // All good
+    }
+}
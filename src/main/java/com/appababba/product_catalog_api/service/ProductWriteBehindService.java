@@ -0,0 +1,346 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Write-behind mode (app.write-behind.enabled): creates and updates are validated, queued in memory and
+// acknowledged right away; one writer thread commits them in groups, so a burst of N writes costs a few commits
+// instead of N. Durability is the caller's trade-off:
+// - A write is only durable once its ticket is COMMITTED. Queued writes live in this instance's memory and are
+//   lost if it dies; a graceful shutdown flushes them first (for at most app.write-behind.shutdown-timeout).
+// - Queued updates are coalesced per product, last write wins: a newer update replaces the queued one
+//   (SUPERSEDED) and keeps its place in the queue, so a product is never written later than max-delay after
+//   its first queued update.
+// - A group is written when it reaches max-batch writes or its oldest write has waited max-delay, through
+//   ProductBatchService: one transaction for its creates and one for its updates, with the usual cache
+//   evictions and change events.
+// - Nothing is ordered against synchronous writes: a queued update overwrites a synchronous one made meanwhile.
+@Service
+@ConditionalOnProperty(name = "app.write-behind.enabled", havingValue = "true") // Off unless switched on
+public class ProductWriteBehindService implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductWriteBehindService.class);
+
+    private final ProductBatchService productBatchService; // Writes each group in chunked transactions
+    private final Cache<String, WriteTicket> tickets; // Recent tickets for the status endpoint
+    private final int queueCapacity; // Distinct queued writes (coalesced updates count once)
+    private final int maxBatch;      // Writes per group
+    private final long maxDelayNanos; // Longest a queued write waits for its group to fill up
+    private final Duration shutdownTimeout;
+    private final boolean virtualThreads;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition(); // First write queued, group full, or stopping
+    // Queued writes in arrival order: updates keyed by product id (so they coalesce), creates by ticket id.
+    // Guarded by 'lock'.
+    private final Map<Object, QueuedWrite> queue = new LinkedHashMap<>();
+    private boolean stopping; // Guarded by 'lock'; no new writes, drain what is queued
+    private volatile Thread writer;
+
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder groups = new LongAdder();
+
+    @Autowired
+    public ProductWriteBehindService(ProductBatchService productBatchService,
+                                     @Value("${app.write-behind.queue-capacity:10000}") int queueCapacity,
+                                     @Value("${app.write-behind.max-batch:1000}") int maxBatch,
+                                     @Value("${app.write-behind.max-delay:50ms}") Duration maxDelay,
+                                     @Value("${app.write-behind.shutdown-timeout:30s}") Duration shutdownTimeout,
+                                     @Value("${app.write-behind.ticket-retention:1h}") Duration ticketRetention,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.productBatchService = productBatchService;
+        this.tickets = Caffeine.newBuilder().maximumSize(Math.max(100_000, 10L * queueCapacity))
+                .expireAfterWrite(ticketRetention).build();
+        this.queueCapacity = queueCapacity;
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.virtualThreads = virtualThreads;
+    }
+
+    // Queue a new product. Empty when the queue is full or the instance is shutting down.
+    public Optional<WriteTicket> submitCreate(Product product) {
+        requireValid(product);
+        WriteTicket ticket = new WriteTicket(UUID.randomUUID().toString(), WriteTicket.Operation.CREATE, null);
+        return enqueue(ticket.getId(), new QueuedWrite(ticket, product, System.nanoTime()));
+    }
+
+    // Queue a full update (PUT semantics) of product 'id', replacing an update of it that is still queued
+    public Optional<WriteTicket> submitUpdate(Long id, Product productDetails) {
+        requireValid(productDetails);
+        productDetails.setId(id); // ProductBatchService matches updates by id
+        WriteTicket ticket = new WriteTicket(UUID.randomUUID().toString(), WriteTicket.Operation.UPDATE, id);
+        return enqueue(id, new QueuedWrite(ticket, productDetails, System.nanoTime()));
+    }
+
+    // Look up a ticket by id (kept for app.write-behind.ticket-retention, on the instance that accepted the write)
+    public Optional<WriteTicket> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.getIfPresent(ticketId));
+    }
+
+    // Number of distinct writes waiting for their group
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void requireValid(Product product) {
+        String error = ProductValidator.validate(product);
+        if (error != null) {
+            throw new IllegalArgumentException(error); // Rejected now (400), not after the 202
+        }
+    }
+
+    private Optional<WriteTicket> enqueue(Object key, QueuedWrite write) {
+        WriteTicket replaced = null;
+        lock.lock();
+        try {
+            if (stopping || writer == null) {
+                return Optional.empty();
+            }
+            QueuedWrite previous = queue.get(key);
+            if (previous != null) {
+                // Last write wins, at the position and age of the first queued one
+                queue.put(key, new QueuedWrite(write.ticket(), write.product(), previous.queuedAt()));
+                replaced = previous.ticket();
+            } else if (queue.size() >= queueCapacity) {
+                return Optional.empty();
+            } else {
+                queue.put(key, write);
+                if (queue.size() == 1 || queue.size() >= maxBatch) {
+                    changed.signal(); // Start the max-delay clock, or write a full group now
+                }
+            }
+            tickets.put(write.ticket().getId(), write.ticket()); // Before the writer can finish it
+        } finally {
+            lock.unlock();
+        }
+        if (replaced != null) {
+            replaced.supersede(write.ticket().getId());
+            superseded.increment();
+        }
+        return Optional.of(write.ticket());
+    }
+
+    private void runWriter() {
+        List<QueuedWrite> group;
+        while ((group = nextGroup()) != null) {
+            write(group);
+        }
+    }
+
+    // Waits for a full group or for the oldest queued write to reach max-delay; null once stopped and drained
+    private List<QueuedWrite> nextGroup() {
+        lock.lock();
+        try {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException(); // Interrupted while writing the previous group
+                }
+                if (queue.isEmpty()) {
+                    if (stopping) {
+                        return null;
+                    }
+                    changed.await();
+                    continue;
+                }
+                long wait = queue.values().iterator().next().queuedAt() + maxDelayNanos - System.nanoTime();
+                if (stopping || wait <= 0 || queue.size() >= maxBatch) {
+                    break;
+                }
+                changed.awaitNanos(wait);
+            }
+            List<QueuedWrite> group = new ArrayList<>(Math.min(queue.size(), maxBatch));
+            Iterator<QueuedWrite> oldestFirst = queue.values().iterator();
+            while (oldestFirst.hasNext() && group.size() < maxBatch) {
+                group.add(oldestFirst.next());
+                oldestFirst.remove();
+            }
+            return group;
+        } catch (InterruptedException e) {
+            stopping = true; // Only stop() interrupts, and only after shutdown-timeout: give up on the rest
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Creates and updates of one group, each list in one ProductBatchService call (one transaction when the
+    // group is no larger than app.batch.chunk-size); per-item results become the tickets' final states
+    private void write(List<QueuedWrite> group) {
+        List<QueuedWrite> creates = new ArrayList<>();
+        List<QueuedWrite> updates = new ArrayList<>();
+        group.forEach(write -> (write.ticket().getOperation() == WriteTicket.Operation.CREATE ? creates : updates).add(write));
+        try {
+            if (!creates.isEmpty()) {
+                complete(creates, productBatchService.createProducts(creates.stream().map(QueuedWrite::product).iterator()));
+            }
+            if (!updates.isEmpty()) {
+                complete(updates, productBatchService.updateProducts(updates.stream().map(QueuedWrite::product).iterator()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Write-behind group of {} writes failed", group.size(), e);
+            for (QueuedWrite write : group) {
+                if (write.ticket().getState() == WriteTicket.State.QUEUED) {
+                    write.ticket().fail(rootMessage(e));
+                    failed.increment();
+                }
+            }
+        }
+        groups.increment();
+    }
+
+    private void complete(List<QueuedWrite> writes, List<BatchItemResult> results) {
+        for (int i = 0; i < writes.size(); i++) {
+            WriteTicket ticket = writes.get(i).ticket();
+            BatchItemResult result = results.get(i);
+            switch (result.status()) {
+                case CREATED, UPDATED -> {
+                    ticket.commit(result.id());
+                    committed.increment();
+                }
+                case NOT_FOUND -> {
+                    ticket.notFound();
+                    notFound.increment();
+                }
+                default -> {
+                    ticket.fail(result.error() != null ? result.error() : result.status().name());
+                    failed.increment();
+                }
+            }
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            if (writer != null) {
+                return;
+            }
+            stopping = false;
+            // The writer mostly waits on the queue and on JDBC, so it follows the app's virtual-thread mode
+            writer = (virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon())
+                    .name("product-write-behind").unstarted(this::runWriter);
+            writer.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Flush on shutdown: stop accepting, write everything still queued, then return. Queued writes that
+    // don't make it within shutdown-timeout (e.g. the database is down) are failed and logged.
+    @Override
+    public void stop() {
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            stopping = true;
+            changed.signal(); // Don't wait for max-delay
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (!current.join(shutdownTimeout)) {
+                current.interrupt();
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<QueuedWrite> lost;
+        lock.lock();
+        try {
+            lost = new ArrayList<>(queue.values());
+            queue.clear();
+            writer = null;
+        } finally {
+            lock.unlock();
+        }
+        if (!lost.isEmpty()) {
+            log.warn("Write-behind shutdown timed out, {} queued writes were not written", lost.size());
+            lost.forEach(write -> write.ticket().fail("not written before shutdown"));
+            failed.add(lost.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    // Started before and stopped after the web server (phase DEFAULT_PHASE - 2048), so no request can queue
+    // a write once the final flush has begun, and the flush runs before the data source is closed
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.write-behind.queued", this, ProductWriteBehindService::getQueued)
+                .description("Writes accepted and not yet written")
+                .register(registry);
+        FunctionCounter.builder("app.write-behind.groups", groups, LongAdder::sum)
+                .description("Groups written")
+                .register(registry);
+        bindOutcome(registry, "committed", committed);
+        bindOutcome(registry, "superseded", superseded);
+        bindOutcome(registry, "not-found", notFound);
+        bindOutcome(registry, "failed", failed);
+    }
+
+    private static void bindOutcome(MeterRegistry registry, String outcome, LongAdder count) {
+        FunctionCounter.builder("app.write-behind.writes", count, LongAdder::sum)
+                .description("Accepted writes by final state")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // One accepted write; queuedAt (System.nanoTime) is when its product's first queued write arrived
+    private record QueuedWrite(WriteTicket ticket, Product product, long queuedAt) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.appababba.product_catalog_api.service; // Service layer package
+
+import com.fasterxml.jackson.annotation.JsonInclude; // Leave out null fields in the JSON
+
+import java.time.Instant;
+
+// Tracking record of one write accepted in write-behind mode (202 Accepted). Updated by the writer thread,
+// read by the status endpoint. Only its final state says whether the write reached the database.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WriteTicket {
+
+    public enum Operation { CREATE, UPDATE }
+
+    public enum State {
+        QUEUED,     // Accepted, in memory only - lost if the instance dies before it is flushed
+        COMMITTED,  // Written; 'productId' is the product's id (new id for creates)
+        SUPERSEDED, // A later update of the same product replaced it in the queue, see 'supersededBy'
+        NOT_FOUND,  // Update of a product that no longer existed when the group was written
+        FAILED      // Its group was rolled back, or it was still queued when shutdown gave up, see 'error'
+    }
+
+    private final String id;
+    private final Operation operation;
+    private final Instant acceptedAt = Instant.now();
+    private volatile Long productId; // Set at acceptance for updates, at commit for creates
+    private volatile State state = State.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile String supersededBy;
+    private volatile String error;
+
+    public WriteTicket(String id, Operation operation, Long productId) {
+        this.id = id;
+        this.operation = operation;
+        this.productId = productId;
+    }
+
+    // Details are set before the state, so a reader that sees the final state also sees them
+    synchronized void commit(Long productId) {
+        if (state == State.QUEUED) {
+            this.productId = productId;
+            finish(State.COMMITTED, null);
+        }
+    }
+
+    synchronized void supersede(String ticketId) {
+        if (state == State.QUEUED) {
+            supersededBy = ticketId;
+            finish(State.SUPERSEDED, null);
+        }
+    }
+
+    void notFound() {
+        finish(State.NOT_FOUND, null);
+    }
+
+    void fail(String reason) {
+        finish(State.FAILED, reason);
+    }
+
+    // First call wins: a write that already reached a final state keeps it
+    private synchronized void finish(State finalState, String reason) {
+        if (state == State.QUEUED) {
+            error = reason;
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getAcceptedAt() {
+        return acceptedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getSupersededBy() {
+        return supersededBy;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
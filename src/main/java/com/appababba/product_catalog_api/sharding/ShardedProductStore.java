@@ -0,0 +1,453 @@
+package com.appababba.product_catalog_api.sharding; // Product sharding package
+
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.pagination.ProductSort; // Merge order of price-range pages
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Hash-partitioned product storage (app.sharding.enabled): every product lives in exactly one of N shard databases,
+// and ProductService, ProductBatchService, the cache loader and the snapshot load go through this store instead of
+// ProductRepository. The change log and the rest of the schema stay in the main database (spring.datasource).
+// - Routing: shard = id mod N. New products are placed round-robin, and their ids are generated to match:
+//   id = local * N + shard, where 'local' comes from that shard's own products_seq (blocks of 50, like the
+//   single-database generator). Ids stay globally unique without any coordination between shards.
+//   N is part of every id, so it can't change once products exist (adding shards means re-sharding the data).
+// - Lookups by id hit one shard. Listings fan out to all shards in parallel; each shard returns its first 'limit'
+//   rows in the requested order and the results are merge-sorted, so a page costs one keyset query per shard.
+// - Plain JDBC, every write in a transaction of its shard. Writes that span shards (bulk chunks) run in one
+//   transaction per shard, nested, and commit one after the other once every shard has done its part: a failure
+//   before that rolls all of them back, but there is no two-phase commit, so a commit that fails after another
+//   shard's went through leaves the chunk partly applied (see inTransactions). Like any write, the change log
+//   entry commits afterwards in the main database.
+public class ShardedProductStore implements AutoCloseable {
+
+    static final int ID_BLOCK_SIZE = 50; // Must match products_seq INCREMENT BY
+
+    private static final String COLUMNS = "id, name, description, price, version, last_modified";
+    private static final RowMapper<Product> PRODUCT_ROW = ShardedProductStore::mapProduct;
+
+    private final List<Shard> shards; // Empty when sharding is off
+    private final ExecutorService fanOut; // Runs the per-shard queries of a listing in parallel
+    private final AtomicInteger nextPlacement = new AtomicInteger(); // Round-robin shard for new products
+
+    public ShardedProductStore(List<DataSource> shardDataSources, ExecutorService fanOut) {
+        List<Shard> list = new ArrayList<>(shardDataSources.size());
+        for (int i = 0; i < shardDataSources.size(); i++) {
+            list.add(new Shard(i, shardDataSources.get(i)));
+        }
+        this.shards = List.copyOf(list);
+        this.fanOut = fanOut;
+    }
+
+    // Sharding off: isEnabled() is false and nothing else may be called
+    public static ShardedProductStore disabled() {
+        return new ShardedProductStore(List.of(), null);
+    }
+
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    // The shard that holds (or would hold) product 'id'
+    public int shardOf(long id) {
+        return (int) Math.floorMod(id, (long) shards.size());
+    }
+
+    // --- Reads ---
+
+    public Optional<Product> findById(long id) {
+        List<Product> rows = shard(id).jdbc.query("select " + COLUMNS + " from products where id = ?", PRODUCT_ROW, id);
+        return rows.stream().findFirst();
+    }
+
+    public boolean existsById(long id) {
+        return !shard(id).jdbc.queryForList("select id from products where id = ?", Long.class, id).isEmpty();
+    }
+
+    // Products with these ids, in no particular order: one IN (...) query per shard involved, in parallel
+    public List<Product> findAllById(Collection<Long> ids) {
+        Map<Shard, List<Long>> byShard = groupByShard(ids);
+        List<CompletableFuture<List<Product>>> queries = new ArrayList<>(byShard.size());
+        byShard.forEach((shard, shardIds) -> queries.add(async(() -> shard.findAllById(shardIds))));
+        List<Product> products = new ArrayList<>(ids.size());
+        queries.forEach(query -> products.addAll(join(query)));
+        return products;
+    }
+
+    // Every product, in id order
+    public List<Product> findAll() {
+        return fanOutMerged(shard -> shard.jdbc.query("select " + COLUMNS + " from products order by id", PRODUCT_ROW),
+                ProductSort.ID_ASC, Integer.MAX_VALUE);
+    }
+
+    // Up to 'limit' products with id > afterId, in id order
+    public List<Product> page(long afterId, int limit) {
+        return fanOutMerged(shard -> shard.jdbc.query(
+                "select " + COLUMNS + " from products where id > ? order by id limit ?", PRODUCT_ROW, afterId, limit),
+                ProductSort.ID_ASC, limit);
+    }
+
+    // Up to 'limit' products with a price in [min, max], in the given order, after the (afterPrice, afterId)
+    // keyset position - the same queries as ProductRepository's price-range finders, once per shard
+    public List<Product> findPriceRange(double min, double max, ProductSort sort, double afterPrice, long afterId, int limit) {
+        String where = switch (sort) {
+            case ID_ASC -> "price between ? and ? and id > ? order by id";
+            case PRICE_ASC -> "price between ? and ? and price >= ? and (price > ? or id > ?) order by price, id";
+            case PRICE_DESC -> "price between ? and ? and price <= ? and (price < ? or id < ?) order by price desc, id desc";
+        };
+        Object[] args = sort == ProductSort.ID_ASC
+                ? new Object[] {min, max, afterId, limit}
+                : new Object[] {min, max, afterPrice, afterPrice, afterId, limit};
+        return fanOutMerged(shard -> shard.jdbc.query("select " + COLUMNS + " from products where " + where + " limit ?",
+                PRODUCT_ROW, args), sort, limit);
+    }
+
+    // Runs 'query' against every shard in parallel and returns the results in shard order. For aggregates
+    // (ProductStatsService) that are computed per shard and merged by the caller; each call is its own statement.
+    public <T> List<T> queryEachShard(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> queries = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            queries.add(async(() -> query.apply(shard.jdbc)));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        queries.forEach(shardQuery -> results.add(join(shardQuery)));
+        return results;
+    }
+
+    // --- Single-product writes ---
+
+    // Places a new product on the next shard and gives it an id of that shard (any id in 'product' is ignored)
+    public Product insert(Product product, Instant now) {
+        Shard shard = shards.get(Math.floorMod(nextPlacement.getAndIncrement(), shards.size()));
+        Product row = newRow(product, shard.nextId(), now);
+        shard.transaction.executeWithoutResult(status ->
+                shard.jdbc.update("insert into products (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?)", insertArgs(row)));
+        return row;
+    }
+
+    // PUT: overwrite name, description and price; empty when the id doesn't exist or, with an expectedVersion,
+    // the product is at another version. UPDATE then SELECT in one shard transaction (portable SQL, so the
+    // shards can be any database the driver supports, including the embedded ones used in tests).
+    public Optional<Product> replace(long id, String name, String description, Double price, Long expectedVersion, Instant now) {
+        return update(id, "name = ?, description = ?, price = ?, ", List.of(name, nullable(description), price), expectedVersion, now);
+    }
+
+    // PATCH: null name/price keep the stored value; description only changes when setDescription is true
+    public Optional<Product> patch(long id, String name, boolean setDescription, String description, Double price,
+                                   Long expectedVersion, Instant now) {
+        StringBuilder set = new StringBuilder();
+        List<Object> values = new ArrayList<>();
+        if (name != null) {
+            set.append("name = ?, ");
+            values.add(name);
+        }
+        if (setDescription) {
+            set.append("description = ?, ");
+            values.add(nullable(description));
+        }
+        if (price != null) {
+            set.append("price = ?, ");
+            values.add(price);
+        }
+        return update(id, set.toString(), values, expectedVersion, now);
+    }
+
+    // Number of rows deleted (0 or 1)
+    public int delete(long id) {
+        Shard shard = shard(id);
+        Integer deleted = shard.transaction.execute(status -> shard.jdbc.update("delete from products where id = ?", id));
+        return deleted == null ? 0 : deleted;
+    }
+
+    // --- Bulk writes (ProductBatchService chunks) ---
+
+    // Inserts new products, each placed like insert(); returned in the same order with their ids
+    public List<Product> insertAll(List<Product> products, Instant now) {
+        List<Product> rows = new ArrayList<>(products.size());
+        Map<Shard, List<Object[]>> byShard = new LinkedHashMap<>();
+        for (Product product : products) {
+            Shard shard = shards.get(Math.floorMod(nextPlacement.getAndIncrement(), shards.size()));
+            Product row = newRow(product, shard.nextId(), now);
+            rows.add(row);
+            byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(insertArgs(row));
+        }
+        inTransactions(new ArrayList<>(byShard.keySet()), () -> byShard.forEach((shard, args) ->
+                shard.jdbc.batchUpdate("insert into products (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?)", args)));
+        return rows;
+    }
+
+    // Overwrites name/description/price of the products (matched by id); returns the updated rows by id,
+    // ids that don't exist are left out
+    public Map<Long, Product> updateAll(List<Product> products, Instant now) {
+        Map<Shard, List<Product>> byShard = new LinkedHashMap<>();
+        products.forEach(product -> byShard.computeIfAbsent(shard(product.getId()), s -> new ArrayList<>()).add(product));
+        Map<Long, Product> updated = new HashMap<>();
+        inTransactions(new ArrayList<>(byShard.keySet()), () -> byShard.forEach((shard, shardProducts) -> {
+            List<Object[]> args = new ArrayList<>(shardProducts.size());
+            for (Product product : shardProducts) {
+                args.add(new Object[] {product.getName(), nullable(product.getDescription()), product.getPrice(),
+                        timestamp(now), product.getId()});
+            }
+            shard.jdbc.batchUpdate("update products set name = ?, description = ?, price = ?,"
+                    + " version = coalesce(version, 0) + 1, last_modified = ? where id = ?", args);
+            // Re-read in the same transaction: the new versions, and which ids existed (batch row counts
+            // are not reported reliably by every driver)
+            shard.findAllById(shardProducts.stream().map(Product::getId).toList())
+                    .forEach(row -> updated.put(row.getId(), row));
+        }));
+        return updated;
+    }
+
+    // Deletes the products with these ids; returns the ids that existed
+    public Set<Long> deleteAll(Collection<Long> ids) {
+        Map<Shard, List<Long>> byShard = groupByShard(ids);
+        Set<Long> deleted = new HashSet<>();
+        inTransactions(new ArrayList<>(byShard.keySet()), () -> byShard.forEach((shard, shardIds) -> {
+            List<Long> existing = shard.jdbc.queryForList(
+                    "select id from products where id in (" + placeholders(shardIds.size()) + ")", Long.class, padded(shardIds));
+            if (!existing.isEmpty()) {
+                shard.jdbc.update("delete from products where id in (" + placeholders(existing.size()) + ")", padded(existing));
+                deleted.addAll(existing);
+            }
+        }));
+        return deleted;
+    }
+
+    @Override
+    public void close() {
+        if (fanOut != null) {
+            fanOut.shutdownNow();
+        }
+        for (Shard shard : shards) {
+            if (shard.dataSource instanceof AutoCloseable pool) { // The store owns the shard pools
+                try {
+                    pool.close();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not close the pool of shard " + shard.index, e);
+                }
+            }
+        }
+    }
+
+    // --- Internals ---
+
+    private Shard shard(long id) {
+        return shards.get(shardOf(id));
+    }
+
+    private Optional<Product> update(long id, String set, List<Object> values, Long expectedVersion, Instant now) {
+        Shard shard = shard(id);
+        List<Object> args = new ArrayList<>(values);
+        args.add(timestamp(now));
+        args.add(id);
+        String sql = "update products set " + set + "version = coalesce(version, 0) + 1, last_modified = ? where id = ?";
+        if (expectedVersion != null) {
+            sql += " and version = ?";
+            args.add(expectedVersion);
+        }
+        String update = sql;
+        return shard.transaction.execute(status -> shard.jdbc.update(update, args.toArray()) == 0
+                ? Optional.<Product>empty()
+                : shard.jdbc.query("select " + COLUMNS + " from products where id = ?", PRODUCT_ROW, id).stream().findFirst());
+    }
+
+    // Runs 'work' with a transaction open on each of these shards, nested. An exception from the work rolls all of
+    // them back. Otherwise they commit one by one, innermost first, only after all of the work is done - which is
+    // not atomic: if a commit fails, the shards whose commits already went through keep their part of the batch
+    // and the others roll back. The caller sees the exception (the chunk is reported as failed) but a retry may
+    // find some of it applied.
+    private static void inTransactions(List<Shard> involved, Runnable work) {
+        if (involved.isEmpty()) {
+            work.run();
+            return;
+        }
+        involved.get(0).transaction.executeWithoutResult(
+                status -> inTransactions(involved.subList(1, involved.size()), work));
+    }
+
+    // Fans 'query' out to every shard in parallel and k-way merges the results (each already sorted by 'sort'),
+    // keeping the first 'limit'
+    private List<Product> fanOutMerged(Function<Shard, List<Product>> query, ProductSort sort, int limit) {
+        List<CompletableFuture<List<Product>>> queries = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            queries.add(async(() -> query.apply(shard)));
+        }
+        Comparator<Product> order = switch (sort) {
+            case ID_ASC -> Comparator.comparing(Product::getId);
+            case PRICE_ASC -> Comparator.comparing(Product::getPrice).thenComparing(Product::getId);
+            case PRICE_DESC -> Comparator.comparing(Product::getPrice).thenComparing(Product::getId).reversed();
+        };
+        List<List<Product>> results = new ArrayList<>(shards.size());
+        for (CompletableFuture<List<Product>> shardQuery : queries) {
+            results.add(join(shardQuery));
+        }
+        // Heap of {shard, position} cursors, ordered by the product at the cursor
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, shards.size()),
+                (a, b) -> order.compare(results.get(a[0]).get(a[1]), results.get(b[0]).get(b[1])));
+        long total = 0;
+        for (int i = 0; i < results.size(); i++) {
+            total += results.get(i).size();
+            if (!results.get(i).isEmpty()) {
+                heads.add(new int[] {i, 0});
+            }
+        }
+        List<Product> merged = new ArrayList<>((int) Math.min(limit, total));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<Product> result = results.get(head[0]);
+            merged.add(result.get(head[1]));
+            if (++head[1] < result.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private Map<Shard, List<Long>> groupByShard(Collection<Long> ids) {
+        Map<Shard, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long id : ids) {
+            byShard.computeIfAbsent(shard(id), s -> new ArrayList<>()).add(id);
+        }
+        return byShard;
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, fanOut);
+    }
+
+    // Waits for a shard query; its own exception (e.g. a DataAccessException) is rethrown as is
+    private static <T> T join(CompletableFuture<T> query) {
+        try {
+            return query.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Product newRow(Product product, long id, Instant now) {
+        Product row = new Product(id, product.getName(), product.getDescription(), product.getPrice());
+        row.setVersion(0L); // Same starting version as a JPA insert
+        row.setLastModified(now);
+        return row;
+    }
+
+    private static Object[] insertArgs(Product row) {
+        return new Object[] {row.getId(), row.getName(), nullable(row.getDescription()), row.getPrice(),
+                row.getVersion(), timestamp(row.getLastModified())};
+    }
+
+    // Typed null, so databases that can't infer the type of an untyped null bind value accept it
+    private static Object nullable(String value) {
+        return value != null ? value : new SqlParameterValue(Types.VARCHAR, null);
+    }
+
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant == null ? null : OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    // "?, ?, ..." padded to the next power of two, so IN lists of any length share a few statement shapes
+    // (the same padding Hibernate applies to the repository's IN queries)
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(paddedSize(count), "?"));
+    }
+
+    // Arguments for placeholders(ids.size()): the last id repeated to fill the padding
+    static Object[] padded(List<Long> ids) {
+        Object[] args = new Object[paddedSize(ids.size())];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = ids.get(Math.min(i, ids.size() - 1));
+        }
+        return args;
+    }
+
+    private static int paddedSize(int count) {
+        return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+    }
+
+    private static Product mapProduct(ResultSet rs, int rowNum) throws SQLException {
+        Product product = new Product(rs.getLong("id"), rs.getString("name"), rs.getString("description"), rs.getDouble("price"));
+        product.setVersion(rs.getObject("version", Long.class));
+        OffsetDateTime lastModified = rs.getObject("last_modified", OffsetDateTime.class);
+        product.setLastModified(lastModified == null ? null : lastModified.toInstant());
+        return product;
+    }
+
+    // One shard database: its JDBC access, its transactions and its block of local ids
+    private final class Shard {
+
+        private final int index;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate transaction;
+        // A lock rather than synchronized: fetching a block is a query, and a virtual thread blocked on I/O inside
+        // a monitor would keep its carrier thread pinned
+        private final ReentrantLock idLock = new ReentrantLock();
+        private long nextLocal; // Guarded by 'idLock'; next unused local id of the current block
+        private long blockEnd;  // Guarded by 'idLock'; first local id after the current block
+
+        Shard(int index, DataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        // Next global id on this shard: id mod N == index
+        long nextId() {
+            idLock.lock();
+            try {
+                if (nextLocal == blockEnd) {
+                    // Outside any transaction of ours: a sequence value is never rolled back anyway
+                    Long start = jdbc.queryForObject("select nextval('products_seq')", Long.class);
+                    nextLocal = start;
+                    blockEnd = start + ID_BLOCK_SIZE;
+                }
+                return nextLocal++ * shards.size() + index;
+            } finally {
+                idLock.unlock();
+            }
+        }
+
+        List<Product> findAllById(List<Long> ids) {
+            return jdbc.query("select " + COLUMNS + " from products where id in (" + placeholders(ids.size()) + ")",
+                    PRODUCT_ROW, padded(ids));
+        }
+    }
+}
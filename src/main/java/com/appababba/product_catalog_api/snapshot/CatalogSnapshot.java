@@ -0,0 +1,205 @@
+package com.appababba.product_catalog_api.snapshot; // In-memory catalog snapshot package
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Wake-up signal for new commits
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.repository.ProductRepository; // Startup load
+import com.appababba.product_catalog_api.service.ChangeLogExpiredException;
+import com.appababba.product_catalog_api.service.ProductChangeBatch;
+import com.appababba.product_catalog_api.service.ProductChangeLog; // Incremental refresh source
+import com.appababba.product_catalog_api.sharding.ShardedProductStore; // Startup load in sharding mode
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Snapshot mode (app.snapshot.enabled): the whole catalog is held in memory as a ProductSnapshot and
+// ProductService answers id lookups and id-ordered pages from it, without touching the database.
+// - Loaded before the web server starts (keyset pages), after noting the change log position.
+// - Kept current from the change log, not from local events: one refresher thread applies new entries in
+//   sequence order and swaps in the new snapshot with a single volatile write, so readers never block or lock.
+//   Local commits wake it right away; polling picks up writes made through other instances.
+// - Reads fall back to the database until the first load succeeds, or when snapshot mode is off.
+@Component
+public class CatalogSnapshot implements SmartInitializingSingleton, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+    private static final long MIN_COMPACT_BYTES = 1 << 20; // Don't bother re-packing pools smaller than this
+
+    private final ProductRepository productRepository;
+    private final ShardedProductStore shards; // Loaded from instead of the repository when sharding is on
+    private final ProductChangeLog changeLog;
+    private final boolean enabled;
+    private final int batchSize;           // Rows per load page and change log entries per refresh query
+    private final Duration refreshInterval;
+
+    private final Semaphore wakeUp = new Semaphore(0); // Released on commit; the refresher drains it
+    private volatile ProductSnapshot snapshot;          // null until loaded
+    private volatile boolean running = true;
+    private Thread refresher;
+    private long compactedBytes; // Refresher thread only; string pool size after the last load or compaction
+
+    @Autowired
+    public CatalogSnapshot(ProductRepository productRepository,
+                           ShardedProductStore shards,
+                           ProductChangeLog changeLog,
+                           @Value("${app.snapshot.enabled:false}") boolean enabled,
+                           @Value("${app.snapshot.batch-size:1000}") int batchSize,
+                           @Value("${app.snapshot.refresh-interval:1s}") Duration refreshInterval) {
+        this.productRepository = productRepository;
+        this.shards = shards;
+        this.changeLog = changeLog;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.refreshInterval = refreshInterval;
+    }
+
+    // Load once all beans exist but before the web server accepts requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot load failed, serving reads from the database until it succeeds", e);
+        }
+        refresher = Thread.ofPlatform().name("catalog-snapshot-refresher").daemon().unstarted(this::refreshLoop);
+        refresher.start();
+    }
+
+    // True when reads can be served from memory
+    public boolean isServing() {
+        return snapshot != null;
+    }
+
+    public Optional<Product> findById(long id) {
+        return snapshot.findById(id);
+    }
+
+    // Up to 'limit' products with id > afterId, in id order
+    public List<Product> page(long afterId, int limit) {
+        return snapshot.page(afterId, limit);
+    }
+
+    // Every product, in id order
+    public List<Product> all() {
+        ProductSnapshot current = snapshot; // One snapshot for the whole list
+        return current.page(Long.MIN_VALUE, current.size());
+    }
+
+    // The current snapshot, empty before the first load (walks of the whole catalog should hold on to one)
+    public Optional<ProductSnapshot> current() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    // A commit added change log entries: refresh now instead of at the next poll
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled && wakeUp.availablePermits() == 0) {
+            wakeUp.release(); // Coalesced: a burst of commits is one refresh
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("app.snapshot.products", this, s -> s.current().map(ProductSnapshot::size).orElse(0))
+                .description("Products in the in-memory catalog snapshot")
+                .register(registry);
+        Gauge.builder("app.snapshot.memory", this, s -> s.current().map(ProductSnapshot::estimatedBytes).orElse(0L))
+                .description("Heap held by the catalog snapshot columns and string pages")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    // Full load. The change log position is read first: entries after it may already be in the loaded rows,
+    // but replaying them (in order, full product state) lands on the same result.
+    void load() {
+        long started = System.nanoTime();
+        long sequence = changeLog.lastSequence();
+        ProductSnapshot.Builder builder = ProductSnapshot.builder(sequence);
+        long after = 0L; // Generated ids start at 1
+        while (true) {
+            List<Product> page = shards.isEnabled() ? shards.page(after, batchSize) // Merged from all shards
+                    : productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize));
+            page.forEach(builder::add);
+            if (page.size() < batchSize) {
+                break;
+            }
+            after = page.get(page.size() - 1).getId();
+        }
+        ProductSnapshot loaded = builder.build();
+        compactedBytes = loaded.stringBytes();
+        snapshot = loaded;
+        log.info("Catalog snapshot loaded: {} products, ~{} KB in {} ms", loaded.size(),
+                loaded.estimatedBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Applies every change log entry after the snapshot's position, one swap per batch
+    void refresh() {
+        if (snapshot == null) {
+            load();
+        }
+        ProductChangeBatch batch;
+        do {
+            ProductSnapshot current = snapshot;
+            batch = changeLog.changesSince(current.sequence(), batchSize);
+            if (batch.changes().isEmpty()) {
+                return;
+            }
+            ProductSnapshot next = current.apply(batch.changes());
+            // Updates append their new strings; re-pack once replaced entries make up half the pool
+            if (next.stringBytes() > Math.max(MIN_COMPACT_BYTES, 2 * compactedBytes)) {
+                next = next.compact();
+                compactedBytes = next.stringBytes();
+            }
+            snapshot = next;
+        } while (batch.hasMore());
+    }
+
+    private void refreshLoop() {
+        while (running) {
+            try {
+                wakeUp.tryAcquire(refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+                refresh();
+            } catch (InterruptedException e) {
+                return; // Shutting down
+            } catch (ChangeLogExpiredException e) {
+                log.warn("Catalog snapshot fell behind the retained change log, reloading");
+                try {
+                    load();
+                } catch (RuntimeException reloadFailure) {
+                    log.warn("Catalog snapshot reload failed", reloadFailure);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Catalog snapshot refresh failed, retrying", e); // e.g. database unavailable
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (refresher != null) {
+            refresher.interrupt();
+        }
+    }
+}
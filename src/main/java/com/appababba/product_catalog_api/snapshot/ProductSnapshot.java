@@ -0,0 +1,430 @@
+package com.appababba.product_catalog_api.snapshot; // In-memory catalog snapshot package
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent; // Change types
+import com.appababba.product_catalog_api.model.Product; // Product model
+import com.appababba.product_catalog_api.model.ProductChange; // Change log entry
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+// Immutable, column-oriented copy of the whole catalog, ordered by id.
+// Rows are kept in blocks of about BLOCK_SIZE products; each block stores its columns as primitive arrays
+// (ids, prices, versions, timestamps) plus int references into a StringPool for name and description.
+// That is ~40 bytes per product plus the string bytes, with no per-product objects at all.
+// Changes never modify a snapshot: apply() copies only the blocks it touches and shares the rest,
+// so a write costs O(BLOCK_SIZE) and readers holding an older snapshot are never affected.
+public final class ProductSnapshot {
+
+    static final int BLOCK_SIZE = 1024;             // Rows per block when loading
+    static final int MAX_BLOCK_SIZE = 2 * BLOCK_SIZE; // A block that grows past this is split in two
+    static final int BLOCKS_PER_TASK = 16;          // Fork-join leaf size for scans (~16k rows)
+    private static final long NONE = Long.MIN_VALUE;  // Null version / lastModified
+
+    private final Block[] blocks;  // Ordered by id, never empty blocks
+    private final long[] firstIds; // firstIds[i] == blocks[i].ids[0], for the block lookup
+    private final byte[][] pages;  // String pool pages as of this snapshot
+    private final StringPool pool; // Shared with newer snapshots; only the writer appends to it
+    private final int size;
+    private final long sequence;   // Change log position this snapshot reflects
+
+    private ProductSnapshot(Block[] blocks, StringPool pool, long sequence) {
+        this.blocks = blocks;
+        this.firstIds = new long[blocks.length];
+        int rows = 0;
+        for (int i = 0; i < blocks.length; i++) {
+            firstIds[i] = blocks[i].ids[0];
+            rows += blocks[i].ids.length;
+        }
+        this.pages = pool.pages();
+        this.pool = pool;
+        this.size = rows;
+        this.sequence = sequence;
+    }
+
+    // Starts a new snapshot of the catalog as of change log position 'sequence'; add products in id order
+    public static Builder builder(long sequence) {
+        return new Builder(sequence);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public Optional<Product> findById(long id) {
+        int b = blockFor(id);
+        if (b < 0) {
+            return Optional.empty();
+        }
+        int row = Arrays.binarySearch(blocks[b].ids, id);
+        return row < 0 ? Optional.empty() : Optional.of(product(blocks[b], row));
+    }
+
+    // Up to 'limit' products with id > afterId, in id order (same contract as the keyset page query)
+    public List<Product> page(long afterId, int limit) {
+        List<Product> page = new ArrayList<>(Math.min(limit, size));
+        int b = Math.max(0, blockFor(afterId));
+        for (; b < blocks.length && page.size() < limit; b++) {
+            Block block = blocks[b];
+            int row = Arrays.binarySearch(block.ids, afterId);
+            for (row = row < 0 ? -row - 1 : row + 1; row < block.ids.length && page.size() < limit; row++) {
+                page.add(product(block, row));
+            }
+        }
+        return page;
+    }
+
+    // Parallel fold over the prices of the products in [minPrice, maxPrice] whose name starts with namePrefix
+    // (null = any). Runs on the common fork-join pool: every leaf task scans a few blocks' price column into
+    // its own container from 'supplier', and the containers are merged pairwise with 'combiner'.
+    public <A> A reducePrices(double minPrice, double maxPrice, String namePrefix,
+                              Supplier<A> supplier, ObjDoubleConsumer<A> accumulator, BinaryOperator<A> combiner) {
+        byte[] prefix = namePrefix == null || namePrefix.isEmpty() ? null : utf8(namePrefix);
+        return ForkJoinPool.commonPool().invoke(new PriceScan<>(0, blocks.length, minPrice, maxPrice, prefix,
+                supplier, accumulator, combiner));
+    }
+
+    // Memory held by the columns and the string pages (what a heap dump would attribute to the snapshot)
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Block block : blocks) {
+            bytes += 6 * 16 + (long) block.ids.length * Block.BYTES_PER_ROW; // 6 array headers + columns
+        }
+        return bytes + (long) pages.length * (16 + StringPool.PAGE_SIZE);
+    }
+
+    // New snapshot with the change log entries applied in order (entries at or before 'sequence' are skipped).
+    // Entries carry the full product state, so replaying one the snapshot already reflects is harmless.
+    public ProductSnapshot apply(List<ProductChange> changes) {
+        List<Block> next = new ArrayList<>(Arrays.asList(blocks));
+        long applied = sequence;
+        for (ProductChange change : changes) {
+            if (change.getSequence() <= applied) {
+                continue;
+            }
+            applied = change.getSequence();
+            if (change.getType() == ProductChangedEvent.Type.DELETED) {
+                delete(next, change.getProductId());
+            } else {
+                upsert(next, change);
+            }
+        }
+        return new ProductSnapshot(next.toArray(Block[]::new), pool, applied);
+    }
+
+    // Bytes appended to the string pool so far, including entries that updates have since replaced
+    public long stringBytes() {
+        return pool.usedBytes();
+    }
+
+    // Same rows, strings re-packed into a fresh pool (drops the entries updates have replaced)
+    public ProductSnapshot compact() {
+        Builder builder = new Builder(sequence);
+        for (Block block : blocks) {
+            for (int row = 0; row < block.ids.length; row++) {
+                builder.add(block.ids[row], block.prices[row], block.versions[row], block.modified[row],
+                        StringPool.read(pages, block.names[row]), StringPool.read(pages, block.descriptions[row]));
+            }
+        }
+        return builder.build();
+    }
+
+    // Index of the block that would hold 'id': the last one starting at or before it, -1 if before all blocks
+    private int blockFor(long id) {
+        int i = Arrays.binarySearch(firstIds, id);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private Product product(Block block, int row) {
+        Product product = new Product(block.ids[row], StringPool.read(pages, block.names[row]),
+                StringPool.read(pages, block.descriptions[row]), block.prices[row]);
+        long version = block.versions[row];
+        product.setVersion(version == NONE ? null : version);
+        long modified = block.modified[row];
+        product.setLastModified(modified == NONE ? null
+                : Instant.ofEpochSecond(Math.floorDiv(modified, 1_000_000_000L), Math.floorMod(modified, 1_000_000_000L)));
+        return product;
+    }
+
+    private void delete(List<Block> next, long id) {
+        int b = blockIndex(next, id);
+        if (b < 0) {
+            return;
+        }
+        Block block = next.get(b);
+        int row = Arrays.binarySearch(block.ids, id);
+        if (row < 0) {
+            return; // Not in the snapshot (already deleted, or created and deleted while we were loading)
+        }
+        if (block.ids.length == 1) {
+            next.remove(b);
+        } else {
+            next.set(b, block.without(row));
+        }
+    }
+
+    private void upsert(List<Block> next, ProductChange change) {
+        long id = change.getProductId();
+        long version = change.getVersion() == null ? NONE : change.getVersion();
+        long modified = nanos(change.getLastModified());
+        byte[] name = utf8(change.getName());
+        byte[] description = utf8(change.getDescription());
+        if (next.isEmpty()) {
+            next.add(Block.single(id, change.getPrice(), version, modified, add(name), add(description)));
+            return;
+        }
+        int b = Math.max(0, blockIndex(next, id)); // Ids below the first block go to the first block
+        Block block = next.get(b);
+        int row = Arrays.binarySearch(block.ids, id);
+        if (row >= 0) {
+            // Unchanged strings keep their pool entry, so a price-only update appends nothing
+            int nameRef = StringPool.matches(pool.pages(), block.names[row], name) ? block.names[row] : add(name);
+            int descriptionRef = StringPool.matches(pool.pages(), block.descriptions[row], description)
+                    ? block.descriptions[row] : add(description);
+            next.set(b, block.with(row, false, id, change.getPrice(), version, modified, nameRef, descriptionRef));
+            return;
+        }
+        Block grown = block.with(-row - 1, true, id, change.getPrice(), version, modified, add(name), add(description));
+        if (grown.ids.length > MAX_BLOCK_SIZE) {
+            next.set(b, grown.slice(0, grown.ids.length / 2));
+            next.add(b + 1, grown.slice(grown.ids.length / 2, grown.ids.length));
+        } else {
+            next.set(b, grown);
+        }
+    }
+
+    private int add(byte[] utf8) {
+        return utf8 == null ? StringPool.NULL : pool.add(utf8);
+    }
+
+    private static int blockIndex(List<Block> blocks, long id) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) { // Last block whose first id <= id
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).ids[0] <= id) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long nanos(Instant instant) {
+        return instant == null ? NONE : instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private final class PriceScan<A> extends RecursiveTask<A> {
+
+        private final int fromBlock;
+        private final int toBlock;
+        private final double minPrice;
+        private final double maxPrice;
+        private final byte[] prefix;
+        private final Supplier<A> supplier;
+        private final ObjDoubleConsumer<A> accumulator;
+        private final BinaryOperator<A> combiner;
+
+        PriceScan(int fromBlock, int toBlock, double minPrice, double maxPrice, byte[] prefix,
+                  Supplier<A> supplier, ObjDoubleConsumer<A> accumulator, BinaryOperator<A> combiner) {
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.prefix = prefix;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (toBlock - fromBlock > BLOCKS_PER_TASK) {
+                int middle = (fromBlock + toBlock) >>> 1;
+                PriceScan<A> left = new PriceScan<>(fromBlock, middle, minPrice, maxPrice, prefix, supplier, accumulator, combiner);
+                left.fork();
+                A right = new PriceScan<>(middle, toBlock, minPrice, maxPrice, prefix, supplier, accumulator, combiner).compute();
+                return combiner.apply(left.join(), right);
+            }
+            A result = supplier.get();
+            for (int b = fromBlock; b < toBlock; b++) {
+                double[] prices = blocks[b].prices;
+                int[] names = blocks[b].names;
+                for (int row = 0; row < prices.length; row++) {
+                    double price = prices[row];
+                    if (price >= minPrice && price <= maxPrice
+                            && (prefix == null || StringPool.startsWith(pages, names[row], prefix))) {
+                        accumulator.accept(result, price);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    // Collects products (in ascending id order) into full blocks, de-duplicating strings as it goes
+    public static final class Builder {
+
+        private final long sequence;
+        private final StringPool pool = new StringPool();
+        private final Map<String, Integer> dictionary = new HashMap<>(); // Build-time only, dropped with the builder
+        private final List<Block> blocks = new ArrayList<>();
+        private final Block.Writer current = new Block.Writer(BLOCK_SIZE);
+        private long lastId = Long.MIN_VALUE;
+
+        private Builder(long sequence) {
+            this.sequence = sequence;
+        }
+
+        public Builder add(Product product) {
+            return add(product.getId(), product.getPrice(), product.getVersion() == null ? NONE : product.getVersion(),
+                    nanos(product.getLastModified()), product.getName(), product.getDescription());
+        }
+
+        private Builder add(long id, double price, long version, long modified, String name, String description) {
+            if (id <= lastId) {
+                throw new IllegalArgumentException("Products must be added in ascending id order: " + id + " after " + lastId);
+            }
+            lastId = id;
+            current.add(id, price, version, modified, intern(name), intern(description));
+            if (current.isFull()) {
+                blocks.add(current.finish());
+            }
+            return this;
+        }
+
+        public ProductSnapshot build() {
+            if (!current.isEmpty()) {
+                blocks.add(current.finish());
+            }
+            return new ProductSnapshot(blocks.toArray(Block[]::new), pool, sequence);
+        }
+
+        private int intern(String value) {
+            return value == null ? StringPool.NULL : dictionary.computeIfAbsent(value, pool::add);
+        }
+    }
+
+    // One run of rows, column by column. Never modified after construction.
+    static final class Block {
+
+        static final int BYTES_PER_ROW = 8 + 8 + 8 + 8 + 4 + 4;
+
+        final long[] ids;
+        final double[] prices;
+        final long[] versions;
+        final long[] modified;     // Epoch nanoseconds
+        final int[] names;         // StringPool references
+        final int[] descriptions;
+
+        private Block(long[] ids, double[] prices, long[] versions, long[] modified, int[] names, int[] descriptions) {
+            this.ids = ids;
+            this.prices = prices;
+            this.versions = versions;
+            this.modified = modified;
+            this.names = names;
+            this.descriptions = descriptions;
+        }
+
+        static Block single(long id, double price, long version, long modified, int name, int description) {
+            return new Block(new long[]{id}, new double[]{price}, new long[]{version}, new long[]{modified},
+                    new int[]{name}, new int[]{description});
+        }
+
+        // Copy with the row at 'row' replaced, or with a new row inserted before it
+        Block with(int row, boolean insert, long id, double price, long version, long modified, int name, int description) {
+            int length = ids.length + (insert ? 1 : 0);
+            int tail = insert ? row : row + 1; // First old row after the new one
+            Block copy = new Block(new long[length], new double[length], new long[length], new long[length],
+                    new int[length], new int[length]);
+            copy.copyRows(this, 0, 0, row);
+            copy.copyRows(this, tail, row + 1, ids.length - tail);
+            copy.ids[row] = id;
+            copy.prices[row] = price;
+            copy.versions[row] = version;
+            copy.modified[row] = modified;
+            copy.names[row] = name;
+            copy.descriptions[row] = description;
+            return copy;
+        }
+
+        Block without(int row) {
+            int length = ids.length - 1;
+            Block copy = new Block(new long[length], new double[length], new long[length], new long[length],
+                    new int[length], new int[length]);
+            copy.copyRows(this, 0, 0, row);
+            copy.copyRows(this, row + 1, row, length - row);
+            return copy;
+        }
+
+        Block slice(int from, int to) {
+            return new Block(Arrays.copyOfRange(ids, from, to), Arrays.copyOfRange(prices, from, to),
+                    Arrays.copyOfRange(versions, from, to), Arrays.copyOfRange(modified, from, to),
+                    Arrays.copyOfRange(names, from, to), Arrays.copyOfRange(descriptions, from, to));
+        }
+
+        private void copyRows(Block source, int from, int to, int count) {
+            System.arraycopy(source.ids, from, ids, to, count);
+            System.arraycopy(source.prices, from, prices, to, count);
+            System.arraycopy(source.versions, from, versions, to, count);
+            System.arraycopy(source.modified, from, modified, to, count);
+            System.arraycopy(source.names, from, names, to, count);
+            System.arraycopy(source.descriptions, from, descriptions, to, count);
+        }
+
+        // Fills one block's worth of rows during a load
+        static final class Writer {
+
+            private final Block rows;
+            private int count;
+
+            Writer(int capacity) {
+                rows = new Block(new long[capacity], new double[capacity], new long[capacity], new long[capacity],
+                        new int[capacity], new int[capacity]);
+            }
+
+            void add(long id, double price, long version, long modified, int name, int description) {
+                rows.ids[count] = id;
+                rows.prices[count] = price;
+                rows.versions[count] = version;
+                rows.modified[count] = modified;
+                rows.names[count] = name;
+                rows.descriptions[count] = description;
+                count++;
+            }
+
+            boolean isFull() {
+                return count == rows.ids.length;
+            }
+
+            boolean isEmpty() {
+                return count == 0;
+            }
+
+            Block finish() {
+                Block block = rows.slice(0, count); // Exact-size copy; the writer's arrays are reused
+                count = 0;
+                return block;
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.appababba.product_catalog_api.snapshot; // In-memory catalog snapshot package
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Append-only store of UTF-8 strings packed back to back into 64 KB pages.
+// A string is referenced by an int: page index in the high bits, offset in the low 16 bits. Each entry is a
+// varint length followed by the bytes, so a string costs its UTF-8 length + 1-3 bytes instead of a String
+// object (24 bytes) plus its byte[] (16 bytes header). Entries never move or change once written.
+// Single writer; readers use the page array captured by a ProductSnapshot (published through a volatile field),
+// and only follow references that existed when it was captured.
+final class StringPool {
+
+    static final int NULL = -1; // Reference for a null string
+    static final int PAGE_BITS = 16;
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int MAX_PAGES = 1 << (31 - PAGE_BITS); // Keeps references positive (2 GB)
+
+    private byte[][] pages = new byte[0][];
+    private int position = PAGE_SIZE; // Write offset in the last page; PAGE_SIZE means "start a new page"
+    private long usedBytes;
+
+    // Appends a string and returns its reference
+    int add(String value) {
+        return value == null ? NULL : add(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    int add(byte[] utf8) {
+        int needed = varintSize(utf8.length) + utf8.length;
+        if (needed > PAGE_SIZE) {
+            throw new IllegalArgumentException("String of " + utf8.length + " bytes does not fit a pool page");
+        }
+        if (position + needed > PAGE_SIZE) { // Entries never span pages
+            if (pages.length == MAX_PAGES) {
+                throw new IllegalStateException("String pool is full");
+            }
+            pages = Arrays.copyOf(pages, pages.length + 1); // New array, so captured page arrays never change length
+            pages[pages.length - 1] = new byte[PAGE_SIZE];
+            position = 0;
+        }
+        byte[] page = pages[pages.length - 1];
+        int ref = (pages.length - 1) << PAGE_BITS | position;
+        int length = utf8.length;
+        while (length >= 0x80) {
+            page[position++] = (byte) (length | 0x80);
+            length >>>= 7;
+        }
+        page[position++] = (byte) length;
+        System.arraycopy(utf8, 0, page, position, utf8.length);
+        position += utf8.length;
+        usedBytes += needed;
+        return ref;
+    }
+
+    // Pages written so far; entries added later go to new offsets or new pages
+    byte[][] pages() {
+        return pages;
+    }
+
+    // Bytes taken by entries, live or no longer referenced
+    long usedBytes() {
+        return usedBytes;
+    }
+
+    static String read(byte[][] pages, int ref) {
+        if (ref == NULL) {
+            return null;
+        }
+        byte[] page = pages[ref >>> PAGE_BITS];
+        long entry = entry(page, ref);
+        return new String(page, (int) entry, (int) (entry >>> 32), StandardCharsets.UTF_8);
+    }
+
+    // True if the entry holds exactly these bytes (lets an update keep an unchanged string's reference)
+    static boolean matches(byte[][] pages, int ref, byte[] utf8) {
+        if (ref == NULL || utf8 == null) {
+            return ref == NULL && utf8 == null;
+        }
+        byte[] page = pages[ref >>> PAGE_BITS];
+        long entry = entry(page, ref);
+        int offset = (int) entry;
+        int length = (int) (entry >>> 32);
+        return length == utf8.length && Arrays.equals(page, offset, offset + length, utf8, 0, length);
+    }
+
+    // True if the entry starts with these bytes (a UTF-8 prefix is a prefix of the string)
+    static boolean startsWith(byte[][] pages, int ref, byte[] prefix) {
+        if (ref == NULL) {
+            return false;
+        }
+        byte[] page = pages[ref >>> PAGE_BITS];
+        long entry = entry(page, ref);
+        int offset = (int) entry;
+        return entry >>> 32 >= prefix.length && Arrays.equals(page, offset, offset + prefix.length, prefix, 0, prefix.length);
+    }
+
+    // Decodes an entry's length prefix: data length in the high 32 bits, data offset in the page in the low 32
+    private static long entry(byte[] page, int ref) {
+        int offset = ref & (PAGE_SIZE - 1);
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = page[offset++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (long) length << 32 | offset;
+    }
+
+    private static int varintSize(int value) {
+        return value < 1 << 7 ? 1 : value < 1 << 14 ? 2 : value < 1 << 21 ? 3 : value < 1 << 28 ? 4 : 5;
+    }
+}
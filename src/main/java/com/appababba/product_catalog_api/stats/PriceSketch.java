@@ -0,0 +1,140 @@
+package com.appababba.product_catalog_api.stats; // Catalog statistics package
+
+// Mergeable quantile sketch (DDSketch-style): values are counted in logarithmic buckets whose bounds grow by
+// a factor GAMMA, so every quantile is returned within RELATIVE_ACCURACY of the true value, whatever the
+// distribution. Two sketches merge by adding bucket counts, which is what lets a parallel scan build one per
+// task and combine them at the end. Memory is a few KB: prices from 0.01 to 10^9 need about 1,300 buckets.
+// Not thread-safe; each scan task fills its own.
+public final class PriceSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    static final double LOG_GAMMA = Math.log(GAMMA);
+    static final double MIN_INDEXABLE = 1e-9; // Smaller magnitudes count as zero
+
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets(); // Indexed by the magnitude of negative values
+    private long zeroCount;
+    private long count;
+
+    public void add(double value) {
+        if (value > MIN_INDEXABLE) {
+            positive.increment(index(value));
+        } else if (value < -MIN_INDEXABLE) {
+            negative.increment(index(-value));
+        } else {
+            zeroCount++;
+        }
+        count++;
+    }
+
+    // Adds 'count' values of bucket 'index' (ceil(ln(magnitude) / LOG_GAMMA)): positive values for sign > 0,
+    // negative ones for sign < 0, zeros for sign == 0 (index ignored). Rebuilds a sketch from bucket counts
+    // that a database computed, so only the counts cross the network.
+    void addBucket(int sign, int index, long count) {
+        if (sign > 0) {
+            positive.add(index, count);
+        } else if (sign < 0) {
+            negative.add(index, count);
+        } else {
+            zeroCount += count;
+        }
+        this.count += count;
+    }
+
+    // Adds the other sketch's counts to this one and returns this
+    public PriceSketch merge(PriceSketch other) {
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    // Value at quantile q (0..1), null when the sketch is empty. Same rank as SQL percentile_disc:
+    // the first value whose cumulative share reaches q.
+    public Double quantile(double q) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = Math.max(0, (long) Math.ceil(q * count) - 1);
+        // Walk from the most negative value upwards: negatives by descending magnitude, then zeros, then positives
+        long seen = 0;
+        for (int i = negative.counts.length - 1; i >= 0; i--) {
+            seen += negative.counts[i];
+            if (seen > rank) {
+                return -value(negative.offset + i);
+            }
+        }
+        seen += zeroCount;
+        if (seen > rank) {
+            return 0.0;
+        }
+        for (int i = 0; i < positive.counts.length; i++) {
+            seen += positive.counts[i];
+            if (seen > rank) {
+                return value(positive.offset + i);
+            }
+        }
+        return value(positive.offset + positive.counts.length - 1); // Not reached: counts add up to 'count'
+    }
+
+    // Bucket i holds (GAMMA^(i-1), GAMMA^i]
+    private static int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+    }
+
+    // Point in bucket i with the same relative distance to both bounds
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    // Dense counts for a contiguous range of bucket indexes, grown on demand
+    private static final class Buckets {
+
+        private long[] counts = new long[0];
+        private int offset; // Bucket index of counts[0]
+
+        void increment(int index) {
+            add(index, 1);
+        }
+
+        void add(int index, long count) {
+            ensure(index, index);
+            counts[index - offset] += count;
+        }
+
+        void merge(Buckets other) {
+            if (other.counts.length == 0) {
+                return;
+            }
+            ensure(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+
+        // Makes indexes [low, high] addressable, growing by at least the current size to keep copies rare
+        private void ensure(int low, int high) {
+            if (counts.length == 0) {
+                counts = new long[high - low + 1];
+                offset = low;
+                return;
+            }
+            int end = offset + counts.length - 1;
+            if (low >= offset && high <= end) {
+                return;
+            }
+            int newLow = low < offset ? Math.min(low, offset - counts.length) : offset;
+            int newHigh = high > end ? Math.max(high, end + counts.length) : end;
+            long[] grown = new long[newHigh - newLow + 1];
+            System.arraycopy(counts, 0, grown, offset - newLow, counts.length);
+            counts = grown;
+            offset = newLow;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.appababba.product_catalog_api.stats; // Catalog statistics package
+
+import java.util.List;
+import java.util.Map;
+
+// Price statistics over the products matching a stats query. min/max/mean are null when nothing matched.
+// Percentiles are keyed "p50", "p90", ...; 'approximate' says they come from a PriceSketch (within 1%)
+// rather than from the database. Histogram buckets are [from, to), except the last one, which includes 'to'.
+public record ProductStats(long count, Double min, Double max, Double mean,
+                           Map<String, Double> percentiles, List<Bucket> histogram, boolean approximate) {
+
+    public record Bucket(double from, double to, long count) {
+    }
+}
@@ -0,0 +1,328 @@
+package com.appababba.product_catalog_api.stats; // Catalog statistics package
+
+import com.appababba.product_catalog_api.repository.ProductRepository; // SQL aggregation
+import com.appababba.product_catalog_api.repository.ProductRepository.PriceBucketCount;
+import com.appababba.product_catalog_api.repository.ProductRepository.PriceSummary;
+import com.appababba.product_catalog_api.service.CatalogVersion; // Local write counter (result cache key)
+import com.appababba.product_catalog_api.sharding.ShardedProductStore; // Sharding mode: aggregated per shard and merged
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot; // In-memory catalog (snapshot mode)
+import com.appababba.product_catalog_api.snapshot.ProductSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Price statistics (count, min/max/mean, percentiles, histogram) without shipping the catalog to the client.
+// - Snapshot mode: a parallel fork-join scan over the snapshot's price columns, two passes at most (summary +
+//   sketch, then histogram), each task with its own accumulators merged at the end. Percentiles come from
+//   PriceSketch, within 1%. Milliseconds even for millions of products.
+// - Otherwise: pushed down to SQL, one aggregate query (exact percentiles) and one GROUP BY for the histogram.
+//   Both scan the matching rows, so large unfiltered catalogs take as long as a full scan does.
+// - Sharding mode: the same questions asked of every shard in parallel, and the answers merged. Count, min, max
+//   and sum merge exactly; exact percentiles don't, so each shard sends its PriceSketch bucket counts (one
+//   GROUP BY) and the percentiles come from the merged sketch, within 1% as in snapshot mode.
+// Results are cached briefly per query and catalog state, since dashboards tend to ask the same thing repeatedly.
+@Service
+public class ProductStatsService {
+
+    static final double[] PERCENTILES = {0.25, 0.5, 0.75, 0.9, 0.95, 0.99}; // Must match summarizePrices
+    public static final int MAX_BUCKETS = 1000;
+
+    private final ProductRepository productRepository;
+    private final ShardedProductStore shards;
+    private final CatalogSnapshot catalogSnapshot;
+    private final CatalogVersion catalogVersion;
+    private final Cache<StatsQuery, ProductStats> results; // Keyed by the catalog state, so writes invalidate
+
+    @Autowired
+    public ProductStatsService(ProductRepository productRepository,
+                               ShardedProductStore shards,
+                               CatalogSnapshot catalogSnapshot,
+                               CatalogVersion catalogVersion,
+                               @Value("${app.stats.cache-ttl:1m}") Duration cacheTtl) {
+        this.productRepository = productRepository;
+        this.shards = shards;
+        this.catalogSnapshot = catalogSnapshot;
+        this.catalogVersion = catalogVersion;
+        this.results = Caffeine.newBuilder().maximumSize(256).expireAfterWrite(cacheTtl).build();
+    }
+
+    // Statistics of the products in [minPrice, maxPrice] (null bounds = open) whose name starts with namePrefix
+    // (case-sensitive, null = any). The histogram has 'buckets' equal-width buckets between the smallest and
+    // largest matching price, or the buckets given by explicit 'bounds' (ascending; prices outside are not counted).
+    public ProductStats getStats(Double minPrice, Double maxPrice, String namePrefix, int buckets, List<Double> bounds) {
+        double min = minPrice == null ? -Double.MAX_VALUE : minPrice;
+        double max = maxPrice == null ? Double.MAX_VALUE : maxPrice;
+        if (min > max) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        double[] fixedEdges = bounds == null || bounds.isEmpty() ? null : validBounds(bounds);
+        if (fixedEdges == null && (buckets < 1 || buckets > MAX_BUCKETS)) {
+            throw new IllegalArgumentException("buckets must be between 1 and " + MAX_BUCKETS);
+        }
+        String prefix = namePrefix == null || namePrefix.isEmpty() ? null : namePrefix;
+
+        Optional<ProductSnapshot> snapshot = catalogSnapshot.current();
+        // The snapshot's log position covers writes from every instance; without it, only local writes are seen
+        // (other instances' writes show up once the entry expires)
+        long catalogState = snapshot.map(ProductSnapshot::sequence).orElseGet(catalogVersion::current);
+        StatsQuery query = new StatsQuery(min, max, prefix, fixedEdges == null ? buckets : 0,
+                fixedEdges == null ? List.of() : List.copyOf(bounds), snapshot.isPresent(), catalogState);
+        ProductStats cached = results.getIfPresent(query);
+        if (cached != null) {
+            return cached;
+        }
+        // Computed outside the cache: inside Cache.get the scan would hold a cache lock while waiting on the
+        // common fork-join pool, where Caffeine also runs its maintenance - a deadlock on small machines
+        ProductStats stats = snapshot
+                .map(current -> scan(current, min, max, prefix, buckets, fixedEdges))
+                .orElseGet(() -> shards.isEnabled()
+                        ? aggregateOnShards(min, max, prefix, buckets, fixedEdges)
+                        : aggregateInDatabase(min, max, prefix, buckets, fixedEdges));
+        results.put(query, stats);
+        return stats;
+    }
+
+    private ProductStats scan(ProductSnapshot snapshot, double min, double max, String prefix, int buckets, double[] fixedEdges) {
+        Summary summary = snapshot.reducePrices(min, max, prefix, Summary::new, Summary::add, Summary::merge);
+        DoubleSummaryStatistics stats = summary.stats;
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double q : PERCENTILES) {
+            percentiles.put(percentileName(q), summary.sketch.quantile(q));
+        }
+        double[] edges = fixedEdges != null ? fixedEdges : equalWidthEdges(stats.getCount(), stats.getMin(), stats.getMax(), buckets);
+        long[] counts = new long[Math.max(0, edges.length - 1)];
+        double low = edges.length == 0 ? 0 : Math.max(min, edges[0]);
+        double high = edges.length == 0 ? 0 : Math.min(max, edges[edges.length - 1]);
+        if (counts.length > 0 && low <= high) {
+            counts = snapshot.reducePrices(low, high, prefix, () -> new long[edges.length - 1],
+                    (bucketCounts, price) -> bucketCounts[bucket(edges, price)]++, ProductStatsService::add);
+        }
+        long count = stats.getCount();
+        return new ProductStats(count, count == 0 ? null : stats.getMin(), count == 0 ? null : stats.getMax(),
+                count == 0 ? null : stats.getAverage(), percentiles, histogram(edges, counts), true);
+    }
+
+    private ProductStats aggregateInDatabase(double min, double max, String prefix, int buckets, double[] fixedEdges) {
+        String namePattern = prefix == null ? null : likeEscape(prefix) + "%";
+        PriceSummary summary = productRepository.summarizePrices(min, max, namePattern);
+        long count = summary.getCount();
+        Double[] values = {summary.getP25(), summary.getP50(), summary.getP75(), summary.getP90(), summary.getP95(), summary.getP99()};
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles.put(percentileName(PERCENTILES[i]), values[i]);
+        }
+        double[] edges = fixedEdges != null ? fixedEdges
+                : equalWidthEdges(count, count == 0 ? 0 : summary.getMinimum(), count == 0 ? 0 : summary.getMaximum(), buckets);
+        long[] counts = new long[Math.max(0, edges.length - 1)];
+        double low = edges.length == 0 ? 0 : Math.max(min, edges[0]);
+        double high = edges.length == 0 ? 0 : Math.min(max, edges[edges.length - 1]);
+        if (counts.length > 0 && low <= high) {
+            String boundsLiteral = Arrays.stream(edges).mapToObj(Double::toString).collect(Collectors.joining(",", "{", "}"));
+            for (PriceBucketCount row : productRepository.countPriceBuckets(low, high, namePattern, boundsLiteral, counts.length)) {
+                if (row.getBucket() >= 1 && row.getBucket() <= counts.length) {
+                    counts[row.getBucket() - 1] += row.getCount();
+                }
+            }
+        }
+        return new ProductStats(count, summary.getMinimum(), summary.getMaximum(), summary.getMean(),
+                percentiles, histogram(edges, counts), false);
+    }
+
+    // One round for count/min/max/sum and the sketch, then (the equal-width edges depend on the merged min and max)
+    // one for the histogram. Portable SQL like the rest of the shard queries: no percentile_disc or width_bucket.
+    private ProductStats aggregateOnShards(double min, double max, String prefix, int buckets, double[] fixedEdges) {
+        String namePattern = prefix == null ? null : likeEscape(prefix) + "%";
+        long count = 0;
+        Double minimum = null;
+        Double maximum = null;
+        double sum = 0;
+        PriceSketch sketch = new PriceSketch();
+        for (ShardPrices shard : shards.queryEachShard(jdbc -> summarizeShard(jdbc, min, max, namePattern))) {
+            if (shard.count() == 0) {
+                continue;
+            }
+            count += shard.count();
+            minimum = minimum == null ? shard.minimum() : Math.min(minimum, shard.minimum());
+            maximum = maximum == null ? shard.maximum() : Math.max(maximum, shard.maximum());
+            sum += shard.sum();
+            sketch.merge(shard.sketch());
+        }
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double q : PERCENTILES) {
+            percentiles.put(percentileName(q), sketch.quantile(q));
+        }
+        double[] edges = fixedEdges != null ? fixedEdges
+                : equalWidthEdges(count, count == 0 ? 0 : minimum, count == 0 ? 0 : maximum, buckets);
+        long[] counts = new long[Math.max(0, edges.length - 1)];
+        double low = edges.length == 0 ? 0 : Math.max(min, edges[0]);
+        double high = edges.length == 0 ? 0 : Math.min(max, edges[edges.length - 1]);
+        if (counts.length > 0 && low <= high) {
+            List<Object> args = new ArrayList<>();
+            String bucketOfPrice = bucketCase(edges, 0, counts.length - 1, args);
+            String sql = "select bucket, count(*) from (select " + bucketOfPrice + " as bucket from products"
+                    + shardFilter(low, high, namePattern, args) + ") prices group by bucket";
+            int bucketCount = counts.length;
+            for (long[] shardCounts : shards.queryEachShard(jdbc -> {
+                long[] bucketCounts = new long[bucketCount];
+                jdbc.query(sql, (RowCallbackHandler) rs -> bucketCounts[rs.getInt(1)] += rs.getLong(2), args.toArray());
+                return bucketCounts;
+            })) {
+                add(counts, shardCounts);
+            }
+        }
+        return new ProductStats(count, minimum, maximum, count == 0 ? null : sum / count,
+                percentiles, histogram(edges, counts), true);
+    }
+
+    // Count, min, max, sum and sketch of the matching prices on one shard
+    private static ShardPrices summarizeShard(JdbcTemplate jdbc, double min, double max, String namePattern) {
+        List<Object> args = new ArrayList<>();
+        String filter = shardFilter(min, max, namePattern, args);
+        ShardPrices summary = jdbc.queryForObject("select count(*), min(price), max(price), sum(price) from products" + filter,
+                (rs, rowNum) -> new ShardPrices(rs.getLong(1), rs.getObject(2, Double.class), rs.getObject(3, Double.class),
+                        rs.getDouble(4), new PriceSketch()), args.toArray());
+        if (summary.count() > 0) {
+            // Sketch buckets computed where the rows are: side (1 positive, -1 negative, 0 zero) and bucket index
+            List<Object> sketchArgs = new ArrayList<>(List.of(PriceSketch.MIN_INDEXABLE, -PriceSketch.MIN_INDEXABLE,
+                    PriceSketch.MIN_INDEXABLE, PriceSketch.LOG_GAMMA));
+            sketchArgs.addAll(args);
+            jdbc.query("select side, sketch_bucket, count(*) from (select"
+                            + " case when price > ? then 1 when price < ? then -1 else 0 end as side,"
+                            + " case when abs(price) > ? then ceil(ln(abs(price)) / ?) else 0 end as sketch_bucket"
+                            + " from products" + filter + ") prices group by side, sketch_bucket",
+                    (RowCallbackHandler) rs -> summary.sketch().addBucket(rs.getInt(1), rs.getInt(2), rs.getLong(3)),
+                    sketchArgs.toArray());
+        }
+        return summary;
+    }
+
+    // WHERE clause of the shard queries, its arguments appended to 'args'. The name condition is left out rather
+    // than bound to null, since not every database can type an untyped null parameter.
+    private static String shardFilter(double min, double max, String namePattern, List<Object> args) {
+        args.add(min);
+        args.add(max);
+        if (namePattern == null) {
+            return " where price between ? and ?";
+        }
+        args.add(namePattern);
+        return " where price between ? and ? and name like ?";
+    }
+
+    // 0-based bucket of 'price' among buckets first..last, as nested CASEs that halve the range at each level:
+    // a binary search, ten comparisons per row for a thousand buckets. Same rule as bucket(). The edges it
+    // compares with are appended to 'args' in the order their placeholders appear.
+    private static String bucketCase(double[] edges, int first, int last, List<Object> args) {
+        if (first == last) {
+            return Integer.toString(first);
+        }
+        int middle = (first + last) >>> 1;
+        args.add(edges[middle + 1]);
+        return "case when price < ? then " + bucketCase(edges, first, middle, args)
+                + " else " + bucketCase(edges, middle + 1, last, args) + " end";
+    }
+
+    private static double[] validBounds(List<Double> bounds) {
+        if (bounds.size() < 2 || bounds.size() > MAX_BUCKETS + 1) {
+            throw new IllegalArgumentException("bounds must have between 2 and " + (MAX_BUCKETS + 1) + " values");
+        }
+        double[] edges = new double[bounds.size()];
+        for (int i = 0; i < edges.length; i++) {
+            Double edge = bounds.get(i);
+            if (edge == null || !Double.isFinite(edge) || (i > 0 && edge <= edges[i - 1])) {
+                throw new IllegalArgumentException("bounds must be finite and strictly ascending");
+            }
+            edges[i] = edge;
+        }
+        return edges;
+    }
+
+    // 'buckets' equal-width buckets from min to max; one bucket when all prices are equal, none when nothing matched
+    private static double[] equalWidthEdges(long count, double min, double max, int buckets) {
+        if (count == 0) {
+            return new double[0];
+        }
+        if (min == max) {
+            return new double[]{min, max};
+        }
+        double[] edges = new double[buckets + 1];
+        double width = (max - min) / buckets;
+        for (int i = 0; i < buckets; i++) {
+            edges[i] = min + i * width;
+        }
+        edges[buckets] = max; // Exactly, not min + buckets * width, so the largest price lands in the last bucket
+        return edges;
+    }
+
+    // Bucket of a price within [edges[0], edges[last]]: edges[i] <= price < edges[i + 1], the last edge included
+    private static int bucket(double[] edges, double price) {
+        int i = Arrays.binarySearch(edges, price);
+        int bucket = i >= 0 ? i : -i - 2;
+        return Math.min(bucket, edges.length - 2);
+    }
+
+    private static List<ProductStats.Bucket> histogram(double[] edges, long[] counts) {
+        List<ProductStats.Bucket> histogram = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            histogram.add(new ProductStats.Bucket(edges[i], edges[i + 1], counts[i]));
+        }
+        return histogram;
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    // 0.5 -> "p50", 0.95 -> "p95", 0.999 -> "p99.9"
+    static String percentileName(double q) {
+        double percent = Math.round(q * 1000) / 10.0;
+        return "p" + (percent == Math.rint(percent) ? Long.toString((long) percent) : Double.toString(percent));
+    }
+
+    // LIKE treats % and _ as wildcards; a name prefix must match them literally (backslash is the default escape)
+    static String likeEscape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Per-task accumulator of the first scan pass
+    private static final class Summary {
+
+        private final DoubleSummaryStatistics stats = new DoubleSummaryStatistics(); // Compensated sum for the mean
+        private final PriceSketch sketch = new PriceSketch();
+
+        void add(double price) {
+            stats.accept(price);
+            sketch.add(price);
+        }
+
+        Summary merge(Summary other) {
+            stats.combine(other.stats);
+            sketch.merge(other.sketch);
+            return this;
+        }
+    }
+
+    // One shard's part of aggregateOnShards
+    private record ShardPrices(long count, Double minimum, Double maximum, double sum, PriceSketch sketch) {
+    }
+
+    private record StatsQuery(double min, double max, String prefix, int buckets, List<Double> bounds,
+                              boolean fromSnapshot, long catalogState) {
+    }
+}
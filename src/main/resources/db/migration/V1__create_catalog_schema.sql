@@ -0,0 +1,41 @@
+-- Catalog schema as of the first versioned migration (what ddl-auto=update created until then).
+-- Databases that were created by ddl-auto are baselined at version 1 instead of running this, and V2 upgrades them.
+
+-- Product ids come from a sequence in blocks of 50 (allocationSize), which keeps JDBC insert batching possible
+create sequence products_seq start with 1 increment by 50;
+
+create table products (
+    id            bigint           not null,
+    name          varchar(255)     not null,
+    description   varchar(255),
+    price         float(53)        not null,
+    version       bigint,
+    last_modified timestamp(6) with time zone,
+    primary key (id)
+);
+
+-- Keyset pages over price ranges (findPriceRangeAscending / Descending)
+create index idx_products_price_id on products (price, id);
+
+-- Change log: one row per committed write, gap-free sequence assigned from product_change_head
+create table product_changes (
+    sequence      bigint           not null,
+    type          varchar(16)      not null check (type in ('CREATED', 'UPDATED', 'DELETED')),
+    product_id    bigint           not null,
+    name          varchar(255),
+    description   varchar(255),
+    price         float(53),
+    version       bigint,
+    last_modified timestamp(6) with time zone,
+    changed_at    timestamp(6) with time zone not null,
+    primary key (sequence)
+);
+
+-- Retention deletes by age
+create index idx_product_changes_changed_at on product_changes (changed_at);
+
+create table product_change_head (
+    id            bigint           not null,
+    last_sequence bigint           not null,
+    primary key (id)
+);
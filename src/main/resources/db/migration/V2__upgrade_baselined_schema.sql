@@ -0,0 +1,37 @@
+-- Brings a database baselined at version 1 up to V1's schema. A database that ddl-auto=update created before this
+-- series only has the products table, with IDENTITY ids: no versioning columns, sequence or change log.
+-- Every statement is a no-op where V1 (or a newer ddl-auto run) already created the object.
+
+alter table products add column if not exists version bigint;
+alter table products add column if not exists last_modified timestamp(6) with time zone;
+
+-- Rows from before versioning start at version 0, like new ones
+update products set version = 0 where version is null;
+
+-- The IDENTITY default is left in place: it is "by default", so the ids Hibernate assigns from the sequence insert fine.
+-- The sequence starts at 1 here; ProductIdSequenceAligner moves it past max(id) at startup, before the first insert
+-- (H2, which the migration tests run on, has no setval).
+create sequence if not exists products_seq start with 1 increment by 50;
+
+create index if not exists idx_products_price_id on products (price, id);
+
+create table if not exists product_changes (
+    sequence      bigint           not null,
+    type          varchar(16)      not null check (type in ('CREATED', 'UPDATED', 'DELETED')),
+    product_id    bigint           not null,
+    name          varchar(255),
+    description   varchar(255),
+    price         float(53),
+    version       bigint,
+    last_modified timestamp(6) with time zone,
+    changed_at    timestamp(6) with time zone not null,
+    primary key (sequence)
+);
+
+create index if not exists idx_product_changes_changed_at on product_changes (changed_at);
+
+create table if not exists product_change_head (
+    id            bigint           not null,
+    last_sequence bigint           not null,
+    primary key (id)
+);
@@ -0,0 +1,18 @@
+-- Shard schema (app.sharding.*): only what ShardedProductStore uses. The change log and the rest of the schema
+-- stay in the main database (db/migration). Keep the products table in step with db/migration.
+
+-- Local product ids, handed out in blocks of 50 (ShardedProductStore.ID_BLOCK_SIZE) and encoded with the shard
+create sequence products_seq start with 1 increment by 50;
+
+create table products (
+    id            bigint           not null,
+    name          varchar(255)     not null,
+    description   varchar(255),
+    price         float(53)        not null,
+    version       bigint,
+    last_modified timestamp(6) with time zone,
+    primary key (id)
+);
+
+-- Keyset pages over price ranges (ShardedProductStore.findPriceRange)
+create index idx_products_price_id on products (price, id);
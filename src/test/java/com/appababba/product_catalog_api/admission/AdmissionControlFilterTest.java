@@ -0,0 +1,126 @@
+package com.appababba.product_catalog_api.admission; // Package declaration
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+
+class AdmissionControlFilterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tokenBucket_shouldAllowTheBurstThenRefillAtTheRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0); // 3 at once, then one per 100 ms
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10); // Empty: next token in 100 ms
+        assertThat(bucket.tryAcquire(SECOND / 20)).isEqualTo(SECOND / 20); // Rejections don't push it further out
+        assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(10 * SECOND)).isZero(); // Long idle: full again, but never above the burst
+        assertThat(bucket.tryAcquire(10 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(10 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(10 * SECOND)).isPositive();
+    }
+
+    @Test
+    void concurrencyLimit_shouldBackOffWhenLatencyClimbsAndRecoverWhenItDrops() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 100, 0.9, 2.0);
+        runAtFullLoad(limit, 200, 1_000_000); // Baseline: 1 ms
+        int healthy = limit.getLimit();
+        assertThat(healthy).isGreaterThan(20); // Fully used and fast: grew
+
+        runAtFullLoad(limit, 200, 10_000_000); // Downstream slows to 10 ms
+        int congested = limit.getLimit();
+        assertThat(congested).isLessThan(healthy / 2);
+
+        runAtFullLoad(limit, 2_000, 1_000_000); // Back to normal
+        assertThat(limit.getLimit()).isGreaterThan(congested);
+
+        for (int i = 0; i < 1_000; i++) { // Failing requests count as overload whatever their latency
+            runAtFullLoad(limit, 1, 1_000_000, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(2); // Floor
+    }
+
+    @Test
+    void filter_shouldRejectAClientOverItsRateWith429() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(budget(1, 2, 10), budget(1, 1, 10), "X-Api-Key");
+
+        assertThat(get(filter, "key-a").getStatus()).isEqualTo(200);
+        assertThat(get(filter, "key-a").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = get(filter, "key-a");
+        assertThat(get(filter, "key-b").getStatus()).isEqualTo(200); // Other clients have their own bucket
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(filter.getReads().getRateLimitedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void filter_shouldShedLoadOverTheConcurrencyLimitWith503AndKeepReadsAndWritesApart() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(budget(1_000, 1_000, 1), budget(1_000, 1_000, 1), null);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[2];
+        // The one read slot is taken while the chain runs: a second read is shed, a write still has its own slot
+        FilterChain holdingReadSlot = (request, response) -> {
+            nested[0] = execute(filter, new MockHttpServletRequest("GET", "/api/v1/products/1"), new MockFilterChain());
+            nested[1] = execute(filter, new MockHttpServletRequest("PUT", "/api/v1/products/1"), new MockFilterChain());
+        };
+
+        MockHttpServletResponse outer = execute(filter, new MockHttpServletRequest("GET", "/api/v1/products"), holdingReadSlot);
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(nested[0].getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertThat(nested[0].getHeader("Retry-After")).isEqualTo("2");
+        assertThat(nested[1].getStatus()).isEqualTo(200);
+        assertThat(filter.getReads().getLimit().getInFlight()).isZero(); // Slot released afterwards
+        assertThat(filter.getReads().getOverloadedCount()).isEqualTo(1);
+    }
+
+    // Completes 'requests' requests of the given latency, each while the limit is fully in use
+    private static void runAtFullLoad(AdaptiveConcurrencyLimit limit, int requests, long latencyNanos) {
+        runAtFullLoad(limit, requests, latencyNanos, false);
+    }
+
+    private static void runAtFullLoad(AdaptiveConcurrencyLimit limit, int requests, long latencyNanos, boolean failed) {
+        for (int i = 0; i < requests; i++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            limit.release(latencyNanos, failed);
+            for (int j = 1; j < admitted; j++) {
+                limit.releaseWithoutSample();
+            }
+        }
+    }
+
+    private static AdmissionControlFilter.Budget budget(double rate, int burst, int concurrency) {
+        return new AdmissionControlFilter.Budget(rate, burst, 100,
+                new AdaptiveConcurrencyLimit(concurrency, 1, concurrency, 0.9, 2.0), Duration.ofSeconds(2));
+    }
+
+    private static MockHttpServletResponse get(AdmissionControlFilter filter, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products/1");
+        request.addHeader("X-Api-Key", apiKey);
+        return execute(filter, request, new MockFilterChain());
+    }
+
+    private static MockHttpServletResponse execute(AdmissionControlFilter filter, MockHttpServletRequest request,
+                                                   FilterChain chain) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,74 @@
+package com.appababba.product_catalog_api.config; // Package declaration
+
+import com.appababba.product_catalog_api.admission.AdaptiveConcurrencyLimit;
+import com.appababba.product_catalog_api.admission.AdmissionControlFilter;
+import com.appababba.product_catalog_api.controller.ProductBatchController;
+import com.appababba.product_catalog_api.service.ProductBatchService;
+import com.appababba.product_catalog_api.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The filter as registered: the bulk endpoints (":batch", ":lookup" in the last path segment) go through it too
+@WebMvcTest(value = ProductBatchController.class, properties = {
+        "app.admission.enabled=true",
+        "app.admission.writes.initial-limit=2",
+        "app.admission.writes.min-limit=1",
+        "app.admission.writes.max-limit=2"
+})
+@Import(AdmissionControlConfig.class)
+class AdmissionControlConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter;
+
+    @MockBean
+    private ProductBatchService productBatchService;
+
+    @MockBean
+    private ProductService productService;
+
+    private int held; // Write slots taken by the test
+
+    @AfterEach
+    void releaseSlots() {
+        AdaptiveConcurrencyLimit limit = admissionControlFilter.getFilter().getWrites().getLimit();
+        for (; held > 0; held--) {
+            limit.releaseWithoutSample();
+        }
+    }
+
+    @Test
+    void batchRequest_whenWritesAreSaturated_shouldBeShedWith503() throws Exception {
+        AdmissionControlFilter filter = admissionControlFilter.getFilter();
+        while (filter.getWrites().getLimit().tryAcquire()) { // Every write slot busy
+            held++;
+        }
+
+        mockMvc.perform(post("/api/v1/products:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"A\",\"price\":1.0}]"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+        mockMvc.perform(post("/api/v1/products:lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1]"))
+                .andExpect(status().isServiceUnavailable());
+
+        assertThat(filter.getWrites().getOverloadedCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,66 @@
+package com.appababba.product_catalog_api.config; // Package declaration
+
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.repository.ProductRepository;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+
+// The prod profile on a database that ddl-auto=update created before this series: only a products table with
+// IDENTITY ids and rows in it. Flyway baselines it at 1, V2 upgrades it, Hibernate validates the result,
+// and ProductIdSequenceAligner moves products_seq past the existing ids before anything is written.
+@SpringBootTest(properties = {
+        "spring.profiles.active=prod",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.minimum-idle=1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class BaselinedSchemaMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:baselined;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Runs while the context is being built, so the old schema exists before Flyway looks at the database
+    @DynamicPropertySource
+    static void preSeriesDatabase(DynamicPropertyRegistry registry) {
+        JdbcTemplate old = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        old.execute("create table products (id bigint generated by default as identity primary key, "
+                + "name varchar(255) not null, description varchar(255), price float(53) not null)");
+        for (int i = 0; i < 3; i++) {
+            old.update("insert into products (name, price) values (?, ?)", "Old " + i, 1.0 + i);
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void migrations_shouldUpgradeABaselinedDatabase() {
+        String baseline = jdbcTemplate.queryForObject(
+                "select \"type\" from \"flyway_schema_history\" where \"version\" = '1' and \"success\" = true", String.class);
+        String upgrade = jdbcTemplate.queryForObject(
+                "select \"type\" from \"flyway_schema_history\" where \"version\" = '2' and \"success\" = true", String.class);
+
+        assertThat(baseline).isEqualTo("BASELINE"); // V1 didn't run on the existing schema
+        assertThat(upgrade).isEqualTo("SQL");
+        assertThat(jdbcTemplate.queryForList("select version from products", Long.class)).containsOnly(0L);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from product_change_head", Integer.class)).isEqualTo(1); // ProductChangeLog created its counter row
+
+        Product created = productRepository.save(new Product(null, "New", null, 4.0));
+
+        assertThat(created.getId()).isGreaterThan(3L); // Past the IDENTITY-era ids
+        assertThat(productRepository.count()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,65 @@
+package com.appababba.product_catalog_api.config; // Package declaration
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+
+// An embedded H2 database (PostgreSQL mode) shaped like one from before products_seq: IDENTITY ids, existing rows,
+// and the sequence as ddl-auto=update creates it
+class ProductIdSequenceAlignerTest {
+
+    private JdbcTemplate jdbc;
+    private ProductIdSequenceAligner aligner;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:aligner-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("create table products (id bigint generated by default as identity primary key, name varchar(255) not null, price float(53) not null)");
+        jdbc.execute("create sequence products_seq start with 1 increment by 50");
+        aligner = new ProductIdSequenceAligner(jdbc, "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("shutdown");
+    }
+
+    @Test
+    void align_sequenceBehindExistingIds_shouldMoveItPastThem() {
+        for (int i = 0; i < 120; i++) {
+            jdbc.update("insert into products (name, price) values (?, ?)", "P" + i, 1.0 + i);
+        }
+
+        aligner.afterSingletonsInstantiated();
+
+        long next = jdbc.queryForObject("select nextval('products_seq')", Long.class);
+        assertThat(next - ProductIdSequenceAligner.ALLOCATION_SIZE + 1).isEqualTo(121L); // Next block starts right after max(id)
+    }
+
+    @Test
+    void align_sequenceAlreadyAhead_shouldLeaveIt() {
+        jdbc.update("insert into products (id, name, price) values (7, 'Lamp', 9.5)");
+        jdbc.execute("alter sequence products_seq restart with 1000");
+
+        aligner.afterSingletonsInstantiated();
+
+        // Only the probe's block was used up
+        assertThat(jdbc.queryForObject("select nextval('products_seq')", Long.class)).isEqualTo(1050L);
+    }
+
+    @Test
+    void align_emptyTableOrTrainingRun_shouldNotTouchTheSequence() {
+        aligner.afterSingletonsInstantiated();
+        jdbc.update("insert into products (id, name, price) values (7, 'Lamp', 9.5)");
+        new ProductIdSequenceAligner(jdbc, "onRefresh").afterSingletonsInstantiated();
+
+        assertThat(jdbc.queryForObject("select nextval('products_seq')", Long.class)).isEqualTo(1L);
+    }
+}
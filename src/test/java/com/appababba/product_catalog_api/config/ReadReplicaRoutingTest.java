@@ -0,0 +1,99 @@
+package com.appababba.product_catalog_api.config; // Package declaration
+
+import com.appababba.product_catalog_api.pagination.ProductCursor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc; // Drives the full filter chain
+import org.springframework.test.web.servlet.MvcResult;
+
+import jakarta.servlet.http.Cookie;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two in-memory H2 databases stand in for the primary and one replica. Replication is deliberately absent,
+// so whichever database a request read from is visible in the response.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.minimum-idle=1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop", // Schema on the primary only
+        "app.datasource.replicas[0].url=" + ReadReplicaRoutingTest.REPLICA_URL
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // The replica needs the schema before the app starts (the search index reads from it at startup)
+    @BeforeAll
+    static void createReplica() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists products (id bigint primary key, name varchar(255) not null, "
+                    + "description varchar(255), price float(53) not null, version bigint, "
+                    + "last_modified timestamp(6) with time zone)");
+            statement.execute("merge into products key (id) values (9001, 'Replica Widget', null, 1.5, 0, current_timestamp)");
+        }
+    }
+
+    @Test
+    void readOnlyRequest_shouldBeServedByReplica() throws Exception {
+        mockMvc.perform(get("/api/v1/products/9001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica Widget")); // Only the replica has this row
+    }
+
+    @Test
+    void listPages_shouldBeServedByReplica() throws Exception {
+        // The default listing (no filter) and its cursor pages are plain repository queries outside a service transaction
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Replica Widget"));
+        mockMvc.perform(get("/api/v1/products").param("after", "9000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(9001));
+        mockMvc.perform(get("/api/v1/products").param("cursor", ProductCursor.after(9000).encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Replica Widget"));
+    }
+
+    @Test
+    void write_shouldGoToPrimaryAndPinFollowingReadsOfThatClient() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/v1/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Primary Widget\",\"price\":2.5}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME))
+                .andReturn();
+        Cookie pin = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+        // Checked through the list endpoint: single-product reads would be answered from the cache the create just warmed
+        // Another client reads from the never-replicated replica and doesn't see the new row
+        mockMvc.perform(get("/api/v1/products").param("minPrice", "2").param("maxPrice", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        // The writer still carries the cookie, so its read goes to the primary
+        mockMvc.perform(get("/api/v1/products").param("minPrice", "2").param("maxPrice", "3").cookie(pin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Primary Widget"));
+    }
+}
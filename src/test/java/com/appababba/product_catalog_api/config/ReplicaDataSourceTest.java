@@ -0,0 +1,110 @@
+package com.appababba.product_catalog_api.config; // Package declaration
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.junit.jupiter.api.extension.ExtendWith; // Use JUnit extensions (like Mockito)
+import org.mockito.Mock; // Create a mock object
+import org.mockito.junit.jupiter.MockitoExtension; // Initialize Mockito for JUnit 5
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given; // BDD style for setting up mocks
+import static org.mockito.BDDMockito.then; // BDD style for verifying mocks
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class) // Enable Mockito
+class ReplicaDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replicaA;
+
+    @Mock
+    private DataSource replicaB;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private ReplicaDataSource replicaDataSource;
+
+    @AfterEach
+    void tearDown() {
+        ReplicaDataSource.pinToPrimary(false);
+        if (replicaDataSource != null) {
+            replicaDataSource.close();
+        }
+    }
+
+    @Test
+    void getConnection_shouldRoundRobinOverReplicas() throws SQLException {
+        given(replicaA.getConnection()).willReturn(replicaConnection);
+        given(replicaB.getConnection()).willReturn(replicaConnection);
+        replicaDataSource = newReplicaDataSource(replicaA, replicaB);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(replicaDataSource.getConnection()).isSameAs(replicaConnection);
+        }
+
+        then(replicaA).should(times(2)).getConnection();
+        then(replicaB).should(times(2)).getConnection();
+        then(primary).should(never()).getConnection();
+    }
+
+    @Test
+    void getConnection_shouldEjectFailingReplicaAndUseTheOthers() throws SQLException {
+        given(replicaA.getConnection()).willThrow(new SQLException("connection refused"));
+        given(replicaB.getConnection()).willReturn(replicaConnection);
+        replicaDataSource = newReplicaDataSource(replicaA, replicaB);
+
+        assertThat(replicaDataSource.getConnection()).isSameAs(replicaConnection);
+        assertThat(replicaDataSource.getConnection()).isSameAs(replicaConnection);
+
+        assertThat(replicaDataSource.getHealthyReplicaCount()).isEqualTo(1);
+        then(replicaA).should(atMost(1)).getConnection(); // Not retried once ejected
+    }
+
+    @Test
+    void getConnection_shouldFallBackToPrimaryUntilHealthCheckRestoresReplica() throws SQLException {
+        given(primary.getConnection()).willReturn(primaryConnection);
+        given(replicaA.getConnection()).willThrow(new SQLException("connection refused")).willReturn(replicaConnection);
+        given(replicaConnection.isValid(anyInt())).willReturn(true);
+        replicaDataSource = newReplicaDataSource(replicaA);
+
+        assertThat(replicaDataSource.getConnection()).isSameAs(primaryConnection); // Only replica is down
+        assertThat(replicaDataSource.getHealthyReplicaCount()).isZero();
+
+        replicaDataSource.checkHealth(); // Replica answers again
+
+        assertThat(replicaDataSource.getHealthyReplicaCount()).isEqualTo(1);
+        assertThat(replicaDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void getConnection_shouldUsePrimaryWhenPinned() throws SQLException {
+        given(primary.getConnection()).willReturn(primaryConnection);
+        replicaDataSource = newReplicaDataSource(replicaA);
+
+        ReplicaDataSource.pinToPrimary(true);
+
+        assertThat(replicaDataSource.getConnection()).isSameAs(primaryConnection);
+        then(replicaA).should(never()).getConnection();
+    }
+
+    private ReplicaDataSource newReplicaDataSource(DataSource... replicas) {
+        // Long interval: health checks only run when a test calls checkHealth()
+        return new ReplicaDataSource(primary, List.of(replicas), ReplicaDataSource.Selection.ROUND_ROBIN, Duration.ofHours(1));
+    }
+}
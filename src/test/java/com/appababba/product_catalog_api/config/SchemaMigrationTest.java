@@ -0,0 +1,36 @@
+package com.appababba.product_catalog_api.config; // Package declaration
+
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+
+// The prod profile's schema setup on an empty database: Flyway creates it, and Hibernate's validation
+// (instead of the prod profile's 'none') fails the context if a migration and the entities disagree
+@SpringBootTest(properties = {
+        "spring.profiles.active=prod",
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.minimum-idle=1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrations_shouldCreateTheSchemaTheEntitiesExpect() {
+        String type = jdbcTemplate.queryForObject(
+                "select \"type\" from \"flyway_schema_history\" where \"version\" = '1' and \"success\" = true", String.class);
+
+        assertThat(type).isEqualTo("SQL"); // V1 ran on the empty database, no baseline
+        jdbcTemplate.update("insert into products (id, name, price, version) values (nextval('products_seq'), 'Lamp', 9.5, 0)");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from products", Integer.class)).isEqualTo(1);
+    }
+}
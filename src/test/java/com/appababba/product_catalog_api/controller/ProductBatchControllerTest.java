@@ -0,0 +1,106 @@
+package com.appababba.product_catalog_api.controller; // Package
+
+import com.appababba.product_catalog_api.service.BatchItemResult;
+import com.appababba.product_catalog_api.service.BatchItemResult.Status;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.model.ProductView;
+import com.appababba.product_catalog_api.service.ProductBatchService;
+import com.appababba.product_catalog_api.service.ProductLookup;
+import com.appababba.product_catalog_api.service.ProductService;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.beans.factory.annotation.Autowired; // DI annotation
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest; // Test Spring MVC layer only
+import org.springframework.boot.test.mock.mockito.MockBean; // Create mock bean for dependencies
+import org.springframework.http.MediaType; // For content types like application/json
+import org.springframework.test.web.servlet.MockMvc; // For making mock HTTP requests
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*; // Hamcrest JSON matchers (like is(), hasSize())
+import static org.mockito.ArgumentMatchers.any; // Mockito matchers
+import static org.mockito.BDDMockito.given; // Mockito BDD style setup
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*; // MockMvc request builders (get, post, etc.)
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*; // MockMvc result matchers (status, content, etc.)
+
+@WebMvcTest(ProductBatchController.class) // Focus testing on ProductBatchController
+class ProductBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductBatchService productBatchService;
+
+    @MockBean
+    private ProductService productService; // Multi-get
+
+    @Test // Test POST /api/v1/products:batch with a JSON array
+    void createProducts_withJsonArray_shouldReturnPerItemResults() throws Exception {
+        given(productBatchService.createProducts(any())).willReturn(List.of(
+                BatchItemResult.ok(0, 10L, Status.CREATED),
+                BatchItemResult.error(1, null, Status.INVALID, "price is required")));
+
+        mockMvc.perform(post("/api/v1/products:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"A\",\"price\":1.0},{\"name\":\"B\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[0].id", is(10)))
+                .andExpect(jsonPath("$[1].error", is("price is required")));
+    }
+
+    @Test // Test DELETE /api/v1/products:batch with an NDJSON body
+    void deleteProducts_withNdjson_shouldStreamIdsToService() throws Exception {
+        given(productBatchService.deleteProducts(any())).willAnswer(invocation -> {
+            Iterator<Long> ids = invocation.getArgument(0);
+            return List.of(BatchItemResult.ok(0, ids.next(), Status.DELETED),
+                    BatchItemResult.error(1, ids.next(), Status.NOT_FOUND, null));
+        });
+
+        mockMvc.perform(delete("/api/v1/products:batch")
+                        .contentType(ProductController.APPLICATION_NDJSON_VALUE)
+                        .content("1\n2\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[1].status", is("NOT_FOUND")));
+    }
+
+    @Test // Malformed NDJSON lines are rejected
+    void createProducts_withMalformedNdjson_shouldReturnBadRequest() throws Exception {
+        given(productBatchService.createProducts(any())).willAnswer(invocation -> {
+            Iterator<?> products = invocation.getArgument(0);
+            products.next(); // Parsing happens lazily, inside the service loop
+            return List.of();
+        });
+
+        mockMvc.perform(post("/api/v1/products:batch")
+                        .contentType(ProductController.APPLICATION_NDJSON_VALUE)
+                        .content("{not json"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test // Test POST /api/v1/products:lookup with a JSON array of ids
+    void lookupProducts_shouldReturnProductsAndMissingIds() throws Exception {
+        given(productService.getProductsByIds(List.of(5L, 6L)))
+                .willReturn(new ProductLookup(List.of(ProductView.of(new Product(6L, "Lamp", null, 9.5))), List.of(5L)));
+
+        mockMvc.perform(post("/api/v1/products:lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[5, 6]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name", is("Lamp")))
+                .andExpect(jsonPath("$.missing", contains(5)));
+    }
+
+    @Test // Too many ids (or a null id) is the client's mistake
+    void lookupProducts_whenServiceRejectsIds_shouldReturnBadRequest() throws Exception {
+        given(productService.getProductsByIds(any())).willThrow(new IllegalArgumentException("At most 10000 ids per request"));
+
+        mockMvc.perform(post("/api/v1/products:lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, null]"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,34 +1,54 @@
 package com.appababba.product_catalog_api.controller; // Package
 
+import com.appababba.product_catalog_api.config.BinaryFormatsConfig;
 import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.model.ProductView;
+import com.appababba.product_catalog_api.pagination.ProductCursor;
+import com.appababba.product_catalog_api.pagination.ProductPage;
+import com.appababba.product_catalog_api.pagination.ProductSort;
+import com.appababba.product_catalog_api.service.CatalogVersion;
+import com.appababba.product_catalog_api.service.ProductJsonCache;
+import com.appababba.product_catalog_api.service.ProductLookup;
+import com.appababba.product_catalog_api.service.ProductPatch;
 import com.appababba.product_catalog_api.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper; // For JSON handling
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper; // Encodes/decodes CBOR bodies
 import org.junit.jupiter.api.BeforeEach; // Setup before each test
-import org.junit.jupiter.api.Disabled; // To skip tests
 import org.junit.jupiter.api.Test; // Marks a test method
 import org.springframework.beans.factory.annotation.Autowired; // DI annotation
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest; // Test Spring MVC layer only
 import org.springframework.boot.test.mock.mockito.MockBean; // Create mock bean for dependencies
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType; // For content types like application/json
 import org.springframework.test.web.servlet.MockMvc; // For making mock HTTP requests
+import org.springframework.test.web.servlet.MvcResult; // Holds an async result to dispatch
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 // Static imports for cleaner test code
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*; // Hamcrest JSON matchers (like is(), hasSize())
 import static org.mockito.ArgumentMatchers.any; // Mockito matchers
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given; // Mockito BDD style setup
 import static org.mockito.BDDMockito.then; // Mockito BDD style verification
+import static org.mockito.BDDMockito.willAnswer; // Mockito BDD style stubbing for void methods
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*; // MockMvc request builders (get, post, etc.)
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*; // MockMvc result matchers (status, content, etc.)
+import static org.mockito.Mockito.never; // Mockito verify never called
 import static org.mockito.Mockito.times; // Mockito verify times called
 
-@Disabled // TEMP: Skipping tests, maybe context issues? (Java 24/SB 3.2.5)
 @WebMvcTest(ProductController.class) // Focus testing on ProductController
+@Import(BinaryFormatsConfig.class) // CBOR/Smile converters
 class ProductControllerTest {
 
     @Autowired // Inject the MockMvc bean
@@ -37,6 +57,12 @@ class ProductControllerTest {
     @MockBean // Create a mock version of ProductService for this test context
     private ProductService productService; // Mock the service layer dependency
 
+    @MockBean
+    private CatalogVersion catalogVersion; // Listing ETag source
+
+    @MockBean
+    private ProductJsonCache productJsonCache; // Disabled (isEnabled() is false) unless a test says so
+
     @Autowired // Inject the ObjectMapper bean
     private ObjectMapper objectMapper; // Used to convert Java objects to JSON
 
@@ -49,13 +75,13 @@ class ProductControllerTest {
         // Set up common test data
         product1 = new Product(1L, "Test Product 1", "Description 1", 10.99);
         product2 = new Product(2L, "Test Product 2", "Description 2", 25.50);
+        given(catalogVersion.etag()).willReturn("W/\"test-7\"");
     }
 
-    @Test // Test GET /api/v1/products
-    void getAllProducts_shouldReturnListOfProducts() throws Exception { // MockMvc calls can throw exceptions
-        // Arrange: Prepare mock service response
-        List<Product> products = Arrays.asList(product1, product2);
-        given(productService.getAllProducts()).willReturn(products);
+    @Test // Test GET /api/v1/products - first page
+    void getAllProducts_shouldReturnFirstPageOfProducts() throws Exception { // MockMvc calls can throw exceptions
+        // Arrange: Prepare mock service response (last page, so no next cursor)
+        given(productService.getProductsPage(null, 100)).willReturn(new ProductPage(Arrays.asList(product1, product2), null));
 
         // Act & Assert: Perform GET request and check the response
         mockMvc.perform(get("/api/v1/products"))
@@ -63,10 +89,82 @@ class ProductControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON)) // Check response type is JSON
                 .andExpect(jsonPath("$", hasSize(2))) // Check if the JSON array has 2 elements
                 .andExpect(jsonPath("$[0].name", is("Test Product 1"))) // Check first product's name
-                .andExpect(jsonPath("$[1].name", is("Test Product 2"))); // Check second product's name
+                .andExpect(jsonPath("$[1].name", is("Test Product 2"))) // Check second product's name
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER)); // No more pages
+
+        // Verify: Check that the paged service method was called (never the full-table one)
+        then(productService).should(times(1)).getProductsPage(null, 100);
+        then(productService).should(never()).getAllProducts();
+    }
+
+    @Test // Test GET /api/v1/products?cursor=...&limit=... - next page link
+    void getAllProducts_withCursor_shouldContinueAfterCursorAndAdvertiseNextPage() throws Exception {
+        // Arrange: the page after id 1 still has more rows behind it
+        String cursor = ProductCursor.after(1L).encode();
+        String nextCursor = ProductCursor.after(2L).encode();
+        given(productService.getProductsPage(1L, 1)).willReturn(new ProductPage(List.of(product2), nextCursor));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/products").param("cursor", cursor).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, nextCursor))
+                .andExpect(header().string("Link", containsString("cursor=" + nextCursor)));
+    }
+
+    @Test // Test GET /api/v1/products?cursor=garbage - rejected
+    void getAllProducts_withInvalidCursor_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/products").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest()); // Check for HTTP 400
 
-        // Verify: Check that the service method was called
-        then(productService).should(times(1)).getAllProducts();
+        then(productService).should(never()).getProductsPage(any(), anyInt());
+    }
+
+    @Test // Test GET /api/v1/products?minPrice=&maxPrice=&sort=price,asc - filtered, price-ordered page
+    void getAllProducts_withPriceRangeAndSort_shouldUsePriceQuery() throws Exception {
+        // Arrange
+        String nextCursor = ProductCursor.after(25.50, 2L).encode();
+        given(productService.findProducts(10.0, 50.0, ProductSort.PRICE_ASC, null, 2))
+                .willReturn(new ProductPage(List.of(product1, product2), nextCursor));
+
+        // Act & Assert: the next link keeps the filters
+        mockMvc.perform(get("/api/v1/products?minPrice=10&maxPrice=50&sort=price,asc&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, nextCursor))
+                .andExpect(header().string("Link", allOf(containsString("minPrice=10"), containsString("sort=price,asc"))));
+
+        then(productService).should(never()).getProductsPage(any(), anyInt());
+    }
+
+    @Test // Test GET /api/v1/products?sort=name,asc - unsupported order
+    void getAllProducts_withUnsupportedSort_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/products").param("sort", "name,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test // Test GET /api/v1/products with Accept: application/x-ndjson - streaming mode
+    void streamAllProducts_shouldWriteOneJsonObjectPerLine() throws Exception {
+        // Arrange: service hands the controller two rows; their JSON must be the same as the entities'
+        willAnswer(invocation -> {
+            Consumer<ProductView> consumer = invocation.getArgument(2);
+            consumer.accept(ProductView.of(product1));
+            consumer.accept(ProductView.of(product2));
+            return null;
+        }).given(productService).forEachProductView(eq(null), anyInt(), any());
+
+        // Act: streaming bodies are written asynchronously, so dispatch the async result first
+        MvcResult result = mockMvc.perform(get("/api/v1/products").accept(ProductController.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ProductController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(product1) + "\n" + objectMapper.writeValueAsString(product2) + "\n"));
     }
 
     @Test // Test GET /api/v1/products/{id} - Found case
@@ -85,6 +183,68 @@ class ProductControllerTest {
         then(productService).should(times(1)).getProductById(1L);
     }
 
+    @Test // Test GET /api/v1/products/{id} - JSON comes from the cache as stored bytes, CBOR still goes through the converter
+    void getProductById_withJsonCache_shouldWriteCachedBytes() throws Exception {
+        given(productJsonCache.isEnabled()).willReturn(true);
+        given(productJsonCache.getProductJson(1L)).willReturn(Optional.of(new ProductJsonCache.ProductJson(
+                "{\"id\":1,\"name\":\"Cached\"}".getBytes(), 4L, null)));
+        given(productService.getProductById(1L)).willReturn(Optional.of(product1));
+
+        mockMvc.perform(get("/api/v1/products/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(content().string("{\"id\":1,\"name\":\"Cached\"}"));
+        mockMvc.perform(get("/api/v1/products/{id}", 1L).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        then(productService).should(times(1)).getProductById(1L); // Only for the CBOR request
+    }
+
+    @Test // Test GET /api/v1/products?ids= - multi-get
+    void getProductsByIds_shouldReturnFoundAndMissingIds() throws Exception {
+        given(productService.getProductsByIds(List.of(2L, 9L, 1L)))
+                .willReturn(new ProductLookup(List.of(ProductView.of(product2), ProductView.of(product1)), List.of(9L)));
+
+        mockMvc.perform(get("/api/v1/products").param("ids", "2,9,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[*].id", contains(2, 1)))
+                .andExpect(jsonPath("$.missing", contains(9)));
+
+        then(productService).should(never()).getProductsPage(any(), anyInt()); // Not the listing
+    }
+
+    @Test // Test GET /api/v1/products/{id} - client copy is current
+    void getProductById_withMatchingIfNoneMatch_shouldReturnNotModified() throws Exception {
+        product1.setVersion(3L);
+        given(productService.getProductById(1L)).willReturn(Optional.of(product1));
+
+        mockMvc.perform(get("/api/v1/products/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test // Test GET /api/v1/products - unchanged catalog is answered from the version counter
+    void getAllProducts_withCurrentCatalogETag_shouldReturnNotModifiedWithoutQuerying() throws Exception {
+        mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, "W/\"test-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"test-7\""));
+
+        then(productService).should(never()).getProductsPage(any(), anyInt());
+    }
+
+    @Test // Test GET /api/v1/products - stale tag gets the page plus the current tag
+    void getAllProducts_withStaleCatalogETag_shouldReturnPage() throws Exception {
+        given(productService.getProductsPage(null, 100)).willReturn(new ProductPage(List.of(product1), null));
+
+        mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, "W/\"test-6\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"test-7\""))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
      @Test // Test GET /api/v1/products/{id} - Not Found case
     void getProductById_whenProductDoesNotExist_shouldReturnNotFound() throws Exception {
         // Arrange: Mock service to return empty optional (not found)
@@ -119,6 +279,35 @@ class ProductControllerTest {
         then(productService).should(times(1)).createProduct(any(Product.class));
     }
 
+    @Test // Test GET /api/v1/products with Accept: application/cbor - binary list for service clients
+    void getAllProducts_withCborAccept_shouldReturnCbor() throws Exception {
+        given(productService.getProductsPage(null, 100)).willReturn(new ProductPage(Arrays.asList(product1, product2), null));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/products").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT))) // Caches keep JSON and CBOR apart
+                .andReturn();
+
+        Product[] products = new CBORMapper().findAndRegisterModules()
+                .readValue(result.getResponse().getContentAsByteArray(), Product[].class);
+        assertThat(products).extracting(Product::getName).containsExactly("Test Product 1", "Test Product 2");
+    }
+
+    @Test // Test POST /api/v1/products with a CBOR body
+    void createProduct_withCborBody_shouldReturnCreatedProduct() throws Exception {
+        given(productService.createProduct(any(Product.class))).willReturn(new Product(3L, "New Prod", "New Desc", 5.00));
+
+        mockMvc.perform(post("/api/v1/products")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(new CBORMapper().writeValueAsBytes(new Product(null, "New Prod", "New Desc", 5.00))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON)) // No Accept header: JSON stays the default
+                .andExpect(jsonPath("$.name", is("New Prod")));
+
+        then(productService).should().createProduct(argThat(product -> "New Prod".equals(product.getName())));
+    }
+
     @Test // Test PUT /api/v1/products/{id} - Found case
     void updateProduct_whenProductExists_shouldReturnUpdatedProduct() throws Exception {
         // Arrange: Prepare update data and expected result
@@ -126,7 +315,7 @@ class ProductControllerTest {
         Product productDetails = new Product(null, "Updated Name", "Updated Desc", 99.99);
         Product expectedUpdatedProduct = new Product(existingId, "Updated Name", "Updated Desc", 99.99);
         // Mock the service's update method
-        given(productService.updateProduct(eq(existingId), any(Product.class))).willReturn(Optional.of(expectedUpdatedProduct));
+        given(productService.updateProduct(eq(existingId), any(Product.class), isNull())).willReturn(Optional.of(expectedUpdatedProduct));
 
         // Act & Assert
         mockMvc.perform(put("/api/v1/products/{id}", existingId)
@@ -138,7 +327,20 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.name", is("Updated Name"))); // Check updated name
 
         // Verify service call (check ID and that some product object was passed)
-         then(productService).should(times(1)).updateProduct(eq(existingId), any(Product.class));
+         then(productService).should(times(1)).updateProduct(eq(existingId), any(Product.class), isNull());
+    }
+
+    @Test // Test PUT /api/v1/products/{id} - If-Match carries the version the client read
+    void updateProduct_withStaleIfMatch_shouldReturnPreconditionFailed() throws Exception {
+        Product productDetails = new Product(null, "Updated Name", "Updated Desc", 99.99);
+        given(productService.updateProduct(eq(1L), any(Product.class), eq(2L)))
+                .willThrow(new OptimisticLockingFailureException("Product 1 is at version 3, not 2"));
+
+        mockMvc.perform(put("/api/v1/products/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDetails)))
+                .andExpect(status().isPreconditionFailed());
     }
 
     @Test // Test PUT /api/v1/products/{id} - Not Found case
@@ -146,7 +348,7 @@ class ProductControllerTest {
         // Arrange: Prepare update data and mock service response (empty)
         Long nonExistentId = 99L;
         Product productDetails = new Product(null, "Updated Name", "Updated Desc", 99.99);
-        given(productService.updateProduct(eq(nonExistentId), any(Product.class))).willReturn(Optional.empty());
+        given(productService.updateProduct(eq(nonExistentId), any(Product.class), isNull())).willReturn(Optional.empty());
 
         // Act & Assert
         mockMvc.perform(put("/api/v1/products/{id}", nonExistentId)
@@ -155,9 +357,54 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound()); // Check for HTTP 404
 
         // Verify service call
-        then(productService).should(times(1)).updateProduct(eq(nonExistentId), any(Product.class));
+        then(productService).should(times(1)).updateProduct(eq(nonExistentId), any(Product.class), isNull());
+    }
+
+
+    @Test // Test PATCH /api/v1/products/{id} - only the sent fields reach the service
+    void patchProduct_shouldApplyPartialUpdate() throws Exception {
+        Product patched = new Product(1L, "Test Product 1", null, 12.5);
+        patched.setVersion(4L);
+        given(productService.patchProduct(1L, new ProductPatch(null, true, null, 12.5), 3L)).willReturn(Optional.of(patched));
+
+        mockMvc.perform(patch("/api/v1/products/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(ProductController.APPLICATION_MERGE_PATCH_JSON_VALUE)
+                        .content("{\"price\":12.5,\"description\":null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.price", is(12.5)));
+    }
+
+    @Test // Test PATCH /api/v1/products/{id} - name can't be removed
+    void patchProduct_withNullName_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/v1/products/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":null}"))
+                .andExpect(status().isBadRequest());
+
+        then(productService).should(never()).patchProduct(anyLong(), any(), any());
+    }
+
+    @Test // Test PATCH /api/v1/products/{id} - longer than the varchar(255) column: 400, not a truncated value
+    void patchProduct_withDescriptionLongerThanTheColumn_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/v1/products/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"" + "x".repeat(300) + "\"}"))
+                .andExpect(status().isBadRequest());
+
+        then(productService).should(never()).patchProduct(anyLong(), any(), any());
     }
 
+    @Test // Test PATCH /api/v1/products/{id} - Not Found case
+    void patchProduct_whenProductDoesNotExist_shouldReturnNotFound() throws Exception {
+        given(productService.patchProduct(eq(99L), any(ProductPatch.class), isNull())).willReturn(Optional.empty());
+
+        mockMvc.perform(patch("/api/v1/products/{id}", 99L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":1}"))
+                .andExpect(status().isNotFound());
+    }
 
     @Test // Test DELETE /api/v1/products/{id} - Found case
     void deleteProduct_whenProductExists_shouldReturnNoContent() throws Exception {
@@ -0,0 +1,108 @@
+package com.appababba.product_catalog_api.controller; // Package
+
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.service.CatalogVersion;
+import com.appababba.product_catalog_api.service.ProductJsonCache;
+import com.appababba.product_catalog_api.service.ProductService;
+import com.appababba.product_catalog_api.service.ProductWriteBehindService;
+import com.appababba.product_catalog_api.service.WriteTicket;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.beans.factory.annotation.Autowired; // DI annotation
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest; // Test Spring MVC layer only
+import org.springframework.boot.test.mock.mockito.MockBean; // Create mock bean for dependencies
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType; // For content types like application/json
+import org.springframework.test.web.servlet.MockMvc; // For making mock HTTP requests
+
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.*; // Hamcrest JSON matchers (like is(), hasSize())
+import static org.mockito.ArgumentMatchers.any; // Mockito matchers
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given; // Mockito BDD style setup
+import static org.mockito.BDDMockito.then; // Mockito BDD style verification
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*; // MockMvc request builders (get, post, etc.)
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*; // MockMvc result matchers (status, content, etc.)
+
+// Both product controllers, so the tests also check which one a request is routed to
+@WebMvcTest(controllers = {ProductWriteController.class, ProductController.class},
+        properties = "app.write-behind.enabled=true")
+class ProductWriteControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductWriteBehindService writeBehindService;
+
+    @MockBean
+    private ProductService productService; // Synchronous writes
+
+    @MockBean
+    private CatalogVersion catalogVersion;
+
+    @MockBean
+    private ProductJsonCache productJsonCache;
+
+    @Test // Test PUT /api/v1/products/{id} with "Prefer: respond-async"
+    void updateProduct_withRespondAsync_shouldQueueAndReturnAccepted() throws Exception {
+        WriteTicket ticket = new WriteTicket("t-1", WriteTicket.Operation.UPDATE, 5L);
+        given(writeBehindService.submitUpdate(eq(5L), any())).willReturn(Optional.of(ticket));
+
+        mockMvc.perform(put("/api/v1/products/{id}", 5L)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Lamp\",\"price\":12.0}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, endsWith("/api/v1/products/writes/t-1")))
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.state", is("QUEUED")))
+                .andExpect(jsonPath("$.productId", is(5)));
+
+        then(productService).should(never()).updateProduct(any(), any(), any());
+    }
+
+    @Test // Without the preference, or with If-Match, the write stays synchronous
+    void updateProduct_withoutRespondAsyncOrWithIfMatch_shouldBeSynchronous() throws Exception {
+        given(productService.updateProduct(eq(5L), any(), any())).willReturn(Optional.of(new Product(5L, "Lamp", null, 12.0)));
+
+        mockMvc.perform(put("/api/v1/products/{id}", 5L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Lamp\",\"price\":12.0}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/v1/products/{id}", 5L)
+                        .header("Prefer", "respond-async")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Lamp\",\"price\":12.0}"))
+                .andExpect(status().isOk());
+
+        then(writeBehindService).should(never()).submitUpdate(any(), any());
+    }
+
+    @Test // Full queue -> 503 with Retry-After
+    void createProduct_whenQueueIsFull_shouldReturnServiceUnavailable() throws Exception {
+        given(writeBehindService.submitCreate(any())).willReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/v1/products")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Lamp\",\"price\":12.0}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test // Test GET /api/v1/products/writes/{ticketId}
+    void getWriteTicket_shouldReturnTicketOrNotFound() throws Exception {
+        given(writeBehindService.getTicket("t-1")).willReturn(Optional.of(new WriteTicket("t-1", WriteTicket.Operation.CREATE, null)));
+        given(writeBehindService.getTicket("t-2")).willReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/products/writes/{ticketId}", "t-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.operation", is("CREATE")))
+                .andExpect(jsonPath("$.productId").doesNotExist()); // Known once committed
+        mockMvc.perform(get("/api/v1/products/writes/{ticketId}", "t-2"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,203 @@
+package com.appababba.product_catalog_api.loadtest; // Load tests (run with -Pload-test)
+
+import com.appababba.product_catalog_api.ProductCatalogApiApplication;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.service.ProductBatchService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+
+// Boots the full app twice on an embedded H2 database - once with Tomcat's platform-thread pool, once with the
+// "virtual" profile - and drives both with the same closed-loop workload, then logs p50/p99 and throughput
+// and writes them to target/load-reports/thread-model.txt.
+// H2 answers in microseconds, so every JDBC statement gets an artificial delay to mimic a real database round trip
+// (that is where request threads spend their time in production).
+@Tag("load") // Excluded from the normal build: mvn -Pload-test test
+class ThreadModelLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadModelLoadTest.class);
+
+    static final int CATALOG_SIZE = 5_000;
+    static final int CLIENTS = 400;             // Concurrent connections, each sends its next request when the last one returns
+    static final int WARMUP_REQUESTS = 2_000;
+    static final int MEASURED_REQUESTS = 20_000;
+    static final long DB_LATENCY_MILLIS = 5;    // Added to every statement execution
+
+    @Test
+    void compareVirtualAndPlatformThreads() throws Exception {
+        Result platform = run("platform", false);
+        Result virtual = run("virtual", true);
+
+        StringBuilder table = new StringBuilder(String.format("%-10s %12s %10s %10s %10s %8s",
+                "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors"));
+        for (Result result : List.of(platform, virtual)) {
+            table.append(String.format("%n%-10s %12.0f %10.1f %10.1f %10.1f %8d", result.mode(), result.throughput(),
+                    result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(1.0), result.errors()));
+        }
+        // Logged, and kept next to the workload harness's reports (target/load-reports, or -Dload.report-dir)
+        Path reportDirectory = Path.of(System.getProperty("load.report-dir", "target/load-reports"));
+        Files.createDirectories(reportDirectory);
+        Path report = Files.writeString(reportDirectory.resolve("thread-model.txt"), table + System.lineSeparator());
+        log.info("Thread model comparison ({} clients, {} ms per statement), written to {}:{}{}",
+                CLIENTS, DB_LATENCY_MILLIS, report.toAbsolutePath(), System.lineSeparator(), table);
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+    }
+
+    private Result run(String mode, boolean virtualThreads) throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.appababba.product_catalog_api.loadtest=INFO")); // The results table
+        if (virtualThreads) {
+            args.add("--spring.profiles.active=virtual");
+        }
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(ProductCatalogApiApplication.class, SlowJdbc.class)
+                .run(args.toArray(String[]::new))) {
+            seedCatalog(app);
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient http = HttpClient.newBuilder().executor(clients).build();
+                drive(http, port, WARMUP_REQUESTS, new long[WARMUP_REQUESTS], clients); // JIT, pools, caches
+                long[] latencies = new long[MEASURED_REQUESTS];
+                long started = System.nanoTime();
+                int errors = drive(http, port, MEASURED_REQUESTS, latencies, clients);
+                long elapsed = System.nanoTime() - started;
+                return new Result(mode, latencies, elapsed, errors);
+            }
+        }
+    }
+
+    // CLIENTS closed-loop workers share a request budget; 80% list pages (DB), 20% lookups by id (cache + DB)
+    private int drive(HttpClient http, int port, int requests, long[] latencies, ExecutorService clients) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<?>> workers = IntStream.range(0, CLIENTS).mapToObj(i -> clients.submit(() -> {
+            int slot;
+            while ((slot = next.getAndIncrement()) < requests) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long id = 1 + random.nextInt(CATALOG_SIZE);
+                String path = random.nextInt(10) < 8 ? "/api/v1/products?limit=20&after=" + id : "/api/v1/products/" + id;
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                }
+                latencies[slot] = System.nanoTime() - start;
+            }
+            return null;
+        })).collect(Collectors.toList());
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        return errors.get();
+    }
+
+    private void seedCatalog(ConfigurableApplicationContext app) {
+        List<Product> products = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            products.add(new Product(null, "Product " + i, "Load test product " + i, 1.0 + (i % 500)));
+        }
+        app.getBean(ProductBatchService.class).createProducts(products.iterator());
+    }
+
+    record Result(String mode, long[] latencies, long elapsedNanos, int errors) {
+
+        double throughput() {
+            return latencies.length / (elapsedNanos / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    // Registered as an extra source (not component-scanned): adds DB_LATENCY_MILLIS to every statement execution
+    static class SlowJdbc {
+
+        @Bean
+        static BeanPostProcessor slowJdbcPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? slow(dataSource) : bean;
+                }
+            };
+        }
+
+        private static DataSource slow(DataSource target) {
+            return proxy(DataSource.class, target, (method, result) ->
+                    result instanceof Connection connection ? proxy(Connection.class, connection, SlowJdbc::slowStatement) : result);
+        }
+
+        private static Object slowStatement(Method method, Object result) {
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, (m, r) -> r);
+            }
+            return result instanceof Statement statement ? proxy(Statement.class, statement, (m, r) -> r) : result;
+        }
+
+        // Delegating proxy that sleeps before execute* calls and lets 'wrap' post-process return values
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, BiFunction<Method, Object, Object> wrap) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("execute")) {
+                    Thread.sleep(DB_LATENCY_MILLIS);
+                }
+                try {
+                    return wrap.apply(method, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.appababba.product_catalog_api.repository; // Package declaration
+
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.model.ProductView;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.assertj.core.api.Assertions.tuple;
+
+// The projection queries on an embedded H2 database; a fetch size smaller than the results makes the driver page
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.read.fetch-size=2"
+})
+@Import(ProductViewRepository.class)
+class ProductViewRepositoryTest {
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void forEachAfter_shouldStreamViewsInIdOrderWithoutManagingEntities() {
+        List<Product> saved = productRepository.saveAllAndFlush(List.of(new Product(null, "Lamp", "Desk lamp", 10.0),
+                new Product(null, "Desk", null, 99.0), new Product(null, "Chair", null, 40.0), new Product(null, "Rug", null, 5.0)));
+        entityManager.clear(); // Nothing managed before the read
+
+        List<ProductView> views = new ArrayList<>();
+        int rows = productViewRepository.forEachAfter(saved.get(0).getId(), 2, views::add);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(views).extracting(ProductView::name).containsExactly("Desk", "Chair");
+        assertThat(views.get(0).version()).isZero();
+        assertThat(views.get(0).lastModified()).isNotNull();
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero(); // No entities loaded
+        assertThat(productViewRepository.forEachAfter(saved.get(3).getId(), 2, views::add)).isZero();
+    }
+
+    @Test
+    void findAllById_shouldReturnOnlyExistingProducts() {
+        Product lamp = productRepository.saveAndFlush(new Product(null, "Lamp", "Desk lamp", 10.0));
+
+        assertThat(productViewRepository.findAllById(List.of(lamp.getId(), lamp.getId() + 1000)))
+                .extracting(ProductView::id, ProductView::description)
+                .containsExactly(tuple(lamp.getId(), "Desk lamp"));
+    }
+}
@@ -0,0 +1,91 @@
+package com.appababba.product_catalog_api.search; // Package declaration
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.service.ProductService;
+import org.junit.jupiter.api.BeforeEach; // Setup before each test
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.junit.jupiter.api.extension.ExtendWith; // Use JUnit extensions (like Mockito)
+import org.mockito.Mock; // Create a mock object
+import org.mockito.junit.jupiter.MockitoExtension; // Initialize Mockito for JUnit 5
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.mockito.ArgumentMatchers.any; // Matcher for any object
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.willAnswer; // BDD style stubbing for void methods
+
+@ExtendWith(MockitoExtension.class) // Enable Mockito
+class ProductSearchIndexTest {
+
+    @Mock // Only used for the startup build
+    private ProductService productService;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productService);
+        index.index(new Product(1L, "Blue Widget", "A small widget for the kitchen", 9.99));
+        index.index(new Product(2L, "Red Gadget", "Pairs well with a blue widget", 19.99));
+        index.index(new Product(3L, "Wi-Fi Router", "Dual band", 49.00));
+    }
+
+    @Test
+    void search_shouldRankNameMatchesAboveDescriptionMatches() {
+        List<ProductSearchHit> hits = index.search("blue widget", 10);
+
+        assertThat(hits).extracting(ProductSearchHit::id).containsExactly(1L, 2L);
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+        assertThat(hits.get(0).price()).isEqualTo(9.99); // Stored fields come back with the hit
+    }
+
+    @Test
+    void search_shouldMatchPrefixesForTypeahead() {
+        assertThat(index.search("wid", 10)).extracting(ProductSearchHit::id).containsExactly(1L, 2L);
+        assertThat(index.search("rou", 10)).extracting(ProductSearchHit::id).containsExactly(3L);
+        assertThat(index.search("WI-FI", 10)).extracting(ProductSearchHit::id).containsExactly(3L); // Same tokenizer as indexing
+    }
+
+    @Test
+    void search_shouldRequireEveryToken() {
+        assertThat(index.search("red widget", 10)).extracting(ProductSearchHit::id).containsExactly(2L);
+        assertThat(index.search("red router", 10)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void onProductChanged_shouldReplaceAndRemoveDocuments() {
+        // Rename product 1: old terms must no longer match it
+        index.onProductChanged(ProductChangedEvent.updated(new Product(1L, "Green Lamp", null, 5.0)));
+        assertThat(index.search("blue", 10)).extracting(ProductSearchHit::id).containsExactly(2L);
+        assertThat(index.search("lamp", 10)).extracting(ProductSearchHit::id).containsExactly(1L);
+
+        index.onProductChanged(ProductChangedEvent.deleted(1L));
+        assertThat(index.search("lamp", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuild_shouldLoadCatalogButKeepNewerWrites() {
+        // Arrange: while the startup walk runs, product 4 is updated through the event path
+        ProductSearchIndex fresh = new ProductSearchIndex(productService);
+        willAnswer(invocation -> {
+            fresh.index(new Product(4L, "Fresh Name", null, 1.0)); // Committed write arrives mid-build
+            Consumer<List<Product>> pageConsumer = invocation.getArgument(2);
+            pageConsumer.accept(List.of(new Product(4L, "Stale Name", null, 1.0), new Product(5L, "Other", null, 2.0)));
+            return null;
+        }).given(productService).forEachProductPage(isNull(), anyInt(), any());
+
+        // Act
+        fresh.rebuild();
+
+        // Assert
+        assertThat(fresh.search("fresh", 10)).extracting(ProductSearchHit::id).containsExactly(4L);
+        assertThat(fresh.search("stale", 10)).isEmpty();
+        assertThat(fresh.search("other", 10)).extracting(ProductSearchHit::id).containsExactly(5L);
+    }
+}
@@ -0,0 +1,135 @@
+package com.appababba.product_catalog_api.service; // Package declaration
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.repository.ProductRepository;
+import com.appababba.product_catalog_api.service.BatchItemResult.Status;
+import com.appababba.product_catalog_api.sharding.ShardedProductStore;
+import org.junit.jupiter.api.BeforeEach; // Setup before each test
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.junit.jupiter.api.extension.ExtendWith; // Use JUnit extensions (like Mockito)
+import org.mockito.Mock; // Create a mock object
+import org.mockito.junit.jupiter.MockitoExtension; // Initialize Mockito for JUnit 5
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.mockito.ArgumentMatchers.any; // Matcher for any object
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given; // BDD style for setting up mocks
+import static org.mockito.BDDMockito.then; // BDD style for verifying mocks
+import static org.mockito.Mockito.*; // Include core Mockito static methods
+
+@ExtendWith(MockitoExtension.class) // Enable Mockito
+class ProductBatchServiceTest {
+
+    @Mock // Mock the repository dependency
+    private ProductRepository productRepository;
+
+    @Mock // Each chunk asks the transaction manager for a new transaction
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache productCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductBatchService productBatchService;
+
+    @BeforeEach
+    void setUp() {
+        given(cacheManager.getCache("products")).willReturn(productCache);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Chunks of 2 so small inputs exercise the chunking
+        productBatchService = new ProductBatchService(productRepository, transactionManager, cacheManager, eventPublisher,
+                ShardedProductStore.disabled(), 2);
+    }
+
+    @Test
+    void createProducts_shouldPersistValidItemsInChunksAndReportInvalidOnes() {
+        // Arrange: three valid products and one without a price
+        Product a = new Product(null, "A", null, 1.0);
+        Product invalid = new Product(null, "B", null, null);
+        Product c = new Product(null, "C", null, 3.0);
+        Product d = new Product(null, "D", null, 4.0);
+        given(productRepository.saveAll(anyList())).willAnswer(invocation -> {
+            List<Product> chunk = invocation.getArgument(0);
+            chunk.forEach(p -> p.setId((long) p.getName().charAt(0))); // Fake sequence ids
+            return chunk;
+        });
+
+        // Act
+        List<BatchItemResult> results = productBatchService.createProducts(Arrays.asList(a, invalid, c, d).iterator());
+
+        // Assert: results line up with the request positions
+        assertThat(results).extracting(BatchItemResult::status)
+                .containsExactly(Status.CREATED, Status.INVALID, Status.CREATED, Status.CREATED);
+        assertThat(results).extracting(BatchItemResult::index).containsExactly(0, 1, 2, 3);
+        assertThat(results.get(1).error()).isEqualTo("price is required");
+        assertThat(results.get(3).id()).isEqualTo((long) 'D');
+        then(productRepository).should(times(2)).saveAll(anyList()); // One call per chunk of 2
+        then(transactionManager).should(times(2)).commit(any());
+    }
+
+    @Test
+    void createProducts_whenChunkFails_shouldMarkOnlyThatChunkFailed() {
+        // Arrange: first chunk succeeds, second one hits a database error
+        given(productRepository.saveAll(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0))
+                .willThrow(new DataIntegrityViolationException("boom"));
+
+        // Act
+        List<BatchItemResult> results = productBatchService.createProducts(List.of(
+                new Product(null, "A", null, 1.0), new Product(null, "B", null, 2.0),
+                new Product(null, "C", null, 3.0)).iterator());
+
+        // Assert
+        assertThat(results).extracting(BatchItemResult::status)
+                .containsExactly(Status.CREATED, Status.CREATED, Status.FAILED);
+        assertThat(results.get(2).error()).isEqualTo("boom");
+    }
+
+    @Test
+    void updateProducts_shouldUpdateFoundProductsAndReportMissingOnes() {
+        // Arrange: only product 1 exists
+        Product existing = new Product(1L, "Old", "Old desc", 1.0);
+        given(productRepository.findAllById(any())).willReturn(List.of(existing));
+
+        // Act
+        List<BatchItemResult> results = productBatchService.updateProducts(List.of(
+                new Product(1L, "New", "New desc", 2.0), new Product(99L, "X", null, 1.0)).iterator());
+
+        // Assert: managed entity was changed in place (flushed as an UPDATE at commit)
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(Status.UPDATED, Status.NOT_FOUND);
+        assertThat(existing.getName()).isEqualTo("New");
+        assertThat(existing.getPrice()).isEqualTo(2.0);
+        then(productCache).should().evict(1L);
+        then(productCache).should(never()).evict(99L);
+        then(eventPublisher).should().publishEvent(ProductChangedEvent.updated(existing));
+    }
+
+    @Test
+    void deleteProducts_shouldDeleteExistingIdsWithOneStatementPerChunk() {
+        // Arrange
+        given(productRepository.findExistingIds(any())).willReturn(List.of(1L));
+
+        // Act
+        List<BatchItemResult> results = productBatchService.deleteProducts(List.of(1L, 2L).iterator());
+
+        // Assert
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(Status.DELETED, Status.NOT_FOUND);
+        then(productRepository).should(times(1)).deleteAllByIdInBatch(argThat(ids -> ids.iterator().next().equals(1L)));
+        then(productCache).should().evict(1L);
+    }
+}
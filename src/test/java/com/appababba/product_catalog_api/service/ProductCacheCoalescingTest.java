@@ -0,0 +1,150 @@
+package com.appababba.product_catalog_api.service; // Package declaration
+
+import com.appababba.product_catalog_api.config.CacheConfig;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.repository.ProductRepository;
+import com.appababba.product_catalog_api.repository.ProductViewRepository;
+import com.appababba.product_catalog_api.sharding.ShardedProductStore;
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+// Just the cache setup and the service, so the real @Cacheable proxy and Caffeine cache sit in front of a mock repository
+@SpringJUnitConfig({CacheConfig.class, ProductService.class})
+@TestPropertySource(properties = {
+        "app.cache.products.spec=maximumSize=100,expireAfterWrite=10m,refreshAfterWrite=1s",
+        "app.cache.products.missing-ttl=500ms"
+})
+class ProductCacheCoalescingTest {
+
+    private static final int CALLERS = 32;
+
+    @MockBean
+    private ProductRepository productRepository;
+
+    @MockBean(name = "catalogSnapshot") // Referenced by name in the @Cacheable condition; not serving
+    private CatalogSnapshot catalogSnapshot;
+
+    @MockBean // Sharding off
+    private ShardedProductStore shardedProductStore;
+
+    @MockBean
+    private ProductViewRepository productViewRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void concurrentMisses_shouldShareOneQuery() throws Exception {
+        Product product = new Product(1L, "Viral Widget", null, 9.99);
+        CountDownLatch release = new CountDownLatch(1);
+        given(productRepository.findById(1L)).willAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS); // Hold the query open until every caller is waiting
+            return Optional.of(product);
+        });
+
+        AtomicReferenceArray<Optional<Product>> results = new AtomicReferenceArray<>(CALLERS);
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            int caller = i;
+            callers.add(Thread.ofPlatform().start(() -> results.set(caller, productService.getProductById(1L))));
+        }
+        // One caller is inside the query, the rest are parked on its in-flight load
+        awaitAllParked(callers);
+        release.countDown();
+        for (Thread caller : callers) {
+            caller.join(10_000);
+        }
+
+        for (int i = 0; i < CALLERS; i++) {
+            assertThat(results.get(i)).contains(product);
+        }
+        then(productRepository).should(times(1)).findById(1L);
+    }
+
+    @Test
+    void concurrentMissesForUnknownId_shouldShareOneQueryAndExpireSoon() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        given(productRepository.findById(3L)).willAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        AtomicReferenceArray<Optional<Product>> results = new AtomicReferenceArray<>(CALLERS);
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            int caller = i;
+            callers.add(Thread.ofPlatform().start(() -> results.set(caller, productService.getProductById(3L))));
+        }
+        awaitAllParked(callers);
+        release.countDown();
+        for (Thread caller : callers) {
+            caller.join(10_000);
+        }
+
+        for (int i = 0; i < CALLERS; i++) {
+            assertThat(results.get(i)).isEmpty();
+        }
+        assertThat(productService.getProductById(3L)).isEmpty(); // Answered by the cached 'not found'
+        then(productRepository).should(times(1)).findById(3L); // The loader's answer is final: no second query
+
+        // Created elsewhere (another instance): found once the 'not found' entry has expired
+        Product created = new Product(3L, "Late Widget", null, 5.0);
+        given(productRepository.findById(3L)).willReturn(Optional.of(created));
+        Thread.sleep(600); // Past missing-ttl
+        assertThat(productService.getProductById(3L)).contains(created);
+    }
+
+    @Test
+    void refreshAfterWrite_shouldServeTheStaleProductWhileReloading() throws Exception {
+        Product original = new Product(2L, "Lamp", null, 20.0);
+        Product repriced = new Product(2L, "Lamp", null, 25.0);
+        CountDownLatch release = new CountDownLatch(1);
+        given(productRepository.findById(2L))
+                .willReturn(Optional.of(original))
+                .willAnswer(invocation -> {
+                    release.await(10, TimeUnit.SECONDS); // A slow background reload
+                    return Optional.of(repriced);
+                });
+        assertThat(productService.getProductById(2L)).contains(original); // Loaded on the miss
+
+        Thread.sleep(1_100); // Past refreshAfterWrite
+        // The reload is still blocked, yet the read returns at once with what the cache had
+        assertThat(productService.getProductById(2L)).contains(original);
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (productService.getProductById(2L).orElseThrow().getPrice() != 25.0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(productService.getProductById(2L)).contains(repriced);
+        then(productRepository).should(times(2)).findById(2L); // Initial load + one refresh, never per request
+    }
+
+    private static void awaitAllParked(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!threads.stream().allMatch(ProductCacheCoalescingTest::parked) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static boolean parked(Thread thread) {
+        Thread.State state = thread.getState();
+        return state == Thread.State.BLOCKED || state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING;
+    }
+}
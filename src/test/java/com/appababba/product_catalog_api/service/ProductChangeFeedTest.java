@@ -0,0 +1,150 @@
+package com.appababba.product_catalog_api.service; // Package declaration
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.model.ProductChange;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.web.servlet.MockMvc; // Drives the long-poll endpoint
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Outbox and feed end to end on an in-memory H2 database
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:changes;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.minimum-idle=1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.changes.poll-interval=200ms"
+})
+@AutoConfigureMockMvc
+class ProductChangeFeedTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void writes_shouldBeLoggedWithConsecutiveSequenceNumbers() {
+        long head = productChangeLog.lastSequence();
+
+        Product a = productService.createProduct(new Product(null, "Log A", null, 1.0));
+        productService.createProduct(new Product(null, "Log B", null, 2.0));
+        productService.deleteProduct(a.getId());
+
+        ProductChangeBatch batch = productChangeLog.changesSince(head, 10);
+        assertThat(batch.changes()).extracting(ProductChange::getSequence).containsExactly(head + 1, head + 2, head + 3);
+        assertThat(batch.changes()).extracting(ProductChange::getType).containsExactly(
+                ProductChangedEvent.Type.CREATED, ProductChangedEvent.Type.CREATED, ProductChangedEvent.Type.DELETED);
+        assertThat(batch.changes().get(1).getName()).isEqualTo("Log B"); // State after the change travels with it
+        assertThat(batch.lastSequence()).isEqualTo(head + 3);
+        assertThat(batch.hasMore()).isFalse();
+    }
+
+    @Test
+    void rolledBackWrite_shouldNotBeLogged() {
+        long head = productChangeLog.lastSequence();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productService.createProduct(new Product(null, "Never committed", null, 1.0));
+            status.setRollbackOnly();
+        });
+
+        assertThat(productChangeLog.lastSequence()).isEqualTo(head);
+        assertThat(productChangeLog.changesSince(head, 10).changes()).isEmpty();
+    }
+
+    @Test
+    void longPoll_shouldCompleteWhenTheNextChangeCommits() throws Exception {
+        long head = productChangeLog.lastSequence();
+        MvcResult pending = mockMvc.perform(get("/api/v1/products/changes")
+                        .param("since", Long.toString(head)).param("wait", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        productService.createProduct(new Product(null, "Long-polled", null, 3.0));
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.length()", is(1)))
+                .andExpect(jsonPath("$.changes[0].name", is("Long-polled")))
+                .andExpect(jsonPath("$.lastSequence", is((int) head + 1)));
+    }
+
+    @Test
+    void longPoll_whenChangesWerePruned_shouldReturnGone() throws Exception {
+        productService.createProduct(new Product(null, "Soon pruned", null, 4.0));
+        productChangeLog.pruneOlderThan(Instant.now().plus(1, ChronoUnit.MINUTES)); // Everything
+
+        MvcResult result = mockMvc.perform(get("/api/v1/products/changes").param("since", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @Timeout(30) // The stream itself never ends
+    void serverSentEvents_shouldStreamCommittedChanges() throws Exception {
+        long head = productChangeLog.lastSequence();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/products/changes?since=" + head))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        productService.createProduct(new Product(null, "Streamed", null, 5.0));
+
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            String id = null;
+            String line;
+            while ((line = events.readLine()) != null) {
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("data:") && line.contains("Streamed")) {
+                    break;
+                }
+            }
+            assertThat(line).contains("\"type\":\"CREATED\"");
+            assertThat(id).isEqualTo(Long.toString(head + 1)); // Resume point for Last-Event-ID
+        }
+    }
+}
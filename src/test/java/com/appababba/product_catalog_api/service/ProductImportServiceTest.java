@@ -0,0 +1,182 @@
+package com.appababba.product_catalog_api.service; // Package declaration
+
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.service.BatchItemResult.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach; // Setup before each test
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.junit.jupiter.api.extension.ExtendWith; // Use JUnit extensions (like Mockito)
+import org.mockito.Mock; // Create a mock object
+import org.mockito.junit.jupiter.MockitoExtension; // Initialize Mockito for JUnit 5
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.mockito.ArgumentMatchers.any; // Matcher for any object
+import static org.mockito.BDDMockito.given; // BDD style for setting up mocks
+
+@ExtendWith(MockitoExtension.class) // Enable Mockito
+class ProductImportServiceTest {
+
+    @Mock // Persist stage writes through the batch service
+    private ProductBatchService productBatchService;
+
+    private ProductImportService productImportService;
+
+    private final List<Product> persisted = new CopyOnWriteArrayList<>(); // What reached the "database"
+
+    @BeforeEach
+    void setUp() {
+        // Tiny queues and chunks so the test exercises backpressure and chunking
+        productImportService = new ProductImportService(productBatchService, new ObjectMapper(), 1, 2, 2, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productImportService.shutdown();
+    }
+
+    @Test
+    void importProducts_csv_shouldPersistValidRowsAndReportRejectedLines() throws Exception {
+        // Arrange: quoted fields with commas, escaped quotes and an embedded newline, plus two bad rows
+        persistEverything();
+        String csv = """
+                id,name,description,price
+                1,Widget,"Small, blue",9.99
+                2,"Gadget ""Pro""\",\"Line one
+                line two",19.5
+                3,,No name,5
+                4,Gizmo,,abc
+                5,Thing,,1
+                """;
+
+        // Act
+        ImportJob job = productImportService.importProducts(stream(csv), ProductImportService.Format.CSV).orElseThrow();
+        awaitFinished(job);
+
+        // Assert
+        assertThat(job.getState()).isEqualTo(ImportJob.State.COMPLETED);
+        assertThat(job.getRowsRead()).isEqualTo(5);
+        assertThat(job.getRowsImported()).isEqualTo(3);
+        assertThat(job.getRowsRejected()).isEqualTo(2);
+        assertThat(job.getRejections()).extracting(ImportJob.Rejection::line).containsExactlyInAnyOrder(5L, 6L);
+        assertThat(persisted).extracting(Product::getName).containsExactly("Widget", "Gadget \"Pro\"", "Thing");
+        assertThat(persisted.get(0).getDescription()).isEqualTo("Small, blue");
+        assertThat(persisted.get(1).getDescription()).isEqualTo("Line one\nline two");
+        assertThat(persisted).allMatch(product -> product.getId() == null); // Ids come from the sequence
+    }
+
+    @Test
+    void importProducts_csvWithUnterminatedQuoteOrOverlongRecord_shouldRejectThatLineAndCarryOn() throws Exception {
+        // Arrange: lines 3 and 7 open a quote that is never closed (the first runs into line 5, which is longer
+        // than a record may be; the second into the end of the input)
+        persistEverything();
+        String csv = "id,name,description,price\n"
+                + "1,Widget,,9.99\n"
+                + "2,Broken,\"no closing quote,1\n"
+                + "3,Gadget,,19.5\n"
+                + "4,Huge," + "x".repeat(CsvProductReader.MAX_RECORD_LENGTH) + ",1\n"
+                + "5,Thing,,1\n"
+                + "6,Last,\"open,1\n";
+
+        // Act
+        ImportJob job = productImportService.importProducts(stream(csv), ProductImportService.Format.CSV).orElseThrow();
+        awaitFinished(job);
+
+        // Assert: each bad record costs its own line only, reading resumes on the next one
+        assertThat(job.getState()).isEqualTo(ImportJob.State.COMPLETED);
+        assertThat(job.getRejections()).extracting(ImportJob.Rejection::line).containsExactlyInAnyOrder(3L, 5L, 7L);
+        assertThat(job.getRejections()).extracting(ImportJob.Rejection::reason)
+                .anyMatch(reason -> reason.contains("unterminated quoted field"))
+                .anyMatch(reason -> reason.equals("record is longer than " + CsvProductReader.MAX_RECORD_LENGTH + " characters"))
+                .anyMatch(reason -> reason.contains("not closed before the end of the input"));
+        assertThat(persisted).extracting(Product::getName).containsExactly("Widget", "Gadget", "Thing");
+    }
+
+    @Test
+    void importProducts_ndjson_shouldRejectMalformedLinesWithoutStopping() throws Exception {
+        // Arrange
+        persistEverything();
+        String ndjson = """
+                {"name":"A","price":1.0}
+                {broken
+                {"name":"B"}
+
+                {"name":"C","price":3.0,"description":"c"}
+                """;
+
+        // Act
+        ImportJob job = productImportService.importProducts(stream(ndjson), ProductImportService.Format.NDJSON).orElseThrow();
+        awaitFinished(job);
+
+        // Assert
+        assertThat(job.getState()).isEqualTo(ImportJob.State.COMPLETED);
+        assertThat(job.getRowsImported()).isEqualTo(2);
+        assertThat(job.getRejections()).extracting(ImportJob.Rejection::line).containsExactly(2L, 3L);
+        assertThat(job.getRejections().get(1).reason()).isEqualTo("price is required");
+        assertThat(productImportService.getJob(job.getId())).contains(job);
+    }
+
+    @Test
+    void importProducts_ndjsonWithOverlongLine_shouldRejectThatLineAndCarryOn() throws Exception {
+        // Arrange: line 2 is longer than a line may be, line 4 ends the input without a newline
+        persistEverything();
+        String ndjson = "{\"name\":\"A\",\"price\":1.0}\r\n"
+                + "{\"name\":\"Huge\",\"description\":\"" + "x".repeat(CsvProductReader.MAX_RECORD_LENGTH) + "\",\"price\":1.0}\n"
+                + "{\"name\":\"B\",\"price\":2.0}\n"
+                + "{\"name\":\"C\",\"price\":3.0}";
+
+        // Act
+        ImportJob job = productImportService.importProducts(stream(ndjson), ProductImportService.Format.NDJSON).orElseThrow();
+        awaitFinished(job);
+
+        // Assert: only the long line is lost, reading resumes right after it
+        assertThat(job.getState()).isEqualTo(ImportJob.State.COMPLETED);
+        assertThat(job.getRejections()).extracting(ImportJob.Rejection::line).containsExactly(2L);
+        assertThat(job.getRejections().get(0).reason()).isEqualTo("line is longer than " + CsvProductReader.MAX_RECORD_LENGTH + " characters");
+        assertThat(persisted).extracting(Product::getName).containsExactly("A", "B", "C");
+    }
+
+    @Test
+    void importProducts_csvWithoutRequiredHeader_shouldFailJob() throws Exception {
+        // Act
+        ImportJob job = productImportService.importProducts(stream("title,cost\nA,1\n"), ProductImportService.Format.CSV).orElseThrow();
+        awaitFinished(job);
+
+        // Assert
+        assertThat(job.getState()).isEqualTo(ImportJob.State.FAILED);
+        assertThat(job.isUploadComplete()).isFalse();
+        assertThat(job.getError()).contains("'name' and 'price'");
+    }
+
+    // Batch service mock that "inserts" every product it is given
+    private void persistEverything() {
+        given(productBatchService.createProducts(any())).willAnswer(invocation -> {
+            Iterator<Product> products = invocation.getArgument(0);
+            List<BatchItemResult> results = new ArrayList<>();
+            while (products.hasNext()) {
+                persisted.add(products.next());
+                results.add(BatchItemResult.ok(results.size(), (long) persisted.size(), Status.CREATED));
+            }
+            return results;
+        });
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Validate/persist stages finish on background threads
+    private static void awaitFinished(ImportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (job.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
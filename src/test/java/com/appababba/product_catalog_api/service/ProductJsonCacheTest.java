@@ -0,0 +1,92 @@
+package com.appababba.product_catalog_api.service; // Package declaration
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach; // Setup before each test
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.junit.jupiter.api.extension.ExtendWith; // Use JUnit extensions (like Mockito)
+import org.mockito.Mock; // Create a mock object
+import org.mockito.junit.jupiter.MockitoExtension; // Initialize Mockito for JUnit 5
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.mockito.BDDMockito.given; // BDD style for setting up mocks
+import static org.mockito.BDDMockito.then; // BDD style for verifying mocks
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class) // Enable Mockito
+class ProductJsonCacheTest {
+
+    @Mock // Loads misses
+    private ProductService productService;
+
+    @Mock // Not serving
+    private CatalogSnapshot catalogSnapshot;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build(); // Like the app's mapper
+    private ProductJsonCache productJsonCache;
+
+    @BeforeEach
+    void setUp() {
+        productJsonCache = new ProductJsonCache(productService, catalogSnapshot, objectMapper, true, "maximumSize=100");
+    }
+
+    @Test
+    void getProductJson_shouldEncodeOnceAndServeTheBytesAfterwards() throws Exception {
+        Product lamp = product(1L, "Lamp", 3L);
+        given(productService.getProductById(1L)).willReturn(Optional.of(lamp));
+
+        ProductJsonCache.ProductJson first = productJsonCache.getProductJson(1L).orElseThrow();
+        ProductJsonCache.ProductJson second = productJsonCache.getProductJson(1L).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.json()).isEqualTo(objectMapper.writeValueAsBytes(lamp)); // What the converter would write
+        assertThat(first.version()).isEqualTo(3L);
+        then(productService).should(times(1)).getProductById(1L);
+    }
+
+    @Test
+    void writes_shouldReplaceEntriesButNeverWithAnOlderVersion() {
+        productJsonCache.onProductChanged(ProductChangedEvent.updated(product(1L, "Lamp v5", 5L)));
+        productJsonCache.json(product(1L, "Lamp v4", 4L)); // A reader that fetched the row before the write
+
+        assertThat(json(productJsonCache.getProductJson(1L).orElseThrow())).contains("Lamp v5");
+
+        productJsonCache.onProductChanged(ProductChangedEvent.deleted(1L));
+        productJsonCache.json(product(1L, "Lamp v5", 5L)); // ...or before the delete
+
+        assertThat(productJsonCache.getProductJson(1L)).isEmpty(); // Tombstone, no query
+        then(productService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void arrayOf_shouldJoinCachedElementsThatMatchTheRows() throws Exception {
+        Product lamp = product(1L, "Lamp", 1L);
+        Product desk = product(2L, "Desk", 1L);
+        productJsonCache.onProductChanged(ProductChangedEvent.updated(lamp));
+        productJsonCache.onProductChanged(ProductChangedEvent.updated(product(2L, "Desk (newer)", 2L)));
+
+        byte[] array = productJsonCache.arrayOf(List.of(lamp, desk)); // The page still has desk at version 1
+
+        assertThat(array).isEqualTo(objectMapper.writeValueAsBytes(List.of(lamp, desk)));
+        assertThat(new String(productJsonCache.arrayOf(List.of()), StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    private static Product product(Long id, String name, Long version) {
+        Product product = new Product(id, name, "Description of " + name, 10.0);
+        product.setVersion(version);
+        product.setLastModified(Instant.parse("2024-05-01T10:00:00Z").plusSeconds(version));
+        return product;
+    }
+
+    private static String json(ProductJsonCache.ProductJson productJson) {
+        return new String(productJson.json(), StandardCharsets.UTF_8);
+    }
+}
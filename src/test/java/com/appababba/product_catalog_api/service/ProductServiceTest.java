@@ -1,22 +1,40 @@
 package com.appababba.product_catalog_api.service; // Package declaration
 
+import com.appababba.product_catalog_api.event.ProductChangedEvent;
 import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.model.ProductView;
+import com.appababba.product_catalog_api.pagination.ProductCursor;
+import com.appababba.product_catalog_api.pagination.ProductPage;
+import com.appababba.product_catalog_api.pagination.ProductSort;
 import com.appababba.product_catalog_api.repository.ProductRepository;
+import com.appababba.product_catalog_api.repository.ProductViewRepository;
+import com.appababba.product_catalog_api.sharding.ShardedProductStore;
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot;
 import org.junit.jupiter.api.BeforeEach; // Setup before each test
 import org.junit.jupiter.api.Test; // Marks a test method
 import org.junit.jupiter.api.extension.ExtendWith; // Use JUnit extensions (like Mockito)
 import org.mockito.InjectMocks; // Auto-inject mocks into the test subject
 import org.mockito.Mock; // Create a mock object
 import org.mockito.junit.jupiter.MockitoExtension; // Initialize Mockito for JUnit 5
+import org.springframework.context.ApplicationEventPublisher; // Write notifications
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit; // Row limit for keyset queries
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.assertj.core.api.Assertions.assertThatThrownBy; // Exception assertions
 // import static org.junit.jupiter.api.Assertions.*; // Alternative: JUnit assertions
 import static org.mockito.ArgumentMatchers.any; // Matcher for any object
 import static org.mockito.ArgumentMatchers.anyLong; // Matcher for any long
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given; // BDD style for setting up mocks
 import static org.mockito.BDDMockito.then; // BDD style for verifying mocks
 import static org.mockito.Mockito.*; // Include core Mockito static methods
@@ -28,6 +46,18 @@ class ProductServiceTest {
     @Mock // Mock the repository dependency
     private ProductRepository productRepository;
 
+    @Mock // Writes publish ProductChangedEvent
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock // Not serving unless a test says so, i.e. reads go to the repository
+    private CatalogSnapshot catalogSnapshot;
+
+    @Mock // Sharding off (isEnabled() is false), i.e. the repository holds the products
+    private ShardedProductStore shardedProductStore;
+
+    @Mock // Export and multi-get rows
+    private ProductViewRepository productViewRepository;
+
     @InjectMocks // Create ProductService instance and inject the mock repository
     private ProductService productService;
 
@@ -58,6 +88,91 @@ class ProductServiceTest {
         then(productRepository).should(times(1)).findAll();
     }
 
+    @Test
+    void getProductsPage_whenMoreRowsExist_shouldReturnPageAndNextCursor() {
+        // Arrange: repository returns limit + 1 rows, meaning there is another page
+        Product product3 = new Product(3L, "Test Product 3", "Description 3", 7.25);
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .willReturn(Arrays.asList(product1, product2, product3));
+
+        // Act
+        ProductPage page = productService.getProductsPage(null, 2);
+
+        // Assert: only 'limit' rows come back and the cursor points after the last one
+        assertThat(page.items()).containsExactly(product1, product2);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(ProductCursor.decode(page.nextCursor()).getLastId()).isEqualTo(2L);
+        then(productRepository).should(never()).findAll(); // No full-table load
+    }
+
+    @Test
+    void getProductsPage_onLastPage_shouldHaveNoNextCursor() {
+        // Arrange
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(3)))
+                .willReturn(List.of(product2));
+
+        // Act
+        ProductPage page = productService.getProductsPage(1L, 2);
+
+        // Assert
+        assertThat(page.items()).containsExactly(product2);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void findProducts_byPriceAscending_shouldUsePriceIdKeysetAndPriceCursor() {
+        // Arrange: first page (no cursor) starts below the smallest possible (price, id)
+        Product product3 = new Product(3L, "Test Product 3", "Description 3", 25.50);
+        given(productRepository.findPriceRangeAscending(10.0, 50.0, -Double.MAX_VALUE, Long.MIN_VALUE, Limit.of(3)))
+                .willReturn(Arrays.asList(product1, product2, product3));
+
+        // Act
+        ProductPage page = productService.findProducts(10.0, 50.0, ProductSort.PRICE_ASC, null, 2);
+
+        // Assert: next cursor carries the last (price, id) pair
+        assertThat(page.items()).containsExactly(product1, product2);
+        ProductCursor next = ProductCursor.decode(page.nextCursor());
+        assertThat(next.getLastPrice()).isEqualTo(25.50);
+        assertThat(next.getLastId()).isEqualTo(2L);
+    }
+
+    @Test
+    void findProducts_byPriceDescendingWithCursor_shouldContinueAfterCursor() {
+        // Arrange: open-ended range, continuing after (25.50, id 2)
+        given(productRepository.findPriceRangeDescending(-Double.MAX_VALUE, Double.MAX_VALUE, 25.50, 2L, Limit.of(11)))
+                .willReturn(List.of(product1));
+
+        // Act
+        ProductPage page = productService.findProducts(null, null, ProductSort.PRICE_DESC, ProductCursor.after(25.50, 2L), 10);
+
+        // Assert
+        assertThat(page.items()).containsExactly(product1);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void findProducts_withCursorFromOtherSortOrder_shouldBeRejected() {
+        assertThatThrownBy(() -> productService.findProducts(null, null, ProductSort.PRICE_ASC, ProductCursor.after(5L), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        then(productRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void forEachProductPage_shouldWalkCatalogInKeysetBatches() {
+        // Arrange: a full batch, then a short one that ends the walk
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(1))).willReturn(List.of(product1));
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(1))).willReturn(List.of(product2));
+        given(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(1))).willReturn(List.of());
+        List<Product> streamed = new ArrayList<>();
+
+        // Act
+        productService.forEachProductPage(null, 1, streamed::addAll);
+
+        // Assert
+        assertThat(streamed).containsExactly(product1, product2);
+        then(productRepository).should(times(3)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
     @Test
     void getProductById_whenProductExists_shouldReturnProduct() {
         // Arrange
@@ -72,6 +187,20 @@ class ProductServiceTest {
         then(productRepository).should(times(1)).findById(1L); // Check findById call
     }
 
+    @Test
+    void getProductById_inSnapshotMode_shouldNotTouchTheRepository() {
+        // Arrange
+        given(catalogSnapshot.isServing()).willReturn(true);
+        given(catalogSnapshot.findById(1L)).willReturn(Optional.of(product1));
+
+        // Act
+        Optional<Product> foundProductOpt = productService.getProductById(1L);
+
+        // Assert
+        assertThat(foundProductOpt).contains(product1);
+        then(productRepository).shouldHaveNoInteractions();
+    }
+
     @Test
     void getProductById_whenProductDoesNotExist_shouldReturnEmpty() {
         // Arrange
@@ -85,6 +214,68 @@ class ProductServiceTest {
         then(productRepository).should(times(1)).findById(99L);
     }
 
+    @Test
+    void getProductsByIds_shouldQueryInChunksAndKeepRequestOrder() {
+        // Arrange: 1,200 distinct ids (1..1200) requested backwards, plus a duplicate; only 2 and 1 exist
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1_200; id >= 1; id--) {
+            ids.add(id);
+        }
+        ids.add(2L);
+        given(productViewRepository.findAllById(any())).willReturn(List.of());
+        given(productViewRepository.findAllById(argThat(chunk -> chunk.contains(1L))))
+                .willReturn(List.of(ProductView.of(product1), ProductView.of(product2)));
+
+        // Act
+        ProductLookup lookup = productService.getProductsByIds(ids);
+
+        // Assert
+        assertThat(lookup.products()).extracting(ProductView::id).containsExactly(2L, 1L); // Request order, not the database's
+        assertThat(lookup.missing()).hasSize(1_198).startsWith(1_200L, 1_199L).endsWith(3L);
+        then(productViewRepository).should(times(3)).findAllById(any()); // 500 + 500 + 200 ids
+        then(productViewRepository).should().findAllById(argThat(chunk -> chunk.size() == 200));
+        then(productRepository).shouldHaveNoInteractions(); // No entities
+    }
+
+    @Test
+    void forEachProductView_shouldReadChunksUntilAShortOne() {
+        // Chunks of 2: ids 1, 2 then 3, then nothing more to ask for
+        boolean[] inReadTransaction = {false};
+        given(productViewRepository.forEachAfter(anyLong(), eq(2), any())).willAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            Consumer<ProductView> consumer = invocation.getArgument(2);
+            int rows = 0;
+            inReadTransaction[0] = true;
+            for (long id = after + 1; id <= 3 && rows < 2; id++, rows++) {
+                consumer.accept(new ProductView(id, "P" + id, null, 1.0, 0L, null));
+            }
+            inReadTransaction[0] = false;
+            return rows;
+        });
+        List<Long> streamed = new ArrayList<>();
+
+        productService.forEachProductView(null, 2, view -> {
+            assertThat(inReadTransaction[0]).as("written after the chunk's transaction").isFalse();
+            streamed.add(view.id());
+        });
+
+        assertThat(streamed).containsExactly(1L, 2L, 3L);
+        then(productViewRepository).should().forEachAfter(eq(2L), eq(2), any()); // Continues after the last id
+        then(productViewRepository).should(times(2)).forEachAfter(anyLong(), eq(2), any());
+        then(productRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void getProductsByIds_withTooManyIds_shouldThrow() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= ProductService.MAX_LOOKUP_IDS + 1; id++) {
+            ids.add(id);
+        }
+
+        assertThatThrownBy(() -> productService.getProductsByIds(ids)).isInstanceOf(IllegalArgumentException.class);
+        then(productRepository).shouldHaveNoInteractions();
+    }
+
     @Test
     void createProduct_shouldReturnSavedProduct() {
         // Arrange
@@ -100,6 +291,7 @@ class ProductServiceTest {
         assertThat(actualSavedProduct.getId()).isEqualTo(3L); // Check ID was assigned
         assertThat(actualSavedProduct.getName()).isEqualTo("New Prod");
         then(productRepository).should(times(1)).save(productToSave); // Verify save was called
+        then(eventPublisher).should().publishEvent(ProductChangedEvent.created(expectedSavedProduct)); // Listeners told
     }
 
     @Test
@@ -107,27 +299,52 @@ class ProductServiceTest {
         // Arrange
         Long existingId = 1L;
         Product detailsToUpdate = new Product(null, "Updated Name", "Updated Desc", 99.99);
-        // Mock finding the existing one
-        given(productRepository.findById(existingId)).willReturn(Optional.of(product1));
-        // Mock the save operation returning the updated product
+        // Mock the single UPDATE ... RETURNING statement
         Product expectedUpdatedProduct = new Product(existingId, "Updated Name", "Updated Desc", 99.99);
-        given(productRepository.save(any(Product.class))).willReturn(expectedUpdatedProduct);
+        given(productRepository.replaceReturning(eq(existingId), eq("Updated Name"), eq("Updated Desc"), eq(99.99), isNull(), any(Instant.class)))
+                .willReturn(Optional.of(expectedUpdatedProduct));
 
         // Act
-        Optional<Product> updatedProductOpt = productService.updateProduct(existingId, detailsToUpdate);
+        Optional<Product> updatedProductOpt = productService.updateProduct(existingId, detailsToUpdate, null);
 
         // Assert
-        assertThat(updatedProductOpt).isPresent();
-        Product updatedProduct = updatedProductOpt.get();
-        assertThat(updatedProduct.getId()).isEqualTo(existingId);
-        assertThat(updatedProduct.getName()).isEqualTo("Updated Name");
-        assertThat(updatedProduct.getPrice()).isEqualTo(99.99);
+        assertThat(updatedProductOpt).contains(expectedUpdatedProduct);
+        // One round trip: no read before the write, no save of a managed entity
+        then(productRepository).should(never()).findById(anyLong());
+        then(productRepository).should(never()).save(any(Product.class));
+        then(eventPublisher).should().publishEvent(ProductChangedEvent.updated(expectedUpdatedProduct));
+    }
+
+    @Test
+    void updateProduct_withStaleExpectedVersion_shouldFail() {
+        // Arrange: the conditional UPDATE matched nothing, but the product exists -> version moved on
+        Product detailsToUpdate = new Product(null, "Updated Name", "Updated Desc", 99.99);
+        given(productRepository.replaceReturning(eq(1L), any(), any(), any(), eq(2L), any(Instant.class))).willReturn(Optional.empty());
+        given(productRepository.existsById(1L)).willReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> productService.updateProduct(1L, detailsToUpdate, 2L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        then(eventPublisher).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void updateProduct_withInvalidDetails_shouldBeRejectedBeforeTheDatabase() {
+        Product detailsToUpdate = new Product(null, " ", "Updated Desc", 99.99); // Blank name
 
-        then(productRepository).should(times(1)).findById(existingId);
-        // Check that save was called with the correctly updated product details
-        then(productRepository).should(times(1)).save(argThat(p ->
-            p.getId().equals(existingId) && p.getName().equals("Updated Name")
-        ));
+        assertThatThrownBy(() -> productService.updateProduct(1L, detailsToUpdate, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        then(productRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void updateProduct_withDescriptionLongerThanTheColumn_shouldBeRejectedBeforeTheDatabase() {
+        Product detailsToUpdate = new Product(null, "Updated Name", "x".repeat(300), 99.99); // Column is varchar(255)
+
+        assertThatThrownBy(() -> productService.updateProduct(1L, detailsToUpdate, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("description");
+        then(productRepository).shouldHaveNoInteractions();
     }
 
      @Test
@@ -135,46 +352,60 @@ class ProductServiceTest {
         // Arrange
         Long nonExistentId = 99L;
         Product detailsToUpdate = new Product(null, "Updated Name", "Updated Desc", 99.99);
-        given(productRepository.findById(nonExistentId)).willReturn(Optional.empty()); // Mock finding nothing
+        given(productRepository.replaceReturning(eq(nonExistentId), any(), any(), any(), isNull(), any(Instant.class)))
+                .willReturn(Optional.empty()); // No row updated
 
         // Act
-        Optional<Product> updatedProductOpt = productService.updateProduct(nonExistentId, detailsToUpdate);
+        Optional<Product> updatedProductOpt = productService.updateProduct(nonExistentId, detailsToUpdate, null);
 
         // Assert
         assertThat(updatedProductOpt).isNotPresent(); // Should be empty
-        then(productRepository).should(times(1)).findById(nonExistentId);
-        then(productRepository).should(never()).save(any(Product.class)); // Ensure save was NOT called
+        then(productRepository).should(never()).existsById(anyLong()); // No version expected, no second query
+        then(eventPublisher).shouldHaveNoInteractions();
     }
 
+    @Test
+    void patchProduct_shouldOnlyPassTheFieldsThatWereSent() {
+        // Arrange: price only, description untouched
+        ProductPatch patch = new ProductPatch(null, false, null, 5.0);
+        Product patched = new Product(1L, "Test Product 1", "Description 1", 5.0);
+        given(productRepository.patchReturning(eq(1L), isNull(), eq(false), isNull(), eq(5.0), isNull(), any(Instant.class)))
+                .willReturn(Optional.of(patched));
+
+        // Act
+        Optional<Product> result = productService.patchProduct(1L, patch, null);
+
+        // Assert
+        assertThat(result).contains(patched);
+        then(eventPublisher).should().publishEvent(ProductChangedEvent.updated(patched));
+    }
 
     @Test
     void deleteProduct_whenProductExists_shouldReturnTrue() {
         // Arrange
         Long existingId = 1L;
-        given(productRepository.findById(existingId)).willReturn(Optional.of(product1)); // Mock finding it
-        // No need to mock void 'delete' method - Mockito does nothing by default
+        given(productRepository.deleteWhereId(existingId)).willReturn(1); // One row deleted
 
         // Act
         boolean deleted = productService.deleteProduct(existingId);
 
         // Assert
         assertThat(deleted).isTrue(); // Should return true on success
-        then(productRepository).should(times(1)).findById(existingId);
-        then(productRepository).should(times(1)).delete(product1); // Verify delete was called with the product
+        then(productRepository).should(never()).findById(anyLong()); // Single DELETE, no lookup first
+        then(eventPublisher).should().publishEvent(ProductChangedEvent.deleted(existingId));
     }
 
     @Test
     void deleteProduct_whenProductDoesNotExist_shouldReturnFalse() {
         // Arrange
         Long nonExistentId = 99L;
-         given(productRepository.findById(nonExistentId)).willReturn(Optional.empty()); // Mock finding nothing
+        given(productRepository.deleteWhereId(nonExistentId)).willReturn(0); // Nothing deleted
 
         // Act
-         boolean deleted = productService.deleteProduct(nonExistentId);
+        boolean deleted = productService.deleteProduct(nonExistentId);
 
         // Assert
-         assertThat(deleted).isFalse(); // Should return false if not found
-         then(productRepository).should(times(1)).findById(nonExistentId);
-         then(productRepository).should(never()).delete(any(Product.class)); // Verify delete was NOT called
+        assertThat(deleted).isFalse(); // Should return false if not found
+        then(eventPublisher).shouldHaveNoInteractions(); // Nothing changed, nothing published
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.appababba.product_catalog_api.service; // Package declaration
+
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.service.BatchItemResult.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.junit.jupiter.api.extension.ExtendWith; // Use JUnit extensions (like Mockito)
+import org.mockito.Mock; // Create a mock object
+import org.mockito.junit.jupiter.MockitoExtension; // Initialize Mockito for JUnit 5
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+import static org.assertj.core.api.Assertions.assertThatThrownBy; // Exception assertions
+import static org.mockito.ArgumentMatchers.any; // Matcher for any object
+import static org.mockito.BDDMockito.given; // BDD style for setting up mocks
+import static org.mockito.BDDMockito.then; // BDD style for verifying mocks
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class) // Enable Mockito
+class ProductWriteBehindServiceTest {
+
+    @Mock // Groups are written through the batch service
+    private ProductBatchService productBatchService;
+
+    private ProductWriteBehindService writeBehind;
+
+    private final List<List<Product>> updateGroups = new CopyOnWriteArrayList<>(); // What reached the "database"
+    private final List<List<Product>> createGroups = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.stop();
+    }
+
+    @Test
+    void updates_shouldBeCoalescedPerProductAndWrittenTogether() throws Exception {
+        start(10, 10, Duration.ofMillis(500));
+        commitUpdates();
+        commitCreates();
+
+        WriteTicket first = writeBehind.submitUpdate(1L, new Product(null, "Lamp", null, 10.0)).orElseThrow();
+        WriteTicket last = writeBehind.submitUpdate(1L, new Product(null, "Lamp", null, 12.0)).orElseThrow();
+        WriteTicket other = writeBehind.submitUpdate(2L, new Product(null, "Desk", null, 99.0)).orElseThrow();
+        WriteTicket created = writeBehind.submitCreate(new Product(null, "Chair", null, 40.0)).orElseThrow();
+
+        assertThat(first.getState()).isEqualTo(WriteTicket.State.SUPERSEDED); // Replaced right away
+        assertThat(first.getSupersededBy()).isEqualTo(last.getId());
+        assertThat(writeBehind.getQueued()).isEqualTo(3);
+        awaitFinished(last, other, created);
+        assertThat(last.getState()).isEqualTo(WriteTicket.State.COMMITTED);
+        assertThat(created.getState()).isEqualTo(WriteTicket.State.COMMITTED);
+        assertThat(created.getProductId()).isEqualTo(1000L);
+        assertThat(updateGroups).hasSize(1); // One group for all of it, only the last price of product 1
+        assertThat(updateGroups.get(0)).extracting(Product::getPrice).containsExactly(12.0, 99.0);
+        assertThat(createGroups).hasSize(1);
+        assertThat(writeBehind.getTicket(last.getId())).containsSame(last);
+    }
+
+    @Test
+    void fullGroup_shouldBeWrittenWithoutWaitingForMaxDelay() throws Exception {
+        start(10, 3, Duration.ofHours(1));
+        commitCreates();
+
+        List<WriteTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tickets.add(writeBehind.submitCreate(new Product(null, "P" + i, null, 1.0 + i)).orElseThrow());
+        }
+
+        awaitFinished(tickets.toArray(WriteTicket[]::new));
+        assertThat(createGroups).hasSize(1);
+        assertThat(createGroups.get(0)).hasSize(3);
+    }
+
+    @Test
+    void stop_shouldFlushQueuedWritesAndRejectNewOnes() {
+        start(2, 10, Duration.ofHours(1));
+        commitUpdates();
+        commitCreates();
+        WriteTicket update = writeBehind.submitUpdate(7L, new Product(null, "Lamp", null, 10.0)).orElseThrow();
+        WriteTicket create = writeBehind.submitCreate(new Product(null, "Desk", null, 99.0)).orElseThrow();
+        assertThat(writeBehind.submitCreate(new Product(null, "Chair", null, 40.0))).isEmpty(); // Queue full
+
+        writeBehind.stop(); // Doesn't wait for max-delay
+
+        assertThat(update.getState()).isEqualTo(WriteTicket.State.COMMITTED);
+        assertThat(create.getState()).isEqualTo(WriteTicket.State.COMMITTED);
+        assertThat(writeBehind.submitUpdate(7L, new Product(null, "Lamp", null, 11.0))).isEmpty();
+    }
+
+    @Test
+    void invalidProduct_shouldBeRejectedBeforeItIsQueued() {
+        start(10, 10, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> writeBehind.submitUpdate(1L, new Product(null, null, null, 10.0)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(writeBehind.getQueued()).isZero();
+        writeBehind.stop();
+        then(productBatchService).should(never()).updateProducts(any());
+    }
+
+    private void start(int queueCapacity, int maxBatch, Duration maxDelay) {
+        writeBehind = new ProductWriteBehindService(productBatchService, queueCapacity, maxBatch, maxDelay,
+                Duration.ofSeconds(10), Duration.ofHours(1), false);
+        writeBehind.start();
+    }
+
+    // Every update finds its product
+    private void commitUpdates() {
+        given(productBatchService.updateProducts(any())).willAnswer(invocation -> {
+            List<Product> group = drain(invocation.getArgument(0));
+            updateGroups.add(group);
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < group.size(); i++) {
+                results.add(BatchItemResult.ok(i, group.get(i).getId(), Status.UPDATED));
+            }
+            return results;
+        });
+    }
+
+    // Creates get ids from 1000 up
+    private void commitCreates() {
+        given(productBatchService.createProducts(any())).willAnswer(invocation -> {
+            List<Product> group = drain(invocation.getArgument(0));
+            createGroups.add(group);
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < group.size(); i++) {
+                results.add(BatchItemResult.ok(i, 1000L + i, Status.CREATED));
+            }
+            return results;
+        });
+    }
+
+    private static List<Product> drain(Iterator<Product> products) {
+        List<Product> list = new ArrayList<>();
+        products.forEachRemaining(list::add);
+        return list;
+    }
+
+    private static void awaitFinished(WriteTicket... tickets) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        for (WriteTicket ticket : tickets) {
+            while (ticket.getState() == WriteTicket.State.QUEUED && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
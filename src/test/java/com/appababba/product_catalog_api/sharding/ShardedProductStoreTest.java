@@ -0,0 +1,157 @@
+package com.appababba.product_catalog_api.sharding; // Package declaration
+
+import com.appababba.product_catalog_api.config.ShardingConfig;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.pagination.ProductSort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test; // Marks a test method
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat; // Using AssertJ for assertions
+
+// Three embedded H2 databases (PostgreSQL mode) as shards, each migrated like a real one (db/shard)
+class ShardedProductStoreTest {
+
+    private static final int SHARDS = 3;
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final List<JdbcTemplate> shardJdbc = new ArrayList<>();
+    private ShardedProductStore store;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString(); // Fresh databases per test
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:shard" + i + "-" + run + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+            ShardingConfig.shardMigrations(dataSource).load().migrate();
+            dataSources.add(dataSource);
+            shardJdbc.add(new JdbcTemplate(dataSource));
+        }
+        store = new ShardedProductStore(dataSources, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().factory()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        shardJdbc.forEach(jdbc -> jdbc.execute("shutdown"));
+    }
+
+    @Test
+    void insert_shouldSpreadProductsWithIdsThatNameTheirShard() {
+        List<Product> created = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            created.add(store.insert(new Product(null, "P" + i, null, 1.0 + i), NOW));
+        }
+
+        assertThat(created).extracting(Product::getId).doesNotHaveDuplicates();
+        for (Product product : created) {
+            int shard = store.shardOf(product.getId());
+            // The row is on the shard its id maps to, and only there
+            assertThat(countOn(shard, product.getId())).isEqualTo(1);
+            assertThat(store.findById(product.getId())).get().extracting(Product::getName).isEqualTo(product.getName());
+        }
+        assertThat(created).extracting(product -> store.shardOf(product.getId())).containsOnly(0, 1, 2);
+        assertThat(created.get(0).getVersion()).isZero();
+        assertThat(store.findById(created.get(0).getId()).orElseThrow().getLastModified()).isEqualTo(NOW);
+    }
+
+    @Test
+    void shardMigrations_shouldCreateOnlyTheProductsTableAndSequence() {
+        JdbcTemplate shard = shardJdbc.get(0);
+
+        assertThat(shard.queryForList("select lower(table_name) from information_schema.tables where table_schema = 'PUBLIC'", String.class))
+                .contains("products")
+                .doesNotContain("product_changes", "product_change_head", "flyway_schema_history");
+        assertThat(shard.queryForObject("select nextval('products_seq')", Long.class)).isEqualTo(1L);
+    }
+
+    @Test
+    void listings_shouldMergeAllShardsInOrder() {
+        double[] prices = {5.0, 1.0, 3.0, 4.0, 2.0, 3.0, 9.0};
+        for (int i = 0; i < prices.length; i++) {
+            store.insert(new Product(null, "P" + i, null, prices[i]), NOW);
+        }
+
+        List<Product> all = store.findAll();
+        assertThat(all).hasSize(prices.length);
+        assertThat(all).extracting(Product::getId).isSorted();
+
+        List<Product> firstPage = store.page(0L, 4);
+        List<Product> secondPage = store.page(firstPage.get(3).getId(), 4);
+        assertThat(firstPage).hasSize(4);
+        assertThat(secondPage).hasSize(3);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(3).getId());
+
+        List<Product> byPrice = store.findPriceRange(2.0, 5.0, ProductSort.PRICE_DESC, Double.MAX_VALUE, Long.MAX_VALUE, 3);
+        assertThat(byPrice).extracting(Product::getPrice).containsExactly(5.0, 4.0, 3.0);
+        // Keyset continuation after (3.0, id): the other 3.0, then 2.0
+        Product last = byPrice.get(2);
+        assertThat(store.findPriceRange(2.0, 5.0, ProductSort.PRICE_DESC, last.getPrice(), last.getId(), 3))
+                .extracting(Product::getPrice).containsExactly(3.0, 2.0);
+    }
+
+    @Test
+    void replacePatchAndDelete_shouldGoToTheProductsShard() {
+        Product lamp = store.insert(new Product(null, "Lamp", "Desk lamp", 10.0), NOW);
+        long id = lamp.getId();
+
+        assertThat(store.replace(id, "Lamp", null, 12.0, 5L, NOW)).isEmpty(); // Stale version
+        Product replaced = store.replace(id, "Lamp", null, 12.0, 0L, NOW).orElseThrow();
+        assertThat(replaced.getVersion()).isEqualTo(1L);
+        assertThat(replaced.getDescription()).isNull();
+
+        Product patched = store.patch(id, null, false, null, 15.0, null, NOW).orElseThrow();
+        assertThat(patched.getName()).isEqualTo("Lamp"); // Untouched fields keep their value
+        assertThat(patched.getPrice()).isEqualTo(15.0);
+        assertThat(patched.getVersion()).isEqualTo(2L);
+
+        assertThat(store.patch(id + SHARDS, "Gone", false, null, null, null, NOW)).isEmpty(); // Same shard, no such id
+        assertThat(store.delete(id)).isEqualTo(1);
+        assertThat(store.existsById(id)).isFalse();
+    }
+
+    @Test
+    void bulkWrites_shouldReportWhatExisted() {
+        List<Product> created = store.insertAll(List.of(new Product(null, "A", null, 1.0),
+                new Product(null, "B", null, 2.0), new Product(null, "C", null, 3.0), new Product(null, "D", null, 4.0)), NOW);
+        long missing = created.get(3).getId() + SHARDS * 1000L;
+
+        Map<Long, Product> updated = store.updateAll(List.of(
+                new Product(created.get(0).getId(), "A2", null, 10.0),
+                new Product(created.get(1).getId(), "B2", "new", 20.0),
+                new Product(missing, "X", null, 1.0)), NOW);
+        assertThat(updated).containsOnlyKeys(created.get(0).getId(), created.get(1).getId());
+        assertThat(updated.get(created.get(1).getId()).getDescription()).isEqualTo("new");
+        assertThat(updated.get(created.get(1).getId()).getVersion()).isEqualTo(1L);
+
+        assertThat(store.findAllById(List.of(created.get(2).getId(), missing))).extracting(Product::getName).containsExactly("C");
+        assertThat(store.deleteAll(List.of(created.get(2).getId(), created.get(3).getId(), missing)))
+                .containsOnly(created.get(2).getId(), created.get(3).getId());
+        assertThat(store.findAll()).extracting(Product::getName).containsExactly("A2", "B2");
+    }
+
+    private int countOn(int shard, long id) {
+        int rows = 0;
+        for (int i = 0; i < SHARDS; i++) {
+            int count = shardJdbc.get(i).queryForObject("select count(*) from products where id = ?", Integer.class, id);
+            if (i == shard) {
+                rows += count;
+            } else {
+                assertThat(count).isZero();
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,70 @@
+package com.appababba.product_catalog_api.snapshot;
+
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.repository.ProductRepository;
+import com.appababba.product_catalog_api.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Snapshot mode end to end on an in-memory H2 database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshot;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.minimum-idle=1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.snapshot.enabled=true",
+        "app.snapshot.refresh-interval=200ms"
+})
+class CatalogSnapshotTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void writes_shouldReachTheSnapshot_andReadsShouldBeServedFromIt() throws InterruptedException {
+        assertThat(catalogSnapshot.isServing()).isTrue(); // Loaded during startup
+
+        Product created = productService.createProduct(new Product(null, "Snapshot Lamp", "Brass", 40.0));
+        awaitTrue(() -> catalogSnapshot.findById(created.getId()).isPresent());
+        assertThat(productService.getProductsPage(created.getId() - 1, 10).items())
+                .extracting(Product::getName).containsExactly("Snapshot Lamp");
+
+        // Remove the row behind the snapshot's back (no change log entry): reads still come from memory
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> productRepository.deleteWhereId(created.getId()));
+        assertThat(productService.getProductById(created.getId())).get()
+                .extracting(Product::getDescription).isEqualTo("Brass");
+
+        // A logged delete removes it
+        Product removed = productService.createProduct(new Product(null, "Snapshot Chair", null, 80.0));
+        awaitTrue(() -> productService.getAllProducts().contains(removed));
+        productService.deleteProduct(removed.getId());
+        awaitTrue(() -> productService.getProductById(removed.getId()).isEmpty());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
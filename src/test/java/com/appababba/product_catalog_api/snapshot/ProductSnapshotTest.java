@@ -0,0 +1,142 @@
+package com.appababba.product_catalog_api.snapshot;
+
+import com.appababba.product_catalog_api.event.ProductChangedEvent;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.model.ProductChange;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductSnapshotTest {
+
+    private static final Instant MODIFIED = Instant.parse("2024-05-01T10:15:30.123456Z");
+
+    @Test
+    void loadedSnapshot_shouldServeLookupsAndPagesAcrossBlocks() {
+        ProductSnapshot snapshot = load(3000); // Three blocks, ids 2, 4, ..., 6000
+
+        assertThat(snapshot.size()).isEqualTo(3000);
+        Product product = snapshot.findById(2048).orElseThrow();
+        assertThat(product.getName()).isEqualTo("Product 1024");
+        assertThat(product.getDescription()).isEqualTo("Colour " + (1024 % 7)); // Shared entry
+        assertThat(product.getPrice()).isEqualTo(1024 * 0.5);
+        assertThat(product.getVersion()).isEqualTo(1L);
+        assertThat(product.getLastModified()).isEqualTo(MODIFIED);
+        assertThat(snapshot.findById(2047)).isEmpty(); // Between two ids
+        assertThat(snapshot.findById(6002)).isEmpty(); // After the last one
+
+        // A page that starts near the end of one block and continues into the next
+        List<Product> page = snapshot.page(2044, 4);
+        assertThat(page).extracting(Product::getId).containsExactly(2046L, 2048L, 2050L, 2052L);
+        assertThat(snapshot.page(5998, 10)).extracting(Product::getId).containsExactly(6000L);
+        assertThat(snapshot.page(0, 5000)).hasSize(3000);
+    }
+
+    @Test
+    void builder_shouldRejectIdsOutOfOrder() {
+        ProductSnapshot.Builder builder = ProductSnapshot.builder(0).add(product(5, "A", null, 1.0));
+
+        assertThatThrownBy(() -> builder.add(product(3, "B", null, 1.0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void apply_shouldCopyOnWriteAndLeaveTheOldSnapshotUnchanged() {
+        ProductSnapshot before = load(10);
+        Product updated = product(4, "Renamed", null, 99.0);
+        updated.setVersion(2L);
+
+        ProductSnapshot after = before.apply(List.of(
+                change(11, ProductChangedEvent.updated(updated)),
+                change(12, ProductChangedEvent.created(product(7, "Inserted between 6 and 8", "New", 3.0))),
+                change(13, ProductChangedEvent.created(product(100, "Appended", "New", 4.0))),
+                change(14, ProductChangedEvent.deleted(2L))));
+
+        assertThat(after.sequence()).isEqualTo(14);
+        assertThat(after.size()).isEqualTo(11);
+        assertThat(after.findById(4)).get().extracting(Product::getName, Product::getDescription, Product::getVersion)
+                .containsExactly("Renamed", null, 2L);
+        assertThat(after.findById(2)).isEmpty();
+        assertThat(after.page(6, 2)).extracting(Product::getId).containsExactly(7L, 8L);
+        assertThat(after.findById(100)).isPresent();
+
+        // Readers of the previous snapshot still see exactly what was loaded
+        assertThat(before.sequence()).isEqualTo(10);
+        assertThat(before.size()).isEqualTo(10);
+        assertThat(before.findById(4)).get().extracting(Product::getName).isEqualTo("Product 2");
+        assertThat(before.findById(2)).isPresent();
+        assertThat(before.findById(7)).isEmpty();
+    }
+
+    @Test
+    void apply_shouldSkipEntriesTheSnapshotAlreadyReflects() {
+        ProductSnapshot snapshot = load(3);
+
+        ProductSnapshot after = snapshot.apply(List.of(change(2, ProductChangedEvent.deleted(2L))));
+
+        assertThat(after.findById(2)).isPresent(); // Sequence 2 is before the load position (3)
+    }
+
+    @Test
+    void apply_shouldSplitBlocksThatGrowTooLarge() {
+        ProductSnapshot snapshot = ProductSnapshot.builder(0).build(); // Empty catalog
+        long sequence = 0;
+        for (int i = 1; i <= ProductSnapshot.MAX_BLOCK_SIZE * 2; i++) {
+            // Inserted in reverse id order, so every insert lands at the front of the first block
+            long id = ProductSnapshot.MAX_BLOCK_SIZE * 2L + 1 - i;
+            snapshot = snapshot.apply(List.of(change(++sequence, ProductChangedEvent.created(product(id, "P" + id, null, 1.0)))));
+        }
+
+        assertThat(snapshot.size()).isEqualTo(ProductSnapshot.MAX_BLOCK_SIZE * 2);
+        assertThat(snapshot.page(0, Integer.MAX_VALUE)).extracting(Product::getId)
+                .isSorted().hasSize(ProductSnapshot.MAX_BLOCK_SIZE * 2);
+        assertThat(snapshot.findById(1)).get().extracting(Product::getName).isEqualTo("P1");
+    }
+
+    @Test
+    void updatesWithUnchangedStrings_shouldNotGrowThePool_andCompactionShouldDropReplacedStrings() {
+        ProductSnapshot snapshot = load(100);
+        long loadedBytes = snapshot.stringBytes();
+
+        Product repriced = snapshot.findById(10).orElseThrow();
+        repriced.setPrice(1.0);
+        snapshot = snapshot.apply(List.of(change(101, ProductChangedEvent.updated(repriced))));
+        assertThat(snapshot.stringBytes()).isEqualTo(loadedBytes);
+
+        Product renamed = snapshot.findById(10).orElseThrow();
+        renamed.setName("A much longer name than before");
+        snapshot = snapshot.apply(List.of(change(102, ProductChangedEvent.updated(renamed))));
+        assertThat(snapshot.stringBytes()).isGreaterThan(loadedBytes);
+
+        ProductSnapshot compacted = snapshot.compact();
+        assertThat(compacted.stringBytes()).isLessThan(snapshot.stringBytes());
+        assertThat(compacted.page(0, 100)).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(snapshot.page(0, 100));
+    }
+
+    // 'count' products with even ids, as of change log position 'count'
+    private static ProductSnapshot load(int count) {
+        ProductSnapshot.Builder builder = ProductSnapshot.builder(count);
+        for (int i = 1; i <= count; i++) {
+            Product product = product(2L * i, "Product " + i, "Colour " + (i % 7), i * 0.5);
+            product.setVersion(1L);
+            builder.add(product);
+        }
+        return builder.build();
+    }
+
+    private static Product product(long id, String name, String description, double price) {
+        Product product = new Product(id, name, description, price);
+        product.setVersion(0L);
+        product.setLastModified(MODIFIED);
+        return product;
+    }
+
+    private static ProductChange change(long sequence, ProductChangedEvent event) {
+        return new ProductChange(sequence, event, Instant.now());
+    }
+}
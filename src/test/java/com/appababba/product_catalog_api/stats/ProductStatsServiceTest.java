@@ -0,0 +1,200 @@
+package com.appababba.product_catalog_api.stats;
+
+import com.appababba.product_catalog_api.config.ShardingConfig;
+import com.appababba.product_catalog_api.model.Product;
+import com.appababba.product_catalog_api.repository.ProductRepository;
+import com.appababba.product_catalog_api.repository.ProductRepository.PriceBucketCount;
+import com.appababba.product_catalog_api.repository.ProductRepository.PriceSummary;
+import com.appababba.product_catalog_api.service.CatalogVersion;
+import com.appababba.product_catalog_api.sharding.ShardedProductStore;
+import com.appababba.product_catalog_api.snapshot.CatalogSnapshot;
+import com.appababba.product_catalog_api.snapshot.ProductSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+class ProductStatsServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CatalogSnapshot catalogSnapshot;
+
+    private ProductStatsService productStatsService;
+
+    @BeforeEach
+    void setUp() {
+        productStatsService = new ProductStatsService(productRepository, ShardedProductStore.disabled(), catalogSnapshot, new CatalogVersion(), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void snapshotMode_shouldScanThePriceColumnsInParallelWithoutTheDatabase() {
+        // 100,000 products priced 0.01 .. 1000.00; every tenth one is a "Lamp"
+        ProductSnapshot.Builder builder = ProductSnapshot.builder(0);
+        for (int i = 1; i <= 100_000; i++) {
+            builder.add(new Product((long) i, (i % 10 == 0 ? "Lamp " : "Chair ") + i, null, i / 100.0));
+        }
+        given(catalogSnapshot.current()).willReturn(Optional.of(builder.build()));
+
+        ProductStats all = productStatsService.getStats(null, null, null, 4, null);
+
+        assertThat(all.count()).isEqualTo(100_000);
+        assertThat(all.min()).isEqualTo(0.01);
+        assertThat(all.max()).isEqualTo(1000.0);
+        assertThat(all.mean()).isCloseTo(500.005, within(1e-6));
+        assertThat(all.percentiles()).containsOnlyKeys("p25", "p50", "p75", "p90", "p95", "p99");
+        assertThat(all.percentiles().get("p50")).isCloseTo(500.0, within(500.0 * PriceSketch.RELATIVE_ACCURACY));
+        assertThat(all.percentiles().get("p99")).isCloseTo(990.0, within(990.0 * PriceSketch.RELATIVE_ACCURACY));
+        assertThat(all.approximate()).isTrue();
+        assertThat(all.histogram()).extracting(ProductStats.Bucket::count).containsExactly(25_000L, 25_000L, 25_000L, 25_000L);
+        assertThat(all.histogram().get(3).to()).isEqualTo(1000.0); // Largest price is in the last bucket
+
+        ProductStats lamps = productStatsService.getStats(100.0, 200.0, "Lamp", 1, List.of(0.0, 150.0, 300.0));
+
+        assertThat(lamps.count()).isEqualTo(1_001); // Ids 10000, 10010, ..., 20000
+        assertThat(lamps.histogram()).extracting(ProductStats.Bucket::count).containsExactly(500L, 501L);
+        then(productRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void databaseMode_shouldPushAggregationDownToSql() {
+        given(catalogSnapshot.current()).willReturn(Optional.empty());
+        PriceSummary summary = mock(PriceSummary.class);
+        given(summary.getCount()).willReturn(3L);
+        given(summary.getMinimum()).willReturn(10.0);
+        given(summary.getMaximum()).willReturn(30.0);
+        given(summary.getMean()).willReturn(20.0);
+        given(summary.getP50()).willReturn(20.0);
+        given(productRepository.summarizePrices(-Double.MAX_VALUE, Double.MAX_VALUE, "50\\%\\_off%")).willReturn(summary);
+        PriceBucketCount first = bucket(1, 1);
+        PriceBucketCount second = bucket(2, 2);
+        given(productRepository.countPriceBuckets(10.0, 30.0, "50\\%\\_off%", "{10.0,20.0,30.0}", 2))
+                .willReturn(List.of(first, second));
+
+        ProductStats stats = productStatsService.getStats(null, null, "50%_off", 2, null);
+
+        assertThat(stats.count()).isEqualTo(3);
+        assertThat(stats.mean()).isEqualTo(20.0);
+        assertThat(stats.percentiles()).containsEntry("p50", 20.0);
+        assertThat(stats.approximate()).isFalse();
+        assertThat(stats.histogram()).containsExactly(new ProductStats.Bucket(10.0, 20.0, 1), new ProductStats.Bucket(20.0, 30.0, 2));
+
+        // Same question, unchanged catalog: answered from the result cache
+        productStatsService.getStats(null, null, "50%_off", 2, null);
+        then(productRepository).should().summarizePrices(anyDouble(), anyDouble(), anyString());
+    }
+
+    @Test
+    void databaseMode_withNoMatches_shouldSkipTheHistogramQuery() {
+        given(catalogSnapshot.current()).willReturn(Optional.empty());
+        PriceSummary summary = mock(PriceSummary.class);
+        given(summary.getMinimum()).willReturn(null); // SQL min() of no rows
+        given(productRepository.summarizePrices(5.0, 6.0, null)).willReturn(summary);
+
+        ProductStats stats = productStatsService.getStats(5.0, 6.0, null, 10, null);
+
+        assertThat(stats.count()).isZero();
+        assertThat(stats.min()).isNull();
+        assertThat(stats.histogram()).isEmpty();
+        then(productRepository).should(never()).countPriceBuckets(anyDouble(), anyDouble(), any(), anyString(), anyInt());
+    }
+
+    @Test
+    void shardingMode_shouldAggregateOnEveryShardAndMerge() {
+        given(catalogSnapshot.current()).willReturn(Optional.empty());
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int shard = 0; shard < 2; shard++) { // Embedded H2 shards (PostgreSQL mode), like ShardedProductStoreTest
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:stats-shard" + shard + "-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            ShardingConfig.shardMigrations(dataSource).load().migrate();
+            for (int i = 1 + shard; i <= 10_000; i += 2) { // Ids by parity; prices 0.01 .. 100.00, every tenth a "Lamp"
+                jdbc.update("insert into products (id, name, price) values (?, ?, ?)", i, (i % 10 == 0 ? "Lamp " : "Chair ") + i, i / 100.0);
+            }
+            dataSources.add(dataSource);
+        }
+        try (ShardedProductStore shards = new ShardedProductStore(dataSources, Executors.newVirtualThreadPerTaskExecutor())) {
+            ProductStatsService sharded = new ProductStatsService(productRepository, shards, catalogSnapshot, new CatalogVersion(), Duration.ofMinutes(1));
+
+            ProductStats all = sharded.getStats(null, null, null, 4, null);
+
+            assertThat(all.count()).isEqualTo(10_000);
+            assertThat(all.min()).isEqualTo(0.01);
+            assertThat(all.max()).isEqualTo(100.0);
+            assertThat(all.mean()).isCloseTo(50.005, within(1e-9));
+            assertThat(all.percentiles().get("p50")).isCloseTo(50.0, within(50.0 * PriceSketch.RELATIVE_ACCURACY));
+            assertThat(all.percentiles().get("p99")).isCloseTo(99.0, within(99.0 * PriceSketch.RELATIVE_ACCURACY));
+            assertThat(all.approximate()).isTrue();
+            assertThat(all.histogram()).extracting(ProductStats.Bucket::count).containsExactly(2_500L, 2_500L, 2_500L, 2_500L);
+
+            ProductStats lamps = sharded.getStats(10.0, 20.0, "Lamp", 1, List.of(0.0, 15.0, 30.0));
+
+            assertThat(lamps.count()).isEqualTo(101); // Ids 1000, 1010, ..., 2000
+            assertThat(lamps.histogram()).extracting(ProductStats.Bucket::count).containsExactly(50L, 51L);
+            assertThat(sharded.getStats(500.0, 600.0, null, 10, null).count()).isZero();
+            then(productRepository).shouldHaveNoInteractions();
+        }
+    }
+
+    @Test
+    void invalidQueries_shouldBeRejected() {
+        assertThatThrownBy(() -> productStatsService.getStats(10.0, 5.0, null, 10, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productStatsService.getStats(null, null, null, 0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productStatsService.getStats(null, null, null, 10, List.of(5.0, 5.0)))
+                .isInstanceOf(IllegalArgumentException.class);
+        then(productRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void priceSketch_shouldMergeAndHandleNegativeAndZeroPrices() {
+        PriceSketch left = new PriceSketch();
+        PriceSketch right = new PriceSketch();
+        for (int i = -50; i < 50; i++) {
+            (i % 2 == 0 ? left : right).add(i);
+        }
+
+        PriceSketch merged = left.merge(right);
+
+        assertThat(merged.count()).isEqualTo(100);
+        assertThat(merged.quantile(0.0)).isCloseTo(-50.0, within(0.5));
+        assertThat(merged.quantile(0.505)).isEqualTo(0.0); // 51st of 100 values
+        assertThat(merged.quantile(1.0)).isCloseTo(49.0, within(0.49));
+        assertThat(new PriceSketch().quantile(0.5)).isNull();
+        assertThat(ProductStatsService.percentileName(0.999)).isEqualTo("p99.9");
+    }
+
+    private static PriceBucketCount bucket(int bucket, long count) {
+        PriceBucketCount row = mock(PriceBucketCount.class);
+        given(row.getBucket()).willReturn(bucket);
+        given(row.getCount()).willReturn(count);
+        return row;
+    }
+}